@@ -419,6 +419,7 @@ public class CmsisConstants {
 	static public final String CMSIS_RTE_END_VAR   = "${cmsis_rte:end}";			//$NON-NLS-1$
 
 	static public final String PACK_IDX = "pack.idx"; //$NON-NLS-1$
+	static public final String PDSC_CACHE = "pdsc.cache"; //$NON-NLS-1$
 
 	static public final String PROJECT_LOCAL_PATH 	= "${workspace_loc:/${ProjName}}/"; //$NON-NLS-1$
 	static public final String PROJECT_ABS_PATH		= "${ProjDirPath}/"; //$NON-NLS-1$
@@ -0,0 +1,226 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.generic;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.arm.cmsis.pack.utils.WildCards;
+
+/**
+ * Inverted index: maps values of selected attribute keys to items having them.
+ * <p>
+ * Lookups return candidates whose indexed value matches a value or pattern using {@link WildCards#match(String, String)}.
+ * Values without wild cards are found directly, only indexed patterns and pattern lookups iterate over distinct values.
+ * An item can be added several times with different attributes, for instance once per mounted device of a board.
+ * </p>
+ * @param <T> type of indexed items
+ */
+public class AttributeIndex<T> {
+
+	protected Set<String> fKeys = new HashSet<String>(); // indexed attribute keys
+	protected Map<String, Map<String, Set<T>>> fValues = new HashMap<String, Map<String, Set<T>>>(); // key -> value -> items
+	protected Map<String, Set<String>> fPatterns = new HashMap<String, Set<String>>(); // key -> indexed values containing wild cards
+	protected Map<T, List<String>> fItems = new HashMap<T, List<String>>(); // item -> indexed key-value pairs
+
+	/**
+	 * Constructs index for given attribute keys
+	 * @param keys attribute keys to index
+	 */
+	public AttributeIndex(String... keys) {
+		for(String key : keys) {
+			fKeys.add(key);
+		}
+	}
+
+	/**
+	 * Checks if attribute key is indexed
+	 * @param key attribute key
+	 * @return true if the key is indexed
+	 */
+	public boolean isIndexed(String key) {
+		return fKeys.contains(key);
+	}
+
+	/**
+	 * Adds item to the index using values of indexed keys found in supplied attributes
+	 * @param item item to add
+	 * @param attributes attributes to take the values from, typically item's attributes
+	 */
+	public synchronized void add(T item, IAttributes attributes) {
+		if(item == null || attributes == null) {
+			return;
+		}
+		List<String> pairs = fItems.get(item);
+		if(pairs == null) {
+			pairs = new LinkedList<String>();
+			fItems.put(item, pairs);
+		}
+		for(String key : fKeys) {
+			String value = attributes.getAttribute(key);
+			if(value == null || value.isEmpty()) {
+				continue;
+			}
+			Map<String, Set<T>> values = fValues.get(key);
+			if(values == null) {
+				values = new HashMap<String, Set<T>>();
+				fValues.put(key, values);
+			}
+			Set<T> items = values.get(value);
+			if(items == null) {
+				items = new LinkedHashSet<T>();
+				values.put(value, items);
+				if(WildCards.containsWildCards(value)) {
+					Set<String> patterns = fPatterns.get(key);
+					if(patterns == null) {
+						patterns = new HashSet<String>();
+						fPatterns.put(key, patterns);
+					}
+					patterns.add(value);
+				}
+			}
+			if(items.add(item)) {
+				pairs.add(key);
+				pairs.add(value);
+			}
+		}
+	}
+
+	/**
+	 * Removes item from the index
+	 * @param item item to remove
+	 */
+	public synchronized void remove(T item) {
+		List<String> pairs = fItems.remove(item);
+		if(pairs == null) {
+			return;
+		}
+		for(int i = 0; i < pairs.size(); i += 2) {
+			String key = pairs.get(i);
+			String value = pairs.get(i + 1);
+			Map<String, Set<T>> values = fValues.get(key);
+			Set<T> items = values.get(value);
+			items.remove(item);
+			if(items.isEmpty()) {
+				values.remove(value);
+				Set<String> patterns = fPatterns.get(key);
+				if(patterns != null) {
+					patterns.remove(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all items from the index
+	 */
+	public synchronized void clear() {
+		fValues.clear();
+		fPatterns.clear();
+		fItems.clear();
+	}
+
+	/**
+	 * Returns number of indexed items
+	 * @return item count
+	 */
+	public synchronized int size() {
+		return fItems.size();
+	}
+
+	/**
+	 * Checks if item is indexed
+	 * @param item item to check
+	 * @return true if the item has been added and not removed
+	 */
+	public synchronized boolean contains(T item) {
+		return fItems.containsKey(item);
+	}
+
+	/**
+	 * Returns items whose value for given key matches supplied value, both can contain wild cards
+	 * @param key indexed attribute key
+	 * @param value value or pattern to match
+	 * @return set of matching items, empty if none found or key is not indexed
+	 */
+	public synchronized Set<T> getItems(String key, String value) {
+		Set<T> result = new LinkedHashSet<T>();
+		Map<String, Set<T>> values = fValues.get(key);
+		if(values == null || value == null || value.isEmpty()) {
+			return result;
+		}
+		if(!WildCards.containsWildCards(value)) {
+			Set<T> items = values.get(value);
+			if(items != null) {
+				result.addAll(items);
+			}
+			Set<String> patterns = fPatterns.get(key);
+			if(patterns != null) {
+				for(String pattern : patterns) {
+					if(WildCards.match(value, pattern)) {
+						result.addAll(values.get(pattern));
+					}
+				}
+			}
+			return result;
+		}
+		for(Entry<String, Set<T>> e : values.entrySet()) {
+			if(WildCards.match(value, e.getKey())) {
+				result.addAll(e.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns items matching all indexed attributes found in the filter, other filter attributes are ignored
+	 * @param filter attributes to match
+	 * @return set of matching items, all items if the filter contains no indexed attributes
+	 */
+	public synchronized Set<T> select(IAttributes filter) {
+		Set<T> result = null;
+		for(String key : fKeys) {
+			String value = filter != null ? filter.getAttribute(key) : null;
+			if(value == null || value.isEmpty()) {
+				continue;
+			}
+			Set<T> items = getItems(key, value);
+			if(result == null) {
+				result = items;
+			} else {
+				result.retainAll(items);
+			}
+			if(result.isEmpty()) {
+				break;
+			}
+		}
+		if(result == null) {
+			result = new LinkedHashSet<T>(fItems.keySet());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all indexed items
+	 * @return collection of all items
+	 */
+	public synchronized Collection<T> getItems() {
+		return new LinkedHashSet<T>(fItems.keySet());
+	}
+}
@@ -11,19 +11,36 @@
 
 package com.arm.cmsis.pack.generic;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.utils.WildCards;
 
 /**
  * Default implementation of IAttributes interface
+ * <p>
+ * Keys and values are stored in a single array sorted by keys: key0, value0, key1, value1, ...
+ * The array is never modified, every change replaces it: reads need no synchronization.
+ * Keys and short values are interned, since the same strings (Dvendor, Dcore, Cclass, ...) occur in many items.
+ * Attributes of loaded packs are frozen: any further modification, including merges, throws IllegalStateException.
+ * </p>
  */
 public class Attributes implements IAttributes {
 
-	protected Map<String, String> fAttributes = null;
+	private static final String[] EMPTY_DATA = new String[0];
+	private static final int MAX_INTERNED_LENGTH = 32; // longer values are mostly unique (file names, descriptions)
+	private static final int MAX_POOL_SIZE = 1 << 16; // pool is cleared when exceeded
+	private static final Map<String, String> STRING_POOL = new ConcurrentHashMap<String, String>();
+
+	protected volatile String[] fData = null; // sorted key-value pairs, null if attributes have never been set
+	protected volatile boolean fFrozen = false; // read-only after pack load
 
 	/**
 	 * Default constructor
@@ -37,25 +54,160 @@ public class Attributes implements IAttributes {
 	 * @param copyFrom
 	 */
 	public Attributes(final IAttributes copyFrom) {
-		setAttributes(copyFrom.getAttributesAsMap());
+		setAttributes(copyFrom);
+	}
+
+	/**
+	 * Returns canonical instance of a short string to avoid keeping many equal copies in memory
+	 * @param s string to intern
+	 * @return interned string or s itself if it is too long
+	 */
+	public static String intern(String s) {
+		if(s == null || s.length() > MAX_INTERNED_LENGTH) {
+			return s;
+		}
+		String interned = STRING_POOL.get(s);
+		if(interned != null) {
+			return interned;
+		}
+		if(STRING_POOL.size() >= MAX_POOL_SIZE) {
+			STRING_POOL.clear(); // strings already shared stay shared, only the lookup is lost
+		}
+		interned = STRING_POOL.putIfAbsent(s, s);
+		return interned != null ? interned : s;
+	}
+
+	/**
+	 * Searches key in sorted key-value array
+	 * @param data sorted key-value array
+	 * @param key key to search
+	 * @return index of the key in the array if found, otherwise <code>-(insertion index) - 1</code>
+	 */
+	protected static int indexOf(String[] data, String key) {
+		int lo = 0;
+		int hi = data.length / 2 - 1;
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			String k = data[mid * 2];
+			if(k == key) {
+				return mid * 2;
+			}
+			int c = k.compareTo(key);
+			if(c < 0) {
+				lo = mid + 1;
+			} else if(c > 0) {
+				hi = mid - 1;
+			} else {
+				return mid * 2;
+			}
+		}
+		return -(lo * 2) - 1;
+	}
+
+	/**
+	 * Creates sorted key-value array out of a map, null keys and values are skipped
+	 * @param attributes map to convert
+	 * @return sorted key-value array
+	 */
+	protected static String[] toData(Map<String, String> attributes) {
+		if(attributes == null) {
+			return null;
+		}
+		List<String> keys = new ArrayList<String>(attributes.size());
+		for(Entry<String, String> e : attributes.entrySet()) {
+			if(e.getKey() != null && e.getValue() != null) {
+				keys.add(e.getKey());
+			}
+		}
+		String[] sortedKeys = keys.toArray(new String[keys.size()]);
+		Arrays.sort(sortedKeys);
+		String[] data = new String[sortedKeys.length * 2];
+		for(int i = 0; i < sortedKeys.length; i++) {
+			data[i * 2] = intern(sortedKeys[i]);
+			data[i * 2 + 1] = intern(attributes.get(sortedKeys[i]));
+		}
+		return data;
+	}
+
+	/**
+	 * Returns sorted key-value array of supplied attributes, shares it if possible
+	 * @param attributes IAttributes to get data from
+	 * @return sorted key-value array, null if attributes are null or have never been set
+	 */
+	protected static String[] getData(IAttributes attributes) {
+		if(attributes == null) {
+			return null;
+		}
+		if(attributes instanceof Attributes) {
+			return ((Attributes)attributes).fData;
+		}
+		return toData(attributes.getAttributesAsMap());
+	}
+
+	/**
+	 * Merges two sorted key-value arrays
+	 * @param data existing array
+	 * @param other array to merge in
+	 * @param overwrite true to overwrite existing values, false to add only new keys
+	 * @param prefix if not null or empty - take from other array only keys with that prefix
+	 * @return merged array
+	 */
+	protected static String[] mergeData(String[] data, String[] other, boolean overwrite, String prefix) {
+		boolean usePrefix = prefix != null && !prefix.isEmpty();
+		String[] merged = new String[data.length + other.length];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while(i < data.length || j < other.length) {
+			if(j < other.length && usePrefix && !other[j].startsWith(prefix)) {
+				j += 2;
+				continue;
+			}
+			int c;
+			if(i >= data.length) {
+				c = 1;
+			} else if(j >= other.length) {
+				c = -1;
+			} else {
+				c = data[i].compareTo(other[j]);
+			}
+			if(c < 0) {
+				merged[n++] = data[i++];
+				merged[n++] = data[i++];
+			} else if(c > 0) {
+				merged[n++] = other[j++];
+				merged[n++] = other[j++];
+			} else {
+				merged[n++] = data[i++];
+				merged[n++] = overwrite ? other[j + 1] : data[i];
+				i++;
+				j += 2;
+			}
+		}
+		return n == merged.length ? merged : Arrays.copyOf(merged, n);
 	}
 
 
 	@Override
-	synchronized public boolean hasAttribute(String key) {
-		return fAttributes != null && fAttributes.containsKey(key);
+	public boolean hasAttribute(String key) {
+		String[] data = fData;
+		return data != null && key != null && indexOf(data, key) >= 0;
 	}
 
 	@Override
-	synchronized public String getAttribute(String key) {
-		if(fAttributes != null) {
-			return fAttributes.get(key);
+	public String getAttribute(String key) {
+		String[] data = fData;
+		if(data != null && key != null) {
+			int index = indexOf(data, key);
+			if(index >= 0) {
+				return data[index + 1];
+			}
 		}
 		return null;
 	}
 
 	@Override
-	synchronized public String getAttribute(String key, String defaultValue) {
+	public String getAttribute(String key, String defaultValue) {
 		String value = getAttribute(key);
 		if(value != null) {
 			return value;
@@ -97,19 +249,62 @@ public class Attributes implements IAttributes {
 	}
 
 
+	@Override
+	public void freeze() {
+		fFrozen = true;
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return fFrozen;
+	}
+
+	/**
+	 * Throws IllegalStateException if attributes are frozen
+	 */
+	protected void checkWritable() {
+		if(fFrozen) {
+			throw new IllegalStateException("Attributes are frozen: " + getAttributesAsString()); //$NON-NLS-1$
+		}
+	}
+
 	@Override
 	synchronized public void setAttribute(String key, String value) {
+		checkWritable();
 		if(key == null) {
 			return;
 		}
-		if(fAttributes == null) {
-			fAttributes = new TreeMap<String, String>(); // use natural sorting to get consistent string representation
+		if(value == null) {
+			removeAttribute(key);
+			return;
 		}
-		if(value != null) {
-			fAttributes.put(key, value);
-		} else if(fAttributes != null) {
-			fAttributes.remove(key);
+		putAttribute(key, value);
+	}
+
+	/**
+	 * Inserts or replaces a single key-value pair without checking frozen state
+	 * @param key attribute key, not null
+	 * @param value attribute value, not null
+	 */
+	private void putAttribute(String key, String value) {
+		String[] data = fData != null ? fData : EMPTY_DATA;
+		int index = indexOf(data, key);
+		if(index >= 0) {
+			if(value.equals(data[index + 1])) {
+				return;
+			}
+			data = data.clone();
+			data[index + 1] = intern(value);
+		} else {
+			index = -index - 1;
+			String[] newData = new String[data.length + 2];
+			System.arraycopy(data, 0, newData, 0, index);
+			newData[index] = intern(key);
+			newData[index + 1] = intern(value);
+			System.arraycopy(data, index, newData, index + 2, data.length - index);
+			data = newData;
 		}
+		fData = data;
 	}
 
 
@@ -125,111 +320,146 @@ public class Attributes implements IAttributes {
 
 	@Override
 	synchronized public void removeAttribute(String key) {
-		if(fAttributes != null ) {
-			fAttributes.remove(key);
+		checkWritable();
+		String[] data = fData;
+		if(data == null || key == null) {
+			return;
 		}
+		int index = indexOf(data, key);
+		if(index < 0) {
+			return;
+		}
+		String[] newData = new String[data.length - 2];
+		System.arraycopy(data, 0, newData, 0, index);
+		System.arraycopy(data, index + 2, newData, index, data.length - index - 2);
+		fData = newData;
 	}
 
 	@Override
 	synchronized public void mergeAttribute(String key, String value) {
-		if(!hasAttribute(key)) {
-			setAttribute(key, value);
+		checkWritable();
+		if(key != null && value != null && !hasAttribute(key)) {
+			putAttribute(key, value);
 		}
 	}
 
 
 	@Override
-	synchronized public boolean hasAttributes() {
-		return fAttributes != null && !fAttributes.isEmpty();
+	public boolean hasAttributes() {
+		String[] data = fData;
+		return data != null && data.length > 0;
 	}
 
+	/**
+	 * Returns copy of the attributes as a sorted map, changes to the map do not affect the attributes
+	 */
 	@Override
-	synchronized public Map<String, String> getAttributesAsMap() {
-		return fAttributes;
+	public Map<String, String> getAttributesAsMap() {
+		String[] data = fData;
+		if(data == null) {
+			return null;
+		}
+		Map<String, String> attributes = new TreeMap<String, String>();
+		for(int i = 0; i < data.length; i += 2) {
+			attributes.put(data[i], data[i + 1]);
+		}
+		return attributes;
 	}
 
+	/**
+	 * Iterates over the sorted key-value array, does not allocate
+	 */
 	@Override
-	synchronized public void setAttributes(Map<String, String> attributes) {
-		if(attributes == null) {
-			fAttributes = null;
-		} else {
-			// make copy
-			fAttributes = new TreeMap<String, String>();
-			fAttributes.putAll(attributes);
+	public void forEachAttribute(BiConsumer<String, String> action) {
+		String[] data = fData;
+		if(data == null) {
+			return;
+		}
+		for(int i = 0; i < data.length; i += 2) {
+			action.accept(data[i], data[i + 1]);
 		}
 	}
 
+	@Override
+	synchronized public void setAttributes(Map<String, String> attributes) {
+		checkWritable();
+		fData = toData(attributes);
+	}
+
 	@Override
 	synchronized public void addAttributes(Map<String, String> attributes) {
+		checkWritable();
 		if(attributes != null && !attributes.isEmpty()) {
-			// make copy
-			if(fAttributes == null) {
-				setAttributes(attributes);
-			} else {
-				fAttributes.putAll(attributes);
-			}			
+			addData(toData(attributes));
 		}
 	}
-	
+
 	@Override
 	public void setAttributes(String attributesString) {
-		fAttributes = splitString(attributesString);
+		setAttributes(splitString(attributesString));
 	}
 
 
 	@Override
 	synchronized public void setAttributes(IAttributes attributes) {
+		checkWritable();
 		if(attributes != null && attributes.hasAttributes()) {
-			setAttributes(attributes.getAttributesAsMap());
+			fData = getData(attributes); // arrays are immutable : can be shared
 		} else {
-			fAttributes = null;
+			fData = null;
 		}
 	}
 
 	@Override
 	synchronized public void addAttributes(IAttributes attributes) {
+		checkWritable();
 		if(attributes != null && attributes.hasAttributes()) {
-			addAttributes(attributes.getAttributesAsMap());
-		} 
+			addData(getData(attributes));
+		}
 	}
 
-	
-	@Override
-	synchronized public void mergeAttributes(final IAttributes attributes) {
-		if(attributes == null || !attributes.hasAttributes()) {
-			return; // nothing to merge
-		}
-		Map<String, String> attributesMap = attributes.getAttributesAsMap();
-		if(fAttributes == null) {
-			setAttributes(attributesMap);
+	/**
+	 * Adds sorted key-value pairs overwriting existing values
+	 * @param other sorted key-value array
+	 */
+	protected synchronized void addData(String[] other) {
+		if(other == null || other.length == 0) {
+			return;
 		}
-		for(Entry<String, String> e: attributesMap.entrySet()) {
-			mergeAttribute(e.getKey(), e.getValue());
+		String[] data = fData;
+		if(data == null || data.length == 0) {
+			fData = other;
+		} else {
+			fData = mergeData(data, other, true, null);
 		}
 	}
 
+
+	@Override
+	synchronized public void mergeAttributes(final IAttributes attributes) {
+		mergeAttributes(attributes, null);
+	}
+
 	@Override
 	synchronized public void mergeAttributes(final IAttributes attributes, final String prefix) {
+		checkWritable();
 		if(attributes == null || !attributes.hasAttributes()) {
 			return; // nothing to merge
 		}
-		Map<String, String> attributesMap = attributes.getAttributesAsMap();
-		for(Entry<String, String> e: attributesMap.entrySet()) {
-			String key = e.getKey();
-			if(key.startsWith(prefix)) {
-				mergeAttribute(key, e.getValue());
-			}
-		}
+		String[] other = getData(attributes);
+		String[] data = fData;
+		fData = mergeData(data != null ? data : EMPTY_DATA, other, false, prefix);
 	}
 
 
 	@Override
-	synchronized public boolean containsAttribute(String pattern) {
-		if(fAttributes == null) {
+	public boolean containsAttribute(String pattern) {
+		String[] data = fData;
+		if(data == null) {
 			return false;
 		}
-		for(String key : fAttributes.keySet()){
-			if(WildCards.match(pattern, key)) {
+		for(int i = 0; i < data.length; i += 2) {
+			if(WildCards.match(pattern, data[i])) {
 				return true;
 			}
 		}
@@ -268,17 +498,19 @@ public class Attributes implements IAttributes {
 	 * @return true if matches, false otherwise
 	 */
 	protected boolean matchAttributes(final IAttributes attributes, String prefix, boolean bCommon){
+		String[] data = fData;
 		if(attributes == null) {
-			return fAttributes == null || fAttributes.isEmpty();
+			return data == null || data.length == 0;
 		}
-		for(Entry<String, String> e : fAttributes.entrySet()){
-			String key = e.getKey();
-			if(prefix != null && !prefix.isEmpty()) {
-				if(!key.startsWith(prefix)) {
-					continue;
-				}
+		if(data == null) {
+			return true;
+		}
+		boolean usePrefix = prefix != null && !prefix.isEmpty();
+		for(int i = 0; i < data.length; i += 2) {
+			String key = data[i];
+			if(usePrefix && !key.startsWith(prefix)) {
+				continue;
 			}
-			String val = e.getValue();
 			String pattern = attributes.getAttribute(key);
 			if(pattern == null) {
 				if(bCommon) {
@@ -286,7 +518,7 @@ public class Attributes implements IAttributes {
 				}
 				return false;
 			}
-			if(!matchAttribute(key, val, pattern)) {
+			if(!matchAttribute(key, data[i + 1], pattern)) {
 				return false;
 			}
 		}
@@ -302,22 +534,27 @@ public class Attributes implements IAttributes {
 
 	@Override
 	public boolean containsValue(String value) {
-		if(fAttributes == null || fAttributes.isEmpty()) {
+		String[] data = fData;
+		if(data == null || value == null) {
 			return false;
 		}
-		return fAttributes.containsValue(value);
+		for(int i = 1; i < data.length; i += 2) {
+			if(value.equals(data[i])) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 
 	@Override
 	public boolean containsValuePattern(String pattern) {
-		if(pattern == null || fAttributes == null || fAttributes.isEmpty()) {
+		String[] data = fData;
+		if(pattern == null || data == null) {
 			return false;
 		}
-		for(Entry<String, String> e : fAttributes.entrySet()){
-			String key = e.getKey();
-			String val = e.getValue();
-			if(matchAttribute(key, val, pattern)) {
+		for(int i = 0; i < data.length; i += 2) {
+			if(matchAttribute(data[i], data[i + 1], pattern)) {
 				return true;
 			}
 		}
@@ -359,21 +596,22 @@ public class Attributes implements IAttributes {
 	 * Returns string containing all attributes in the form "key0"="value0", "key1"=value1,...
 	 * @return string containing keys and values of all attributes
 	 */
-	synchronized public String getAttributesAsString() {
-		String s = CmsisConstants.EMPTY_STRING;
-		if(hasAttributes()) {
-			for(Entry<String, String> e : fAttributes.entrySet()){
-				if(!s.isEmpty())
-				 {
-					s += ", "; //$NON-NLS-1$
-				}
-				s += e.getKey();
-				s += "=\""; //$NON-NLS-1$
-				s += e.getValue();
-				s += "\""; //$NON-NLS-1$
+	public String getAttributesAsString() {
+		String[] data = fData;
+		if(data == null || data.length == 0) {
+			return CmsisConstants.EMPTY_STRING;
+		}
+		StringBuilder s = new StringBuilder();
+		for(int i = 0; i < data.length; i += 2) {
+			if(i > 0) {
+				s.append(", "); //$NON-NLS-1$
 			}
+			s.append(data[i]);
+			s.append("=\""); //$NON-NLS-1$
+			s.append(data[i + 1]);
+			s.append('"');
 		}
-		return s;
+		return s.toString();
 	}
 
 	/**
@@ -12,6 +12,7 @@
 package com.arm.cmsis.pack.generic;
 
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * Interface describing an item that has String attributes map. 
@@ -29,6 +30,17 @@ public interface IAttributes {
 	 * @return the attributes as a Map
 	 */
 	Map<String, String> getAttributesAsMap();
+
+	/**
+	 * Performs the action for each attribute without creating a map
+	 * @param action BiConsumer receiving attribute key and value
+	 */
+	default void forEachAttribute(BiConsumer<String, String> action) {
+		Map<String, String> attributes = getAttributesAsMap();
+		if(attributes != null) {
+			attributes.forEach(action);
+		}
+	}
 	
 
 	/**
@@ -239,6 +251,18 @@ public interface IAttributes {
 	 */
 	String getDoc();
 
+	/**
+	 * Makes attributes read-only: subsequent calls that overwrite or remove attributes throw IllegalStateException.
+	 * Adding missing attributes via mergeAttribute() and mergeAttributes() is still allowed 
+	 */
+	void freeze();
+
+	/**
+	 * Checks if attributes are frozen 
+	 * @return true if {@link #freeze()} has been called
+	 */
+	boolean isFrozen();
+
 	/**
 	 * Returns long integer representation of a supplied string value  
 	 * @param value string to convert
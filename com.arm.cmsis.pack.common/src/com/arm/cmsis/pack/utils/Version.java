@@ -0,0 +1,228 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed version string that can be used as a precomputed sort key, see {@link VersionComparator}
+ * <p/>
+ * Build metadata is dropped, MAJOR.MINOR.PATCH segments are split and the release (after '-') is parsed as nested version.
+ * Plain decimal segments are kept as numbers, other segments are compared alpha-numerically.
+ * Instances are immutable, use {@link #valueOf(String)} to get a cached instance.
+ */
+public final class Version implements Comparable<Version> {
+
+	private static final String ZERO_STRING = "0"; //$NON-NLS-1$
+	private static final int MAX_CACHE_SIZE = 4096; // cache is cleared when exceeded
+	private static final Map<String, Version> VERSIONS = new ConcurrentHashMap<String, Version>();
+
+	private final String fVersion;		// original version string
+	private final String[] fSegments;	// version segments : MAJOR.MINOR.PATCH...
+	private final int[] fValues;		// numeric segment values, -1 if segment is not a plain decimal number
+	private final String fRelease;		// remainder (after '-'), null if none
+	private final Version fReleaseVersion; // parsed release
+
+	/**
+	 * Constructs version from string
+	 * @param ver version string, must not be null
+	 */
+	public Version(String ver) {
+		this(ver, 0);
+	}
+
+	private Version(String ver, int level) {
+		if(ver == null)
+			throw new IllegalArgumentException("Version can not be null"); //$NON-NLS-1$
+		fVersion = ver;
+
+		// 1. drop build metadata
+		ver = VersionComparator.removeMetadata(ver);
+
+		// 2. extract release
+		String release = null;
+		int pos = ver.indexOf('-');
+		if(pos >= 0) {
+			release = ver.substring(pos + 1);
+			ver = ver.substring(0, pos);
+		} else if(level == 0 && !ver.isEmpty()) {
+			// check for special ST case without dash like 1.2.3b < 1.2.3
+			int lastIndex = ver.length() - 1;
+			for(pos = lastIndex; pos >= 0; pos--) {
+				char ch = ver.charAt(pos);
+				if(ch == '.')
+					break;
+				if(!Character.isDigit(ch))
+					continue;
+				if(pos < lastIndex) {
+					release = ver.substring(pos);
+					ver = ver.substring(0, pos);
+				}
+				break;
+			}
+		}
+		fRelease = release;
+		fReleaseVersion = release != null ? new Version(release, level + 1) : null;
+
+		// 3. split segments
+		fSegments = ver.split("\\."); //$NON-NLS-1$
+		fValues = new int[fSegments.length];
+		for(int i = 0; i < fSegments.length; i++) {
+			fValues[i] = toValue(fSegments[i]);
+		}
+	}
+
+	/**
+	 * Returns cached parsed version for the given string
+	 * @param ver version string
+	 * @return Version or null if ver is null
+	 */
+	public static Version valueOf(String ver) {
+		if(ver == null)
+			return null;
+		Version version = VERSIONS.get(ver);
+		if(version == null) {
+			version = new Version(ver);
+			if(VERSIONS.size() >= MAX_CACHE_SIZE) {
+				VERSIONS.clear();
+			}
+			VERSIONS.put(ver, version);
+		}
+		return version;
+	}
+
+	/**
+	 * Converts segment to a number if it consists of up to 9 decimal digits without leading zeros.
+	 * Other segments are compared using {@link AlnumComparator#alnumCompare(String, String, boolean)}
+	 * that treats leading zeros as octal prefix.
+	 */
+	private static int toValue(String segment) {
+		int length = segment.length();
+		if(length == 0 || length > 9 || (length > 1 && segment.charAt(0) == '0'))
+			return -1;
+		int value = 0;
+		for(int i = 0; i < length; i++) {
+			char ch = segment.charAt(i);
+			if(ch < '0' || ch > '9')
+				return -1;
+			value = value * 10 + (ch - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Returns release part of the version (after '-')
+	 * @return release string or null if version has no release
+	 */
+	public String getRelease() {
+		return fRelease;
+	}
+
+	/**
+	 * Returns number of version segments
+	 * @return segment count
+	 */
+	public int getSegmentCount() {
+		return fSegments.length;
+	}
+
+	/**
+	 * Returns version segment
+	 * @param index segment index
+	 * @return segment string, "0" if index is out of range
+	 */
+	public String getSegment(int index) {
+		if(index >= 0 && index < fSegments.length)
+			return fSegments[index];
+		return ZERO_STRING;
+	}
+
+	private int getValue(int index) {
+		if(index >= 0 && index < fValues.length)
+			return fValues[index];
+		return 0;
+	}
+
+	@Override
+	public int compareTo(Version that) {
+		return compareTo(that, true);
+	}
+
+	/**
+	 * Semantically compares this version with another one
+	 * @param that version to compare to
+	 * @param cs case sensitive flag for non-numeric segments
+	 * @return comparison result - see {@link VersionComparator#versionCompare(String, String, boolean)}
+	 */
+	public int compareTo(Version that, boolean cs) {
+		int result = 4;
+		if(that == null)
+			return result;
+		if(that == this)
+			return 0;
+		int length = Math.max(this.getSegmentCount(), that.getSegmentCount());
+		for(int i = 0; i < length; i++) {
+			int v1 = this.getValue(i);
+			int v2 = that.getValue(i);
+			int res;
+			if(v1 >= 0 && v2 >= 0) {
+				res = Integer.compare(v1, v2);
+			} else {
+				res = AlnumComparator.alnumCompare(this.getSegment(i), that.getSegment(i), cs);
+			}
+			if(res != 0)
+				return res > 0 ? result : -result;
+			if(result > 1)
+				result--;
+		}
+
+		if(fReleaseVersion == null && that.fReleaseVersion == null)
+			return 0;
+		else if(fReleaseVersion == null)
+			return 1;
+		else if(that.fReleaseVersion == null)
+			return -1;
+
+		// compare releases
+		result = fReleaseVersion.compareTo(that.fReleaseVersion, false); // case insensitive compare for release revision
+		if(result < 0) {
+			return -1;
+		} else if(result > 0) {
+			return 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(obj == this)
+			return true;
+		if(obj instanceof Version)
+			return fVersion.equals(((Version)obj).fVersion);
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return fVersion.hashCode();
+	}
+
+	/**
+	 * Returns original version string
+	 * @return version string this object is created from
+	 */
+	@Override
+	public String toString() {
+		return fVersion;
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arm.cmsis.pack.common.CmsisConstants;
+
+/**
+ * Parsed version range in the form <code>"min[:max]"</code>, see {@link VersionComparator#matchVersionRange(String, String)}
+ * <p/>
+ * Both bounds are inclusive and optional, a range with equal bounds matches only versions equal to the bound.
+ * Instances are immutable, use {@link #valueOf(String)} to get a cached instance.
+ */
+public final class VersionRange {
+
+	private static final int MAX_CACHE_SIZE = 1024; // cache is cleared when exceeded
+	private static final Map<String, VersionRange> RANGES = new ConcurrentHashMap<String, VersionRange>();
+
+	private final String fRange;
+	private final Version fMin;	// null if not specified
+	private final Version fMax;	// null if not specified
+	private final boolean fExact; // min and max strings are equal
+
+	/**
+	 * Constructs range from string
+	 * @param versionRange string in the form <code>"min[:max]"</code>, null or empty string matches any version
+	 */
+	public VersionRange(String versionRange) {
+		fRange = versionRange != null ? versionRange : CmsisConstants.EMPTY_STRING;
+		String verMin = fRange;
+		String verMax = null;
+		int i = fRange.indexOf(':');
+		if (i >= 0) {
+			verMin = fRange.substring(0, i);
+			verMax = fRange.substring(i + 1);
+		}
+		fMin = verMin.isEmpty() ? null : new Version(verMin);
+		fMax = verMax == null || verMax.isEmpty() ? null : new Version(verMax);
+		fExact = verMin.equals(verMax);
+	}
+
+	/**
+	 * Returns cached range for the given string
+	 * @param versionRange string in the form <code>"min[:max]"</code>
+	 * @return VersionRange
+	 */
+	public static VersionRange valueOf(String versionRange) {
+		if(versionRange == null)
+			versionRange = CmsisConstants.EMPTY_STRING;
+		VersionRange range = RANGES.get(versionRange);
+		if(range == null) {
+			range = new VersionRange(versionRange);
+			if(RANGES.size() >= MAX_CACHE_SIZE) {
+				RANGES.clear();
+			}
+			RANGES.put(versionRange, range);
+		}
+		return range;
+	}
+
+	/**
+	 * Returns minimum version
+	 * @return minimum Version or null if not specified
+	 */
+	public Version getMin() {
+		return fMin;
+	}
+
+	/**
+	 * Returns maximum version, for exact ranges the same as minimum
+	 * @return maximum Version or null if not specified
+	 */
+	public Version getMax() {
+		return fExact ? fMin : fMax;
+	}
+
+	/**
+	 * Checks if the range matches any version
+	 * @return true if neither minimum nor maximum is specified
+	 */
+	public boolean isUnbounded() {
+		return fMin == null && fMax == null;
+	}
+
+	/**
+	 * Checks if supplied version matches the range
+	 * @param version version string to check, null or empty string matches any range
+	 * @return true if version is larger or equal to minimum and smaller or equal optional maximum
+	 */
+	public boolean matches(String version) {
+		if(version == null || version.isEmpty())
+			return true;
+		return matches(Version.valueOf(version));
+	}
+
+	/**
+	 * Checks if supplied version matches the range
+	 * @param version Version to check, null matches any range
+	 * @return true if version is larger or equal to minimum and smaller or equal optional maximum
+	 */
+	public boolean matches(Version version) {
+		if(version == null)
+			return true;
+		if(fMin != null) {
+			int res = version.compareTo(fMin);
+			if(res < 0)
+				return false;
+			if(fExact)
+				return res == 0;
+		}
+		if(fMax != null && version.compareTo(fMax) > 0)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return fRange;
+	}
+}
@@ -11,6 +11,11 @@
 
 package com.arm.cmsis.pack.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Utility class provides method to compare two string that can contain wild cards
@@ -34,8 +39,14 @@ package com.arm.cmsis.pack.utils;
  * <li>* match is performed until first matching on character followed after * is found, therefore 
  *   pattern <code>"a*d"</code> will match <code>"a.d"</code> or <code>"a.c.d"</code>, but not <code>"a.d.d"</code>"    
  * </ul> 
+ * If only one of the strings contains wild cards, it is compiled once and cached, 
+ * the compiled pattern gives the same results as the general algorithm.  
  */
 public class WildCards {
+
+	private static final int MAX_CACHE_SIZE = 4096; // caches are cleared when exceeded
+	private static final Map<String, CompiledPattern> PATTERNS = new ConcurrentHashMap<String, CompiledPattern>();
+	private static final Map<String, CompiledPattern> PATTERNS_NO_CASE = new ConcurrentHashMap<String, CompiledPattern>();
 	
 	/**
 	 * Match two strings containing wild cards (case sensitive)  
@@ -74,6 +85,19 @@ public class WildCards {
 			return false;
 		}
 
+		boolean wc1 = containsWildCards(str1);
+		boolean wc2 = containsWildCards(str2);
+		if(!wc1 && !wc2) {
+			return equalStrings(str1, str2, cs);
+		}
+		if(wc1 != wc2) {
+			// the general algorithm is symmetric if only one string contains wild cards
+			CompiledPattern pattern = wc1 ? getCompiledPattern(str1, cs) : getCompiledPattern(str2, cs);
+			if(pattern != CompiledPattern.INVALID) {
+				return pattern.match(wc1 ? str2 : str1);
+			}
+		}
+
 		WildcardState ws1 = new WildcardState(str1, cs);
 		if (ws1.isAsterisk() && ws1.isEnd())
 			return true;
@@ -95,6 +119,64 @@ public class WildCards {
 		return result;
 	}
 
+	/**
+	 * Compiles a string to be matched against many others (case sensitive)
+	 * @param pattern string that can contain wild cards
+	 * @return predicate giving the same results as {@link #match(String, String)} with the pattern as first argument
+	 */
+	public static Predicate<String> compile(final String pattern) {
+		if (pattern == null || pattern.isEmpty()) {
+			return s -> s == null || s.isEmpty();
+		}
+		if(!containsWildCards(pattern)) {
+			return s -> s != null && (pattern.equals(s) || (containsWildCards(s) && match(pattern, s, true)));
+		}
+		CompiledPattern compiled = CompiledPattern.compile(pattern, true);
+		if(compiled == CompiledPattern.INVALID) {
+			return s -> match(pattern, s, true);
+		}
+		return s -> s != null && !s.isEmpty() && (containsWildCards(s) ? match(pattern, s, true) : compiled.match(s));
+	}
+
+	/**
+	 * Checks if string contains wild card characters: '*', '?' or '['
+	 * @param s string to check
+	 * @return true if the string contains wild cards
+	 */
+	public static boolean containsWildCards(final String s) {
+		for(int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			if(ch == '*' || ch == '?' || ch == '[')
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean equalStrings(final String str1, final String str2, boolean cs) {
+		if(cs)
+			return str1.equals(str2);
+		if(str1.length() != str2.length())
+			return false;
+		for(int i = 0; i < str1.length(); i++) {
+			if(Character.toUpperCase(str1.charAt(i)) != Character.toUpperCase(str2.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	private static CompiledPattern getCompiledPattern(final String pattern, boolean cs) {
+		Map<String, CompiledPattern> patterns = cs ? PATTERNS : PATTERNS_NO_CASE;
+		CompiledPattern compiled = patterns.get(pattern);
+		if(compiled == null) {
+			compiled = CompiledPattern.compile(pattern, cs);
+			if(patterns.size() >= MAX_CACHE_SIZE) {
+				patterns.clear();
+			}
+			patterns.put(pattern, compiled);
+		}
+		return compiled;
+	}
+
 	private static boolean wildCardMatch(WildcardState ws1, WildcardState ws2) {
 		while (true) {
 			if (ws1.isAsterisk()) {
@@ -213,6 +295,7 @@ public class WildCards {
 					ch = s.charAt(index);
 					if(ch != '*' && ch != '?')
 						break;
+					index++;
 				}
 			}
 			if (isEnd())
@@ -236,4 +319,122 @@ public class WildCards {
 		}
 
 	}
+
+	/**
+	 * Pattern compiled into a sequence of character sets to match a string without wild cards.
+	 * Replicates the general algorithm: '*' advances to the first character matching the next set.  
+	 */
+	static private class CompiledPattern {
+		static final CompiledPattern INVALID = new CompiledPattern(null, null, false, null, true);
+
+		private final char[][] sets; 	// character set per position, null for '?'
+		private final boolean[] asterisks; // true if position is preceded by '*'
+		private final boolean trailingAsterisk;
+		private final String prefix; 	// not null if pattern is a literal followed by '*'
+		private final boolean cs;
+
+		private CompiledPattern(char[][] sets, boolean[] asterisks, boolean trailingAsterisk, String prefix, boolean cs) {
+			this.sets = sets;
+			this.asterisks = asterisks;
+			this.trailingAsterisk = trailingAsterisk;
+			this.prefix = prefix;
+			this.cs = cs;
+		}
+
+		/**
+		 * Compiles pattern
+		 * @return compiled pattern or INVALID if the pattern contains incomplete or nested sets
+		 */
+		static CompiledPattern compile(final String pattern, boolean cs) {
+			List<char[]> sets = new ArrayList<char[]>();
+			List<Boolean> asterisks = new ArrayList<Boolean>();
+			boolean asterisk = false;
+			boolean literal = true;
+			int i = 0;
+			while(i < pattern.length()) {
+				char ch = pattern.charAt(i);
+				if(ch == '*') {
+					asterisk = true;
+					i++;
+					while(i < pattern.length() && (pattern.charAt(i) == '*' || pattern.charAt(i) == '?')) 
+						i++; // "*?" is equivalent to "*"
+					continue;
+				}
+				char[] set;
+				if(ch == '?') {
+					set = null;
+					i++;
+				} else if(ch == '[') {
+					int end = pattern.indexOf(']', i + 1);
+					if(end <= i + 1)
+						return INVALID;
+					set = pattern.substring(i + 1, end).toCharArray();
+					for(int j = 0; j < set.length; j++) {
+						if(set[j] == '*' || set[j] == '?' || set[j] == '[')
+							return INVALID;
+						if(!cs)
+							set[j] = Character.toUpperCase(set[j]);
+					}
+					i = end + 1;
+				} else {
+					set = new char[] { cs ? ch : Character.toUpperCase(ch) };
+					i++;
+				}
+				literal = literal && !asterisk && set != null && set.length == 1;
+				sets.add(set);
+				asterisks.add(asterisk);
+				asterisk = false;
+			}
+			boolean[] asteriskArray = new boolean[asterisks.size()];
+			for(int j = 0; j < asteriskArray.length; j++) {
+				asteriskArray[j] = asterisks.get(j);
+			}
+			String prefix = null;
+			if(literal && asterisk) {
+				StringBuilder builder = new StringBuilder();
+				for(char[] set : sets) {
+					builder.append(set[0]);
+				}
+				prefix = builder.toString();
+			}
+			return new CompiledPattern(sets.toArray(new char[sets.size()][]), asteriskArray, asterisk, prefix, cs);
+		}
+
+		/**
+		 * Matches string without wild cards against the pattern
+		 * @param s string to match
+		 * @return true if the string matches
+		 */
+		boolean match(final String s) {
+			if(prefix != null) {
+				if(cs)
+					return s.startsWith(prefix);
+				return s.length() >= prefix.length() && equalStrings(s.substring(0, prefix.length()), prefix, false);
+			}
+			int pos = 0;
+			int len = s.length();
+			for(int i = 0; i < sets.length; i++) {
+				if(asterisks[i]) {
+					while(pos < len && !matchChar(sets[i], s.charAt(pos))) 
+						pos++;
+				}
+				if(pos >= len || !matchChar(sets[i], s.charAt(pos)))
+					return false;
+				pos++;
+			}
+			return trailingAsterisk || pos == len;
+		}
+
+		private boolean matchChar(final char[] set, char ch) {
+			if(set == null)
+				return true;
+			if(!cs)
+				ch = Character.toUpperCase(ch);
+			for(char c : set) {
+				if(c == ch)
+					return true;
+			}
+			return false;
+		}
+	}
 }
@@ -15,6 +15,7 @@ import java.util.Collection;
 
 import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.enums.EFileCategory;
+import com.arm.cmsis.pack.utils.Version;
 
 
 /**
@@ -25,6 +26,7 @@ public class CpComponent extends CpItem implements ICpComponent {
 	protected int bApi = -1; // not initialized
 	protected int deviceDependent = -1; // not initialized
 	protected int bExclusiveApi = -1; // not initialized
+	protected Version fVersionKey = null; // parsed version, updated if version string changes
 	
 	/**
 	 * Public constructor
@@ -111,6 +113,17 @@ public class CpComponent extends CpItem implements ICpComponent {
 		return getAttribute(CmsisConstants.CVERSION);
 	}
 
+	@Override
+	public Version getVersionKey() {
+		String ver = getVersion();
+		Version key = fVersionKey;
+		if(key == null || !key.toString().equals(ver)) {
+			key = Version.valueOf(ver);
+			fVersionKey = key;
+		}
+		return key;
+	}
+
 
 	@Override
 	public boolean isApi() {
@@ -19,6 +19,8 @@ import com.arm.cmsis.pack.enums.EEvaluationResult;
  */
 public class CpCondition extends CpItem implements ICpCondition {
 
+	protected volatile CpConditionProgram fProgram = null; // compiled form, created on demand
+
 	/**
 	 * @param parent
 	 */
@@ -63,4 +65,16 @@ public class CpCondition extends CpItem implements ICpCondition {
 		return result;		
 	}
 
+	/**
+	 * Returns compiled form of this condition, compiles it and referenced conditions on first call
+	 * @return CpConditionProgram or null if the condition cannot be compiled
+	 */
+	public CpConditionProgram getProgram() {
+		CpConditionProgram program = fProgram;
+		if(program == null) {
+			program = CpConditionProgram.compile(this);
+		}
+		return program != CpConditionProgram.NOT_COMPILABLE ? program : null;
+	}
+
 }
@@ -27,6 +27,9 @@ public class CpConditionContext extends CpAttributes implements ICpConditionCont
 
 	protected EEvaluationResult fResult = EEvaluationResult.IGNORED;
 	protected Map<ICpItem, EEvaluationResult> fResults = null;
+	protected String fContextKey = null; // attributes as string : key for results shared via packs
+	protected String[] fProgramValues = null; // attribute values indexed by CpConditionProgram ids
+	protected String[] fProgramData = null;	 // attribute data the values are created for
 	
 	// temporary variables
 	protected Set<ICpCondition> tConditionsBeingEvaluated = new HashSet<ICpCondition>(); // to prevent recursion
@@ -40,6 +43,9 @@ public class CpConditionContext extends CpAttributes implements ICpConditionCont
 	public void resetResult() {
 		fResult = EEvaluationResult.IGNORED;
 		fResults = null;
+		fContextKey = null;
+		fProgramValues = null;
+		fProgramData = null;
 		tResultAccept = EEvaluationResult.UNDEFINED;
 		tbDeny = false;
 		tConditionsBeingEvaluated.clear();
@@ -78,12 +84,66 @@ public class CpConditionContext extends CpAttributes implements ICpConditionCont
 
 		res = getCachedResult(item);
 		if(isEvaluate(res)) {
-			res = item.evaluate(this);
+			Map<ICpItem, EEvaluationResult> sharedResults = getSharedResults(item);
+			res = sharedResults != null ? sharedResults.get(item) : null;
+			if(isEvaluate(res)) {
+				res = item.evaluate(this);
+				if(sharedResults != null && res != EEvaluationResult.ERROR && !isEvaluate(res)) {
+					sharedResults.put(item, res); // errors can be caused by recursion : do not share them
+				}
+			}
 			putCachedResult(item, res);
 		}
 		return res;
 	}
 
+	/**
+	 * Checks if evaluation results can be shared with other contexts having the same attributes.  
+	 * Results of this implementation depend only on attributes, because component expressions are ignored. 
+	 * @return true if results can be shared
+	 */
+	protected boolean isShareResults() {
+		return true;
+	}
+
+	/**
+	 * Checks if conditions can be evaluated using their compiled form, see {@link CpConditionProgram}.  
+	 * That is only possible if expressions are evaluated and attributes are matched by this implementation.  
+	 * @return true if compiled conditions can be used
+	 */
+	protected boolean isEvaluateCompiled() {
+		return true;
+	}
+
+	/**
+	 * Returns context attribute values indexed by attribute ids of compiled conditions
+	 * @return array of attribute values
+	 */
+	protected String[] getProgramValues() {
+		String[] data = fData;
+		if(fProgramValues == null || fProgramData != data) {
+			fProgramValues = CpConditionProgram.createValues(data);
+			fProgramData = data;
+		}
+		return fProgramValues;
+	}
+
+	/**
+	 * Returns results shared between contexts with equal attributes for the pack of the given item
+	 * @param item ICpItem to evaluate
+	 * @return map of shared results or null if results are not shared
+	 */
+	protected Map<ICpItem, EEvaluationResult> getSharedResults(ICpItem item) {
+		if(!isShareResults()) 
+			return null;
+		ICpPack pack = item.getPack();
+		if(pack == null)
+			return null;
+		if(fContextKey == null)
+			fContextKey = toString();
+		return pack.getConditionResults(fContextKey);
+	}
+
 	
 	/**
 	 * Checks if result to be (re-)evaluated
@@ -138,6 +198,12 @@ public class CpConditionContext extends CpAttributes implements ICpConditionCont
 
 	@Override
 	public EEvaluationResult evaluateCondition(ICpCondition condition) {
+		if(isEvaluateCompiled() && condition instanceof CpCondition) {
+			CpConditionProgram program = ((CpCondition)condition).getProgram();
+			if(program != null) {
+				return program.evaluate(this, getProgramValues());
+			}
+		}
 		if(tConditionsBeingEvaluated.contains(condition))
 			return EEvaluationResult.ERROR; // recursion
 		
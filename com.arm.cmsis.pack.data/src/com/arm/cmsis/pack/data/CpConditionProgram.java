@@ -0,0 +1,318 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.arm.cmsis.pack.common.CmsisConstants;
+import com.arm.cmsis.pack.enums.EEvaluationResult;
+import com.arm.cmsis.pack.generic.IAttributes;
+import com.arm.cmsis.pack.utils.DeviceVendor;
+import com.arm.cmsis.pack.utils.WildCards;
+
+/**
+ * Flat form of a condition evaluated against device and toolchain attributes.
+ * <p>
+ * Each entry of a program is either a list of attribute matches or a reference to the program of another condition.
+ * Component expressions are dropped at compile time, since they are ignored by {@link CpConditionContext}.
+ * Attribute keys are replaced by integer ids, the context supplies its values as an array indexed by those ids
+ * (see {@link #createValues(String[])}). Attribute values are compiled to matchers with the semantics of
+ * {@link CpAttributes#matchAttribute(String, String, String)}, therefore evaluation needs no pattern cache lookups.
+ * Only Dvendor is still matched by {@link DeviceVendor}, since vendor names are resolved through its tables.
+ * References are evaluated as nested programs, because their result is combined as a whole.
+ * </p>
+ * A condition that reaches a reference cycle or an erroneous expression compiles to a program returning ERROR,
+ * the same result the interpreted evaluation gives.
+ */
+public class CpConditionProgram {
+
+	static final byte ACCEPT = 0;
+	static final byte REQUIRE = 1;
+	static final byte DENY = 2;
+
+	static final CpConditionProgram ERROR_PROGRAM = new CpConditionProgram(true);
+	static final CpConditionProgram NOT_COMPILABLE = new CpConditionProgram(false); // evaluated by the context
+
+	private static final Map<String, Integer> ATTRIBUTE_IDS = new ConcurrentHashMap<String, Integer>();
+	private static volatile int attributeCount = 0;
+
+	private final boolean fError;
+	private final byte[] fTypes;					// entry type: ACCEPT, REQUIRE or DENY
+	private final CpConditionProgram[] fReferences; // referenced program, null for attribute entries
+	private final int[][] fIds;						// attribute ids per entry
+	private final String[][] fKeys;					// attribute keys per entry
+	private final Predicate<String>[][] fMatchers;	// compiled attribute values (patterns) per entry
+
+	private CpConditionProgram(boolean error) {
+		fError = error;
+		fTypes = new byte[0];
+		fReferences = new CpConditionProgram[0];
+		fIds = new int[0][];
+		fKeys = new String[0][];
+		fMatchers = createMatcherArray(0);
+	}
+
+	private CpConditionProgram(List<Byte> types, List<Object> targets) {
+		int n = types.size();
+		fError = false;
+		fTypes = new byte[n];
+		fReferences = new CpConditionProgram[n];
+		fIds = new int[n][];
+		fKeys = new String[n][];
+		fMatchers = createMatcherArray(n);
+		for(int i = 0; i < n; i++) {
+			fTypes[i] = types.get(i);
+			Object target = targets.get(i);
+			if(target instanceof CpConditionProgram) {
+				fReferences[i] = (CpConditionProgram)target;
+				continue;
+			}
+			List<String> keys = new ArrayList<String>();
+			List<String> patterns = new ArrayList<String>();
+			((IAttributes)target).forEachAttribute((key, value) -> {
+				keys.add(key);
+				patterns.add(value);
+			});
+			int size = keys.size();
+			fIds[i] = new int[size];
+			fKeys[i] = keys.toArray(new String[size]);
+			fMatchers[i] = createMatchers(size);
+			for(int j = 0; j < size; j++) {
+				fIds[i][j] = getAttributeId(fKeys[i][j]);
+				fMatchers[i][j] = compileMatcher(fKeys[i][j], patterns.get(j));
+			}
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Predicate<String>[][] createMatcherArray(int size) {
+		return new Predicate[size][];
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Predicate<String>[] createMatchers(int size) {
+		return new Predicate[size];
+	}
+
+	/**
+	 * Compiles an attribute value to a matcher with semantics of {@link CpAttributes#matchAttribute(String, String, String)}
+	 * @param key attribute key
+	 * @param pattern attribute value, can contain wild cards
+	 * @return predicate for context values
+	 */
+	private static Predicate<String> compileMatcher(String key, String pattern) {
+		if(key.equals(CmsisConstants.DVENDOR)) {
+			return value -> DeviceVendor.match(value, pattern);
+		}
+		return WildCards.compile(pattern);
+	}
+
+	/**
+	 * Returns id of an attribute key, registers the key if not yet done
+	 * @param key attribute key
+	 * @return attribute id
+	 */
+	static int getAttributeId(String key) {
+		Integer id = ATTRIBUTE_IDS.get(key);
+		if(id != null) {
+			return id;
+		}
+		synchronized (ATTRIBUTE_IDS) {
+			id = ATTRIBUTE_IDS.get(key);
+			if(id == null) {
+				id = attributeCount;
+				ATTRIBUTE_IDS.put(key, id);
+				attributeCount = id + 1;
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * Creates array of context values indexed by attribute id
+	 * @param data sorted key-value array of context attributes, can be null
+	 * @return array of attribute values, null for attributes not in context
+	 */
+	static String[] createValues(String[] data) {
+		String[] values = new String[attributeCount];
+		if(data == null) {
+			return values;
+		}
+		for(int i = 0; i < data.length; i += 2) {
+			Integer id = ATTRIBUTE_IDS.get(data[i]);
+			if(id != null && id < values.length) {
+				values[id] = data[i + 1];
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Compiles condition and all conditions it references, stores the programs in the conditions
+	 * @param condition CpCondition to compile
+	 * @return compiled program or NOT_COMPILABLE if the condition contains items with non-standard evaluation
+	 */
+	static synchronized CpConditionProgram compile(CpCondition condition) {
+		return compile(condition, new HashSet<ICpItem>());
+	}
+
+	private static CpConditionProgram compile(CpCondition condition, Set<ICpItem> inProgress) {
+		CpConditionProgram program = condition.fProgram;
+		if(program != null) {
+			return program;
+		}
+		if(!inProgress.add(condition)) {
+			return ERROR_PROGRAM; // recursion
+		}
+		program = compileEntries(condition, inProgress);
+		inProgress.remove(condition);
+		// a condition compiled while another one is in progress only gets ERROR_PROGRAM references if it is part of a cycle
+		condition.fProgram = program;
+		return program;
+	}
+
+	private static CpConditionProgram compileEntries(CpCondition condition, Set<ICpItem> inProgress) {
+		List<Byte> types = new ArrayList<Byte>();
+		List<Object> targets = new ArrayList<Object>();
+		Collection<? extends ICpItem> children = condition.getChildren();
+		if(children == null) {
+			return ERROR_PROGRAM; // empty condition is an error
+		}
+		for(ICpItem child : children) {
+			if(!(child instanceof ICpExpression)) {
+				continue;
+			}
+			if(child.getClass() != CpExpression.class && child.getClass() != CpDenyExpresion.class) {
+				return NOT_COMPILABLE; // unknown evaluation semantics
+			}
+			ICpExpression expr = (ICpExpression)child;
+			byte type = REQUIRE;
+			if(child instanceof CpDenyExpresion) {
+				type = DENY;
+			} else if(expr.getExpressionType() == ICpExpression.ACCEPT_EXPRESSION) {
+				type = ACCEPT;
+			}
+			Object target;
+			switch(expr.getExpressionDomain()) {
+			case ICpExpression.COMPONENT_EXPRESSION:
+				continue; // ignored
+			case ICpExpression.DEVICE_EXPRESSION:
+			case ICpExpression.TOOLCHAIN_EXPRESSION:
+				target = expr.attributes(); // read when the program is constructed
+				break;
+			case ICpExpression.REFERENCE_EXPRESSION:
+				ICpItem referenced = expr.getCondition();
+				if(referenced == null) {
+					continue; // ignored
+				}
+				if(!(referenced instanceof CpCondition)) {
+					return NOT_COMPILABLE;
+				}
+				CpConditionProgram program = compile((CpCondition)referenced, inProgress);
+				if(program == NOT_COMPILABLE) {
+					return NOT_COMPILABLE;
+				}
+				target = program;
+				break;
+			default:
+				return ERROR_PROGRAM; // any erroneous expression makes the condition fail with error
+			}
+			types.add(type);
+			targets.add(target);
+		}
+		return new CpConditionProgram(types, targets);
+	}
+
+	/**
+	 * Evaluates the program
+	 * @param context ICpConditionContext providing attributes registered after the values were created
+	 * @param values context values indexed by attribute id, see {@link #createValues(String[])}
+	 * @return evaluation result
+	 */
+	public EEvaluationResult evaluate(ICpConditionContext context, String[] values) {
+		if(fError) {
+			return EEvaluationResult.ERROR;
+		}
+		EEvaluationResult resultRequire = EEvaluationResult.IGNORED;
+		EEvaluationResult resultAccept = EEvaluationResult.UNDEFINED;
+		for(int i = 0; i < fTypes.length; i++) {
+			EEvaluationResult res;
+			CpConditionProgram reference = fReferences[i];
+			if(reference != null) {
+				res = reference.evaluate(context, values);
+			} else {
+				res = match(context, values, i) ? EEvaluationResult.FULFILLED : EEvaluationResult.FAILED;
+			}
+			byte type = fTypes[i];
+			if(type == DENY) {
+				res = deny(res);
+			}
+			if(res == EEvaluationResult.IGNORED || res == EEvaluationResult.UNDEFINED) {
+				continue;
+			} else if(res == EEvaluationResult.ERROR) {
+				return res;
+			}
+			if(type == ACCEPT) {
+				if(res.ordinal() > resultAccept.ordinal()) {
+					resultAccept = res;
+				}
+			} else if(res.ordinal() < resultRequire.ordinal()) {
+				resultRequire = res;
+			}
+		}
+		if(resultAccept != EEvaluationResult.UNDEFINED &&
+		   resultAccept.ordinal() < resultRequire.ordinal()) {
+			return resultAccept;
+		}
+		return resultRequire;
+	}
+
+	private boolean match(ICpConditionContext context, String[] values, int entry) {
+		int[] ids = fIds[entry];
+		String[] keys = fKeys[entry];
+		Predicate<String>[] matchers = fMatchers[entry];
+		for(int j = 0; j < ids.length; j++) {
+			int id = ids[j];
+			// ids registered after the values were created are not in the array
+			String value = id < values.length ? values[id] : context.getAttribute(keys[j]);
+			if(value != null && !matchers[j].test(value)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applies deny semantics of {@link CpDenyExpresion} to a device, toolchain or reference result
+	 */
+	private static EEvaluationResult deny(EEvaluationResult res) {
+		switch(res) {
+		case FULFILLED:
+			return EEvaluationResult.INCOMPATIBLE;
+		case UNDEFINED:
+		case ERROR:
+		case IGNORED:
+		case INCOMPATIBLE:
+			return res;
+		default:
+			break;
+		}
+		return EEvaluationResult.FULFILLED;
+	}
+}
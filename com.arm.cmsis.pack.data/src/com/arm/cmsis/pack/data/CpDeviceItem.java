@@ -62,6 +62,28 @@ public class CpDeviceItem extends CpDeviceItemContainer implements ICpDeviceItem
 		return deviceItems;
 	}
 
+	/**
+	 * Freezes device attributes and sub-devices, but not device properties:
+	 * effective properties and processors are merged into them on demand 
+	 */
+	@Override
+	public void freeze() {
+		attributes().freeze();
+		Collection<? extends ICpItem> children = getChildren();
+		if(children != null) {
+			for(ICpItem item : children) {
+				if(!(item instanceof ICpDeviceProperty)) {
+					item.freeze();
+				}
+			}
+		}
+		if(deviceItems != null) {
+			for(ICpDeviceItem item : deviceItems) {
+				item.freeze();
+			}
+		}
+	}
+
 	@Override
 	public void addChild(ICpItem item) {
 		cachedChildArray = null; // invalidate
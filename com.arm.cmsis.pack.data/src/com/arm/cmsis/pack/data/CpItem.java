@@ -18,7 +18,6 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.TreeMap;
 
 import com.arm.cmsis.pack.common.CmsisConstants;
@@ -67,6 +66,17 @@ public class CpItem extends CmsisTreeItem<ICpItem> implements ICpItem {
 		return fAttributes;
 	}
 
+	@Override
+	public void freeze() {
+		attributes().freeze();
+		Collection<? extends ICpItem> children = getChildren();
+		if(children != null) {
+			for(ICpItem item : children) {
+				item.freeze();
+			}
+		}
+	}
+
 	@Override
 	public String getAttribute(String key) {
 		 // Proxy method to get attribute from attributes 
@@ -344,15 +354,12 @@ public class CpItem extends CmsisTreeItem<ICpItem> implements ICpItem {
 			m = new HashMap<String, String>();
 		}
 		
-		Map<String, String> attributesMap = attributes().getAttributesAsMap();
-		if(attributesMap != null) {
-			for(Entry<String, String> e: attributesMap.entrySet()) {
-				String key = e.getKey();
-				if(!m.containsKey(key)) {
-					m.put(key, e.getValue());
-				}
+		final Map<String, String> effective = m;
+		attributes().forEachAttribute((key, value) -> {
+			if(!effective.containsKey(key)) {
+				effective.put(key, value);
 			}
-		}
+		});
 		ICpItem effectiveParent = getEffectiveParent(); 
 		if(effectiveParent != null) {
 			effectiveParent.getEffectiveAttributes(m);
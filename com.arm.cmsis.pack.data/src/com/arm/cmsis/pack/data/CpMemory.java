@@ -59,7 +59,7 @@ public class CpMemory extends CpDeviceProperty implements ICpMemory {
 				}
 				access += EXECUTE_ACCESS;
 			}
-			attributes().setAttribute(CmsisConstants.ACCESS, access); // cache attribute 
+			attributes().mergeAttribute(CmsisConstants.ACCESS, access); // cache attribute 
 		}
 		return access;
 	}
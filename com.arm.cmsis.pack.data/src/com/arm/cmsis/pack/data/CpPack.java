@@ -12,13 +12,24 @@
 package com.arm.cmsis.pack.data;
 
 import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.arm.cmsis.pack.common.CmsisConstants;
+import com.arm.cmsis.pack.enums.EEvaluationResult;
+import com.arm.cmsis.pack.parser.CpItemCache;
+import com.arm.cmsis.pack.parser.PdscParser;
+import com.arm.cmsis.pack.utils.Version;
 import com.arm.cmsis.pack.utils.VersionComparator;
 
 /**
@@ -26,13 +37,27 @@ import com.arm.cmsis.pack.utils.VersionComparator;
  */
 public class CpPack extends CpRootItem implements ICpPack {
 
+	protected static final int MAX_CONDITION_CONTEXTS = 64; // shared condition results are cleared when exceeded
+
 	protected String version = null;
+	protected Version versionKey = null; // parsed version
 	protected PackState state = PackState.UNKNOWN;
-	protected Map<String, ICpItem> conditions = null; // sorted map for quick access to conditions
+	protected SoftReference<Map<String, ICpItem>> conditions = null; // map for quick access to conditions, does not keep them in memory
+	protected SoftReference<Map<String, Map<ICpItem, EEvaluationResult>>> conditionResults = null; // context key to shared evaluation results
 	protected Set<String> deviceNames = null; // names of all declared and referenced devices
 	protected Set<String> boardNames = null; // names of boards described in the pack
 	protected int deviceLess = -1; // -1 means uninitialized
 	protected int deprecated = -1; // -1 means uninitialized
+	// top-level sections skipped by header-only parsing : tag to 'has children' flag, null if fully loaded
+	protected volatile Map<String, Boolean> lazySections = null;
+	// sections loaded on demand, released by the garbage collector when not in use and memory is low
+	protected List<SoftReference<ICpItem>> loadedSections = null;
+	// header items followed by loaded sections, released together with the sections
+	protected SoftReference<List<ICpItem>> lazyChildren = null;
+	// sections loaded one by one before the complete pack, reused when the pack gets materialized
+	protected Map<String, SoftReference<ICpItem>> singleSections = null;
+	protected volatile boolean frozen = false; // sections loaded later get frozen as well
+	protected CpItemCache itemCache = null; // cache the pack was parsed with, used to load the sections
 	
 	public CpPack() {
 		this(NULL_CPITEM);
@@ -61,6 +86,399 @@ public class CpPack extends CpRootItem implements ICpPack {
 		return super.createItem(parent, tag);
 	}
 
+	/**
+	 * Registers a top-level section that was skipped by header-only parsing and is loaded on first access
+	 * @param tag section tag
+	 * @param hasChildren true if the section has child elements
+	 */
+	public synchronized void addLazySection(String tag, boolean hasChildren) {
+		if(lazySections == null) {
+			lazySections = new LinkedHashMap<String, Boolean>();
+		}
+		lazySections.put(tag, hasChildren);
+	}
+
+	/**
+	 * Sets cache of parsed items used to load sections on demand
+	 * @param cache CpItemCache, can be null
+	 */
+	public void setItemCache(CpItemCache cache) {
+		itemCache = cache;
+	}
+
+	/**
+	 * Checks if the pack was read header-only: sections skipped by parsing are loaded on demand
+	 * and can be released again under memory pressure
+	 * @return true if the pack has sections loaded on demand
+	 */
+	public boolean isHeaderOnly() {
+		return lazySections != null;
+	}
+
+	/**
+	 * Checks if sections loaded on demand are currently in memory
+	 * @return true if all sections are loaded, false if some are not loaded yet or have been released
+	 */
+	public synchronized boolean isMaterialized() {
+		if(lazySections == null) {
+			return true;
+		}
+		if(loadedSections == null) {
+			return false;
+		}
+		for(SoftReference<ICpItem> ref : loadedSections) {
+			if(ref.get() == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns sections skipped by header-only parsing, (re)loads them if not loaded yet or released.
+	 * Sections that are still in use are kept, only released ones are replaced by parsed ones.
+	 * @return list of section items in document order, empty list if the pack file cannot be read
+	 */
+	protected synchronized List<ICpItem> getLazySections() {
+		List<ICpItem> sections = new ArrayList<ICpItem>();
+		boolean complete = loadedSections != null;
+		if(loadedSections != null) {
+			for(SoftReference<ICpItem> ref : loadedSections) {
+				ICpItem section = ref.get();
+				if(section == null) {
+					complete = false;
+				}
+				sections.add(section);
+			}
+		}
+		if(complete) {
+			return sections;
+		}
+		return loadLazySections(sections, parseLazySections());
+	}
+
+	/**
+	 * Loads sections skipped by header-only parsing from the complete pack parsed elsewhere, for example by several threads at once.
+	 * Does nothing if the sections are already in memory.
+	 * @param fullPack complete pack parsed from the same file, null if parsing has failed
+	 */
+	public synchronized void materialize(ICpItem fullPack) {
+		if(isMaterialized()) {
+			return;
+		}
+		List<ICpItem> sections = new ArrayList<ICpItem>();
+		if(loadedSections != null) {
+			for(SoftReference<ICpItem> ref : loadedSections) {
+				sections.add(ref.get());
+			}
+		}
+		loadLazySections(sections, getLazySections(fullPack));
+	}
+
+	/**
+	 * Returns a section skipped by header-only parsing, reads only this section from the pack file if the pack is not materialized
+	 * @param tag section tag
+	 * @return section item or null if the pack has no such section or the file cannot be read
+	 */
+	public synchronized ICpItem getSection(String tag) {
+		Map<String, Boolean> tags = lazySections;
+		if(tags == null || tag == null || !tags.containsKey(tag)) {
+			return null;
+		}
+		ICpItem section = findLoadedSection(tag);
+		if(section != null) {
+			return section;
+		}
+		section = parseSection(tag);
+		if(section == null) {
+			return null;
+		}
+		section.setParent(this);
+		if(frozen) {
+			section.freeze();
+		}
+		if(singleSections == null) {
+			singleSections = new HashMap<String, SoftReference<ICpItem>>();
+		}
+		singleSections.put(tag, new SoftReference<ICpItem>(section));
+		return section;
+	}
+
+	/**
+	 * Returns a section that is currently in memory, loaded with the whole pack or alone
+	 * @param tag section tag
+	 * @return section item or null if not loaded or released
+	 */
+	private ICpItem findLoadedSection(String tag) {
+		if(loadedSections != null) {
+			for(SoftReference<ICpItem> ref : loadedSections) {
+				ICpItem section = ref.get();
+				if(section != null && tag.equals(section.getTag())) {
+					return section;
+				}
+			}
+		}
+		SoftReference<ICpItem> ref = singleSections != null ? singleSections.get(tag) : null;
+		return ref != null ? ref.get() : null;
+	}
+
+	/**
+	 * Reads the pack header and a single section from the pack file, unchanged files are restored from the item cache
+	 * @param tag section tag
+	 * @return section item or null if the file cannot be read or does not contain the section
+	 */
+	protected ICpItem parseSection(String tag) {
+		String file = getFileName();
+		if(file == null || file.isEmpty()) {
+			return null;
+		}
+		PdscParser parser = new PdscParser();
+		parser.setStreaming(true);
+		parser.setItemCache(itemCache);
+		parser.setSections(Collections.singleton(tag));
+		ICpItem pack = parser.parseFile(file);
+		if(pack == null || !pack.hasChildren()) {
+			return null;
+		}
+		for(ICpItem child : pack.getChildren()) {
+			if(tag.equals(child.getTag())) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Replaces released sections by parsed ones and keeps them softly referenced.
+	 * If parsing has failed, only the sections still in memory are returned and loading is retried on next access.
+	 * @param sections list of currently loaded sections, released ones are null
+	 * @param parsed list of parsed sections or null if parsing has failed
+	 * @return list of section items in document order
+	 */
+	private List<ICpItem> loadLazySections(List<ICpItem> sections, List<ICpItem> parsed) {
+		if(parsed == null) {
+			sections.removeIf(section -> section == null);
+			return sections; // loadedSections stay incomplete
+		}
+		if(loadedSections == null || parsed.size() != sections.size()) {
+			sections = new ArrayList<ICpItem>(parsed); // first load or the file has changed
+			for(int i = 0; i < sections.size(); i++) {
+				sections.set(i, getSingleSection(sections.get(i)));
+			}
+		} else {
+			for(int i = 0; i < sections.size(); i++) {
+				if(sections.get(i) == null) {
+					sections.set(i, getSingleSection(parsed.get(i)));
+				}
+			}
+		}
+		singleSections = null; // now referenced by loadedSections
+
+		List<SoftReference<ICpItem>> refs = new ArrayList<SoftReference<ICpItem>>(sections.size());
+		for(Iterator<ICpItem> iterator = sections.iterator(); iterator.hasNext();) {
+			ICpItem section = iterator.next();
+			if(section == null) {
+				iterator.remove();
+				continue;
+			}
+			section.setParent(this);
+			if(frozen) {
+				section.freeze();
+			}
+			refs.add(new SoftReference<ICpItem>(section));
+		}
+		loadedSections = refs;
+		// reset cached data depending on the sections
+		lazyChildren = null;
+		conditions = null;
+		conditionResults = null;
+		deviceNames = null;
+		boardNames = null;
+		return sections;
+	}
+
+	/**
+	 * Returns the section already loaded alone instead of the parsed one, keeps items referenced by the caller valid
+	 * @param parsed section parsed with the complete pack
+	 * @return section loaded alone if still in memory, otherwise the parsed one
+	 */
+	private ICpItem getSingleSection(ICpItem parsed) {
+		SoftReference<ICpItem> ref = singleSections != null ? singleSections.get(parsed.getTag()) : null;
+		ICpItem section = ref != null ? ref.get() : null;
+		return section != null ? section : parsed;
+	}
+
+	/**
+	 * Reads the pack file completely and collects the sections skipped by header-only parsing,
+	 * unchanged files are restored from the item cache the pack was parsed with
+	 * @return list of section items in document order or null if the file cannot be read
+	 */
+	protected List<ICpItem> parseLazySections() {
+		String file = getFileName();
+		if(lazySections == null || file == null || file.isEmpty()) {
+			return null;
+		}
+		PdscParser parser = new PdscParser();
+		parser.setStreaming(true);
+		parser.setItemCache(itemCache);
+		return getLazySections(parser.parseFile(file));
+	}
+
+	/**
+	 * Collects the sections skipped by header-only parsing from the complete pack
+	 * @param fullPack complete pack parsed from the same file
+	 * @return list of section items in document order or null if fullPack is null
+	 */
+	protected List<ICpItem> getLazySections(ICpItem fullPack) {
+		Map<String, Boolean> tags = lazySections;
+		if(tags == null || fullPack == null || !fullPack.hasChildren()) {
+			return null;
+		}
+		List<ICpItem> sections = new ArrayList<ICpItem>();
+		for(ICpItem child : fullPack.getChildren()) {
+			if(tags.containsKey(child.getTag())) {
+				sections.add(child); // header items are already there
+			}
+		}
+		return sections;
+	}
+
+	@Override
+	public Collection<? extends ICpItem> getChildren() {
+		if(lazySections == null) {
+			return super.getChildren();
+		}
+		SoftReference<List<ICpItem>> ref = lazyChildren;
+		List<ICpItem> children = ref != null ? ref.get() : null;
+		if(children != null) {
+			return children;
+		}
+		return getLazyChildren();
+	}
+
+	/**
+	 * Returns header items followed by sections, loads the sections if needed
+	 * @return unmodifiable list of child items, only softly referenced by the pack
+	 */
+	protected synchronized List<ICpItem> getLazyChildren() {
+		List<ICpItem> children = lazyChildren != null ? lazyChildren.get() : null;
+		if(children != null) {
+			return children;
+		}
+		children = new ArrayList<ICpItem>();
+		Collection<ICpItem> headerItems = fChildren;
+		if(headerItems != null) {
+			children.addAll(headerItems);
+		}
+		children.addAll(getLazySections());
+		children = Collections.unmodifiableList(children);
+		if(isMaterialized()) {
+			lazyChildren = new SoftReference<List<ICpItem>>(children); // incomplete list is not kept to retry loading
+		}
+		return children;
+	}
+
+	@Override
+	public boolean hasChildren() {
+		Map<String, Boolean> sections = lazySections;
+		if(sections == null) {
+			return super.hasChildren();
+		}
+		// answered from the header, sections are not loaded
+		Collection<ICpItem> headerItems = fChildren;
+		return !sections.isEmpty() || (headerItems != null && !headerItems.isEmpty());
+	}
+
+	@Override
+	public int getChildCount() {
+		Map<String, Boolean> sections = lazySections;
+		if(sections == null) {
+			return super.getChildCount();
+		}
+		// answered from the header, sections are not loaded
+		Collection<ICpItem> headerItems = fChildren;
+		return sections.size() + (headerItems != null ? headerItems.size() : 0);
+	}
+
+	@Override
+	public synchronized Object[] getChildArray() {
+		if(lazySections != null) {
+			return createChildArray(); // do not keep strong references to sections
+		}
+		return super.getChildArray();
+	}
+
+	@Override
+	public void removeChild(ICpItem childToRemove) {
+		if(lazySections == null) {
+			super.removeChild(childToRemove);
+			return;
+		}
+		synchronized (this) {
+			lazyChildren = null;
+			if(fChildren != null) {
+				fChildren.remove(childToRemove);
+			}
+			if(singleSections != null) {
+				singleSections.values().removeIf(ref -> ref.get() == childToRemove);
+			}
+			if(loadedSections != null) {
+				for(Iterator<SoftReference<ICpItem>> iterator = loadedSections.iterator(); iterator.hasNext();) {
+					if(iterator.next().get() == childToRemove) {
+						iterator.remove();
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void freeze() {
+		frozen = true;
+		if(lazySections == null) {
+			super.freeze();
+			return;
+		}
+		// freeze header only, do not materialize sections
+		attributes().freeze();
+		Collection<ICpItem> headerItems = fChildren;
+		if(headerItems != null) {
+			for(ICpItem item : headerItems) {
+				item.freeze();
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		lazySections = null;
+		loadedSections = null;
+		lazyChildren = null;
+		singleSections = null;
+	}
+
+	@Override
+	public ICpItem getFirstChild(String key) {
+		Map<String, Boolean> sections = lazySections;
+		if(sections != null && key != null && !sections.containsKey(key)) {
+			// header item or absent section : no need to load the pack
+			Collection<ICpItem> children = fChildren;
+			if(children != null) {
+				for(ICpItem child : children) {
+					if(key.equals(getItemKey(child))) {
+						return child;
+					}
+				}
+			}
+			return null;
+		}
+		if(sections != null && key != null && !isMaterialized()) {
+			return getSection(key); // load only the requested section
+		}
+		return super.getFirstChild(key);
+	}
+
 	@Override
 	public PackState getPackState() {
 		return state;
@@ -82,18 +500,38 @@ public class CpPack extends CpRootItem implements ICpPack {
 		if(conditionId == null || conditionId.isEmpty()) {
 			return null;
 		}
-		if(conditions == null) {
+		Map<String, ICpItem> conditionMap = conditions != null ? conditions.get() : null;
+		if(conditionMap == null) {
 			// fill conditions map for quick access
-			conditions = new HashMap<String, ICpItem>();
+			conditionMap = new HashMap<String, ICpItem>();
 			ICpItem conditionsItem = getFirstChild(CmsisConstants.CONDITIONS_TAG);
 			if(conditionsItem != null) {
 				Collection<? extends ICpItem> items = conditionsItem.getChildren();
 				for(ICpItem c : items) {
-					conditions.put(c.getId(), c);
+					conditionMap.put(c.getId(), c);
 				}
 			}
+			conditions = new SoftReference<Map<String, ICpItem>>(conditionMap);
 		}
-		return conditions.get(conditionId);
+		return conditionMap.get(conditionId);
+	}
+
+	@Override
+	public synchronized Map<ICpItem, EEvaluationResult> getConditionResults(String contextKey) {
+		Map<String, Map<ICpItem, EEvaluationResult>> contexts = conditionResults != null ? conditionResults.get() : null;
+		if(contexts == null) {
+			contexts = new HashMap<String, Map<ICpItem, EEvaluationResult>>();
+			conditionResults = new SoftReference<Map<String, Map<ICpItem, EEvaluationResult>>>(contexts);
+		}
+		Map<ICpItem, EEvaluationResult> results = contexts.get(contextKey);
+		if(results == null) {
+			if(contexts.size() >= MAX_CONDITION_CONTEXTS) {
+				contexts.clear();
+			}
+			results = Collections.synchronizedMap(new IdentityHashMap<ICpItem, EEvaluationResult>());
+			contexts.put(contextKey, results);
+		}
+		return results;
 	}
 
 
@@ -172,6 +610,17 @@ public class CpPack extends CpRootItem implements ICpPack {
 		return version;
 	}
 
+	@Override
+	public Version getVersionKey() {
+		String ver = getVersion();
+		Version key = versionKey;
+		if(key == null || !key.toString().equals(ver)) {
+			key = Version.valueOf(ver);
+			versionKey = key;
+		}
+		return key;
+	}
+
 
 	@Override
 	public synchronized String getUrl() {
@@ -309,8 +758,7 @@ public class CpPack extends CpRootItem implements ICpPack {
 		if(deviceLess < 0) {
 			// TODO check more
 			if (getId().contains("ARM") ||  //$NON-NLS-1$
-					(getGrandChildren(CmsisConstants.DEVICES_TAG) == null &&
-					getGrandChildren(CmsisConstants.BOARDS_TAG) == null)) {
+					(!hasSection(CmsisConstants.DEVICES_TAG) && !hasSection(CmsisConstants.BOARDS_TAG))) {
 				deviceLess = 1;
 			}else {
 				deviceLess = 0;
@@ -319,6 +767,19 @@ public class CpPack extends CpRootItem implements ICpPack {
 		return deviceLess == 1;
 	}
 
+	/**
+	 * Checks if the pack has a non-empty top-level section without loading it
+	 * @param tag section tag
+	 * @return true if section exists and has children
+	 */
+	protected boolean hasSection(String tag) {
+		Map<String, Boolean> sections = lazySections;
+		if(sections != null && sections.containsKey(tag)) {
+			return sections.get(tag);
+		}
+		return getGrandChildren(tag) != null;
+	}
+
 	@Override
 	public boolean isLatest() {
 		return (getParent() != null && getParent().getFirstChild() == this);
@@ -21,6 +21,7 @@ import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.data.ICpPack.PackState;
 import com.arm.cmsis.pack.generic.IAttributes;
 import com.arm.cmsis.pack.utils.AlnumComparator;
+import com.arm.cmsis.pack.utils.VersionRange;
 
 /**
  *  Class to collect pack families
@@ -114,6 +115,32 @@ public class CpPackCollection extends CpItem implements ICpPackCollection {
 			fPackFamilies.put(familyId, family);
 		}
 		family.addChild(item);
+		fLatestPackIDs = null;
+	}
+
+	@Override
+	public void removeChild(ICpItem item) {
+		if(fPackFamilies == null || item == null) {
+			return;
+		}
+		cachedChildArray = null;
+		fLatestPackIDs = null;
+		if(item instanceof ICpPackFamily) {
+			fPackFamilies.values().remove(item);
+			return;
+		}
+		if(!(item instanceof ICpPack)) {
+			return;
+		}
+		String familyId = item.getPackFamilyId();
+		ICpPackFamily family = fPackFamilies.get(familyId);
+		if(family == null) {
+			return;
+		}
+		family.removeChild(item);
+		if(!family.hasChildren()) {
+			fPackFamilies.remove(familyId);
+		}
 	}
 
 
@@ -161,6 +188,18 @@ public class CpPackCollection extends CpItem implements ICpPackCollection {
 					}
 					continue;
 				}
+				Set<String> versions = packFilter.getVersions(familyId);
+				if(versions != null && !versions.isEmpty()) {
+					// look up fixed versions in the family version index instead of testing every pack
+					for(String version : versions) {
+						for(ICpPack pack : f.getPacks(VersionRange.valueOf(version + ':' + version))) {
+							if(packFilter.passes(pack)) {
+								packs.add(pack);
+							}
+						}
+					}
+					continue;
+				}
 			}
 
 			for(ICpItem item : children) {
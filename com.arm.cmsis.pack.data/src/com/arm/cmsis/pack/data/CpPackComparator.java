@@ -54,7 +54,7 @@ public class CpPackComparator implements Comparator<ICpPack> {
 			return res;
 		}
 		
-		res = VersionComparator.versionCompare(pack0.getVersion(), pack1.getVersion());
+		res = VersionComparator.versionCompare(pack0.getVersionKey(), pack1.getVersionKey());
 		return res;	
 	}
 
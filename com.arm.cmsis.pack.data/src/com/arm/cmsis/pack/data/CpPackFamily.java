@@ -11,15 +11,20 @@
 
 package com.arm.cmsis.pack.data;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.data.ICpPack.PackState;
 import com.arm.cmsis.pack.generic.IAttributes;
+import com.arm.cmsis.pack.utils.Version;
 import com.arm.cmsis.pack.utils.VersionComparator;
+import com.arm.cmsis.pack.utils.VersionRange;
 
 /**
  * Default implementation of ICpPackFamily interface
@@ -28,6 +33,22 @@ public class CpPackFamily extends CpItem implements ICpPackFamily {
 
 	protected Map<String, ICpPack> fPacks = null;
 	protected ICpItem fPreviousReleases = null; // container for previous releases
+	protected volatile VersionIndex fVersionIndex = null; // null if to be rebuilt
+
+	/**
+	 * Immutable index of family packs, published as a whole
+	 */
+	protected static class VersionIndex {
+		final ICpPack[] packs; // packs with versions sorted in descending order
+		final Version[] versions; // versions of packs
+		final ICpPack[] unversionedPacks; // packs without version : match any range
+
+		VersionIndex(ICpPack[] packs, Version[] versions, ICpPack[] unversionedPacks) {
+			this.packs = packs;
+			this.versions = versions;
+			this.unversionedPacks = unversionedPacks;
+		}
+	}
 
 	public CpPackFamily(ICpItem parent) {
 		super(parent);
@@ -95,13 +116,86 @@ public class CpPackFamily extends CpItem implements ICpPackFamily {
 		if (versionRange == null || versionRange.isEmpty()) {
 			return null;
 		}
-		for (ICpPack pack : packs) {
-			if (VersionComparator.matchVersionRange(pack.getVersion(), versionRange)) {
-				return pack;
+		Collection<ICpPack> matching = getPacks(VersionRange.valueOf(versionRange));
+		if(!matching.isEmpty()) {
+			return matching.iterator().next();
+		}
+		return null;
+	}
+
+	@Override
+	public Collection<ICpPack> getPacks(VersionRange range) {
+		List<ICpPack> matching = new ArrayList<ICpPack>();
+		VersionIndex index = fVersionIndex;
+		if(index == null) {
+			index = buildVersionIndex();
+		}
+		ICpPack[] packs = index.packs;
+		Version[] versions = index.versions;
+		// versions are sorted in descending order : matching ones are in [begin, end)
+		int begin = 0;
+		Version max = range.getMax();
+		if(max != null) {
+			begin = findFirst(versions, max, false);
+		}
+		int end = versions.length;
+		Version min = range.getMin();
+		if(min != null) {
+			end = findFirst(versions, min, true);
+		}
+		for(int i = begin; i < end; i++) {
+			matching.add(packs[i]);
+		}
+		Collections.addAll(matching, index.unversionedPacks); // empty version is the lowest one
+		return matching;
+	}
+
+	/**
+	 * Finds index of the first version below the bound (or equal to the bound if not strict) in descending array
+	 */
+	private static int findFirst(Version[] versions, Version bound, boolean strict) {
+		int low = 0;
+		int high = versions.length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			int res = versions[mid].compareTo(bound);
+			if(strict ? res < 0 : res <= 0) {
+				high = mid;
+			} else {
+				low = mid + 1;
 			}
 		}
+		return low;
+	}
 
-		return null;
+	/**
+	 * Builds version index out of family packs if not built yet
+	 * @return VersionIndex
+	 */
+	protected synchronized VersionIndex buildVersionIndex() {
+		if(fVersionIndex != null) {
+			return fVersionIndex;
+		}
+		List<ICpPack> versioned = new ArrayList<ICpPack>();
+		List<ICpPack> unversioned = new ArrayList<ICpPack>();
+		if(fPacks != null) {
+			for(ICpPack pack : fPacks.values()) {
+				String version = pack.getVersion();
+				if(version == null || version.isEmpty()) {
+					unversioned.add(pack);
+				} else {
+					versioned.add(pack);
+				}
+			}
+		}
+		Collections.sort(versioned, (p1, p2) -> VersionComparator.versionCompare(p2.getVersionKey(), p1.getVersionKey()));
+		Version[] versions = new Version[versioned.size()];
+		for(int i = 0; i < versions.length; i++) {
+			versions[i] = versioned.get(i).getVersionKey();
+		}
+		fVersionIndex = new VersionIndex(versioned.toArray(new ICpPack[versioned.size()]), versions,
+				unversioned.toArray(new ICpPack[unversioned.size()]));
+		return fVersionIndex;
 	}
 
 	@Override
@@ -127,7 +221,7 @@ public class CpPackFamily extends CpItem implements ICpPackFamily {
 	}
 
 	@Override
-	public void addChild(ICpItem item) {
+	public synchronized void addChild(ICpItem item) {
 		if(item == null) {
 			return;
 		}
@@ -136,6 +230,7 @@ public class CpPackFamily extends CpItem implements ICpPackFamily {
 		}
 		cachedChildArray = null;
 		fPreviousReleases = null;
+		fVersionIndex = null;
 		ICpPack pack = (ICpPack)item;
 		if(fPacks == null) {
 			fPacks = new TreeMap<String, ICpPack>(new VersionComparator());
@@ -154,6 +249,13 @@ public class CpPackFamily extends CpItem implements ICpPackFamily {
 		}
 	}
 
+	@Override
+	public synchronized void removeChild(ICpItem childToRemove) {
+		super.removeChild(childToRemove);
+		fPreviousReleases = null;
+		fVersionIndex = null;
+	}
+
 	@Override
 	public ICpPack getPackByFilename(String pdscFile) {
 		if(fPacks != null) {
@@ -11,6 +11,8 @@
 
 package com.arm.cmsis.pack.data;
 
+import com.arm.cmsis.pack.utils.Version;
+
 /**
  * Interface describing a CMSIS component  
  */
@@ -76,4 +78,10 @@ public interface ICpComponent extends ICpItem {
 	 * @return code to copy to RteComponents.h file as string 
 	 */
 	String getRteComponentsHCode();
+
+	/**
+	 * Returns parsed version to be used as precomputed sort key
+	 * @return {@link Version} of this component, null if version is not specified
+	 */
+	Version getVersionKey();
 }
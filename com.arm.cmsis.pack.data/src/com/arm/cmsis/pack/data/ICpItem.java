@@ -104,6 +104,12 @@ public interface ICpItem extends IAttributedItem, ICpItemFactory, ICmsisTreeItem
 	 */
 	Collection<ICpItem> getChildren(final String tag);
 
+	/**
+	 * Makes attributes of this item and its sub-items read-only, called after the item tree is loaded 
+	 * @see com.arm.cmsis.pack.generic.IAttributes#freeze()
+	 */
+	void freeze();
+
 	
 	/**
 	 * Checks if an attribute exists in the internal collection
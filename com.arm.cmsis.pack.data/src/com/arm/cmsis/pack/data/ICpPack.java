@@ -12,8 +12,12 @@
 package com.arm.cmsis.pack.data;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
+import com.arm.cmsis.pack.enums.EEvaluationResult;
+import com.arm.cmsis.pack.utils.Version;
+
 /**
  * Represents CMISIS Pack meta data read from pdsc file
  * Provides access method to underlying structure of the Pack
@@ -70,6 +74,13 @@ public interface ICpPack extends ICpRootItem {
 	 */
 	ICpItem getCondition(String conditionId);
 
+	/**
+	 * Returns map to share results of evaluating pack conditions between condition contexts with equal attributes
+	 * @param contextKey string representation of context attributes
+	 * @return synchronized map of evaluated items (compared by identity) to their results, never null
+	 */
+	Map<ICpItem, EEvaluationResult> getConditionResults(String contextKey);
+
 	/**
 	 * Returns generator corresponding to supplied id if any
 	 * @param id name of the generator to find. If null or empty the first generator is returned  (gpdsc case)
@@ -114,4 +125,10 @@ public interface ICpPack extends ICpRootItem {
 	 * @return collection of required packs of this pack
 	 */
 	Collection<? extends ICpItem> getRequiredPacks();
+
+	/**
+	 * Returns parsed version to be used as precomputed sort key
+	 * @return {@link Version} of this pack, null if version is not specified
+	 */
+	Version getVersionKey();
 }
@@ -11,6 +11,10 @@
 
 package com.arm.cmsis.pack.data;
 
+import java.util.Collection;
+
+import com.arm.cmsis.pack.utils.VersionRange;
+
 /**
  * Interface for pack family: collection of pack with the same name, but different versions
  * 
@@ -23,5 +27,12 @@ public interface ICpPackFamily extends ICpPackGroup {
 	 * @see #getPacks()
 	 */
 	ICpItem getPreviousReleases();
+
+	/**
+	 * Returns packs whose versions match the supplied range, found by binary search in a version index  
+	 * @param range VersionRange to match
+	 * @return collection of matching packs sorted by descending version, empty if none matches
+	 */
+	Collection<ICpPack> getPacks(VersionRange range);
 	
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2016 ARM Ltd. and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * ARM Ltd and ARM Germany GmbH - Initial API and implementation
+ *******************************************************************************/
+
+package com.arm.cmsis.pack.dsq;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reusable sequence of {@link PooledDsqCommand} objects passed to {@link IDsqClient#execute(DsqCommandBuffer, boolean)}.
+ * <p>
+ * Command objects are allocated once and reinitialized after {@link #clear()}, so that a buffer reused
+ * for each batch does not allocate per command.
+ * </p>
+ */
+public class DsqCommandBuffer {
+
+	private final List<PooledDsqCommand> commands = new ArrayList<>(); // pool, only the first size entries are valid
+	private int size = 0;
+	private List<IDsqCommand> commandList = null; // view created on demand
+
+	/**
+	 * Appends a command
+	 * @param cmdName command name
+	 * @param strings list of string arguments, can be null
+	 * @return reinitialized PooledDsqCommand to add arguments and predefined variables to
+	 */
+	public PooledDsqCommand add(String cmdName, List<String> strings) {
+		PooledDsqCommand command;
+		if (size < commands.size()) {
+			command = commands.get(size);
+		} else {
+			command = new PooledDsqCommand();
+			commands.add(command);
+		}
+		size++;
+		command.init(cmdName, strings);
+		return command;
+	}
+
+	/**
+	 * Returns command at given index
+	 * @param index command index
+	 * @return PooledDsqCommand
+	 */
+	public PooledDsqCommand get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return commands.get(index);
+	}
+
+	/**
+	 * Returns number of commands in the buffer
+	 * @return command count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the buffer contains no commands
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all commands, command objects are kept for reuse
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the commands as a list for clients working with {@link IDsqClient#execute(List, boolean)}
+	 * @return read-only list view of the buffer
+	 */
+	public List<IDsqCommand> asList() {
+		if (commandList == null) {
+			commandList = new AbstractList<IDsqCommand>() {
+				@Override
+				public IDsqCommand get(int index) {
+					return DsqCommandBuffer.this.get(index);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return commandList;
+	}
+}
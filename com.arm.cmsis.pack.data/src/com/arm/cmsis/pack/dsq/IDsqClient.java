@@ -29,6 +29,18 @@ public interface IDsqClient extends IDsqApiVersion {
 	 */
 	void execute(final List<IDsqCommand> commands, boolean atomic) throws DsqException;
 
+	/**
+	 * Execute commands collected in a reusable buffer, see {@link #execute(List, boolean)}.
+	 * The buffer and its commands are reused after the call returns, the client must not keep references to them.
+	 * The default implementation passes a list view of the buffer to {@link #execute(List, boolean)}.
+	 * @param commands buffer of commands
+	 * @param atomic True if the commands must be executed atomically
+	 * @throws DsqException
+	 */
+	default void execute(final DsqCommandBuffer commands, boolean atomic) throws DsqException {
+		execute(commands.asList(), atomic);
+	}
+
 	/**
 	 * Query user input. The sequence execution stalls depending on the used type.
 	 * If the debugger runs in a batch mode, this function returns the value default.
@@ -52,4 +64,14 @@ public interface IDsqClient extends IDsqApiVersion {
 	 */
 	long query(final long type, final String message, final long defaultValue) throws DsqException;
 
+	/**
+	 * Checks if the engine may buffer non-atomic commands whose results are not used immediately
+	 * and pass several of them to a single {@link #execute(List, boolean)} call with atomic set to false.
+	 * The commands are passed in execution order, the client executes them one after another.
+	 * The client must stop at the first failing command, set a non-zero error code to it with {@link IDsqCommand#setError(int)}
+	 * and throw DsqException: the commands before it are considered completed, the commands after it are not executed.
+	 * @return true if the client accepts pipelined commands, false by default
+	 */
+	default boolean isPipeliningSupported() { return false; }
+
 }
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2016 ARM Ltd. and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * ARM Ltd and ARM Germany GmbH - Initial API and implementation
+ *******************************************************************************/
+
+package com.arm.cmsis.pack.dsq;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable {@link IDsqCommand} implementation that keeps arguments and predefined variables in primitive arrays.
+ * <p>
+ * Instances are owned by a {@link DsqCommandBuffer} and reinitialized when the buffer is reused,
+ * clients must not keep references to them after {@link IDsqClient#execute(DsqCommandBuffer, boolean)} returns.
+ * </p>
+ */
+public class PooledDsqCommand implements IDsqCommand {
+
+	/**
+	 * Predefined variables in the order of their fixed slots
+	 */
+	public static final String[] PREDEFINED_VARIABLES = { AP, DP, PROTOCOL, CONNECTION, TRACEOUT, ERRORCONTROL };
+
+	private String name = null;
+	private List<String> strings = null;
+	private long[] arguments = new long[3];
+	private int argumentCount = 0;
+	private final long[] predefined = new long[PREDEFINED_VARIABLES.length];
+	private int predefinedMask = 0; // bit per set predefined variable
+	private long output = 0;
+	private int errorCode = 0;
+	private List<Long> argumentList = null; // view created on demand
+
+	/**
+	 * Returns fixed slot index of a predefined variable
+	 * @param name variable name
+	 * @return slot index or -1 if name is not a predefined variable
+	 */
+	public static int getPredefinedIndex(String name) {
+		if (name == null) {
+			return -1;
+		}
+		switch (name) {
+		case AP:
+			return 0;
+		case DP:
+			return 1;
+		case PROTOCOL:
+			return 2;
+		case CONNECTION:
+			return 3;
+		case TRACEOUT:
+			return 4;
+		case ERRORCONTROL:
+			return 5;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Reinitializes the command, clears arguments, predefined variables, output and error
+	 * @param cmdName command name
+	 * @param strings list of string arguments, can be null
+	 */
+	public void init(String cmdName, List<String> strings) {
+		this.name = cmdName;
+		this.strings = strings;
+		argumentCount = 0;
+		predefinedMask = 0;
+		output = 0;
+		errorCode = 0;
+	}
+
+	/**
+	 * Appends a numeric argument
+	 * @param value argument value
+	 */
+	public void addArgument(long value) {
+		if (argumentCount == arguments.length) {
+			arguments = Arrays.copyOf(arguments, argumentCount * 2);
+		}
+		arguments[argumentCount++] = value;
+	}
+
+	/**
+	 * Returns number of numeric arguments
+	 * @return argument count
+	 */
+	public int getArgumentCount() {
+		return argumentCount;
+	}
+
+	/**
+	 * Returns numeric argument without boxing
+	 * @param index argument index
+	 * @return argument value
+	 */
+	public long getArgument(int index) {
+		if (index < 0 || index >= argumentCount) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return arguments[index];
+	}
+
+	/**
+	 * Sets predefined variable by its fixed slot
+	 * @param index slot index, see {@link #PREDEFINED_VARIABLES}
+	 * @param value variable value
+	 */
+	public void setPredefinedVariable(int index, long value) {
+		predefined[index] = value;
+		predefinedMask |= 1 << index;
+	}
+
+	/**
+	 * Sets all predefined variables from a snapshot
+	 * @param values variable values by slot, see {@link #PREDEFINED_VARIABLES}
+	 * @param mask bit per variable set in values
+	 */
+	public void setPredefinedVariables(long[] values, int mask) {
+		System.arraycopy(values, 0, predefined, 0, predefined.length);
+		predefinedMask = mask;
+	}
+
+	/**
+	 * Returns predefined variable by its fixed slot without boxing
+	 * @param index slot index, see {@link #PREDEFINED_VARIABLES}
+	 * @return variable value, 0 if not set
+	 */
+	public long getPredefinedVariable(int index) {
+		return (predefinedMask & (1 << index)) != 0 ? predefined[index] : 0L;
+	}
+
+	@Override
+	public Long getPredefinedVariableValue(String name) {
+		int index = getPredefinedIndex(name);
+		if (index < 0 || (predefinedMask & (1 << index)) == 0) {
+			return null;
+		}
+		return predefined[index];
+	}
+
+	@Override
+	public void setPredefinedVariableValue(String name, long value) {
+		int index = getPredefinedIndex(name);
+		if (index >= 0) {
+			setPredefinedVariable(index, value);
+		}
+	}
+
+	@Override
+	public String getCommandName() {
+		return name;
+	}
+
+	@Override
+	public List<Long> getArguments() {
+		if (argumentList == null) {
+			argumentList = new AbstractList<Long>() {
+				@Override
+				public Long get(int index) {
+					return getArgument(index);
+				}
+
+				@Override
+				public int size() {
+					return argumentCount;
+				}
+			};
+		}
+		return argumentList;
+	}
+
+	@Override
+	public List<String> getStringArguments() {
+		return strings;
+	}
+
+	@Override
+	public long getOutput() {
+		return output;
+	}
+
+	@Override
+	public void setOutput(long output) {
+		this.output = output;
+	}
+
+	@Override
+	public int getError() {
+		return errorCode;
+	}
+
+	@Override
+	public void setError(int error) {
+		this.errorCode = error;
+	}
+}
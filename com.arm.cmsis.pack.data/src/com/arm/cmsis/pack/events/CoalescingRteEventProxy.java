@@ -0,0 +1,198 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.events;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.arm.cmsis.pack.data.ICpPack;
+
+/**
+ * RteEventProxy that coalesces bursts of events before notifying listeners.
+ * <p>
+ * Events of topics with a debounce window are queued and delivered together in a background thread
+ * once no further queued event arrives within the window, but not later than {@link #MAX_DELAY_FACTOR} windows after the first one.
+ * While queued:
+ * <ul>
+ * <li>a repeated event with the same topic and data supersedes the earlier one and moves to the end of the queue</li>
+ * <li>pack events are compared by the pdsc file name of the pack, since packs of different files can have the same id.
+ * Their topics are kept: a removed and added pack is reported by PACK_REMOVED followed by PACK_ADDED</li>
+ * <li>PACKS_RELOADED supersedes all queued pack change events</li>
+ * </ul>
+ * A queue reaching {@link #MAX_PENDING_EVENTS} is flushed immediately.
+ * Events of other topics are delivered immediately in the calling thread.
+ * Listeners of debounced topics must not expect to be called in the UI thread, they use Display.asyncExec() to update widgets.
+ * </p>
+ */
+public class CoalescingRteEventProxy extends RteEventProxy {
+
+	public static final int MAX_PENDING_EVENTS = 256;
+	public static final int MAX_DELAY_FACTOR = 4;
+
+	protected Map<String, Long> fWindows = new HashMap<String, Long>(); // topic -> debounce window in milliseconds
+	protected LinkedHashMap<Object, RteEvent> fPending = new LinkedHashMap<Object, RteEvent>(); // coalescing key -> queued event
+	private ScheduledExecutorService fExecutor = null;
+	private ScheduledFuture<?> fFlush = null;
+	private long fFirstPendingTime = 0;
+
+	/**
+	 * Sets debounce window for events of given topic
+	 * @param topic event topic
+	 * @param window debounce window in milliseconds, 0 to deliver events immediately
+	 */
+	public void setDebounceWindow(String topic, long window) {
+		synchronized (fPending) {
+			if(window > 0) {
+				fWindows.put(topic, window);
+			} else {
+				fWindows.remove(topic);
+			}
+		}
+	}
+
+	/**
+	 * Returns debounce window for events of given topic
+	 * @param topic event topic
+	 * @return debounce window in milliseconds, 0 if events are delivered immediately
+	 */
+	public long getDebounceWindow(String topic) {
+		synchronized (fPending) {
+			Long window = fWindows.get(topic);
+			return window != null ? window : 0;
+		}
+	}
+
+	@Override
+	public void notifyListeners(RteEvent event) {
+		long window = event != null ? getDebounceWindow(event.getTopic()) : 0;
+		if(window <= 0) {
+			super.notifyListeners(event);
+			return;
+		}
+		synchronized (fPending) {
+			long now = System.currentTimeMillis();
+			if(fPending.isEmpty()) {
+				fFirstPendingTime = now;
+			}
+			enqueue(event);
+			long delay = Math.min(window, fFirstPendingTime + window * MAX_DELAY_FACTOR - now);
+			if(fPending.size() >= MAX_PENDING_EVENTS) {
+				delay = 0;
+			}
+			if(fFlush != null) {
+				fFlush.cancel(false);
+			}
+			fFlush = getExecutor().schedule(this::flush, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Adds event to the queue removing events it supersedes, must be called synchronized on fPending
+	 * @param event RteEvent to enqueue
+	 */
+	protected void enqueue(RteEvent event) {
+		String topic = event.getTopic();
+		if(RteEvent.PACKS_RELOADED.equals(topic)) {
+			for(Iterator<RteEvent> it = fPending.values().iterator(); it.hasNext();) {
+				if(isPackChangeTopic(it.next().getTopic())) {
+					it.remove();
+				}
+			}
+		}
+
+		Object data = event.getData();
+		if(isPackChangeTopic(topic) && data instanceof ICpPack) {
+			String fileName = ((ICpPack)data).getFileName();
+			if(fileName != null) {
+				data = fileName;
+			}
+		}
+		Object key = new AbstractMap.SimpleImmutableEntry<String, Object>(topic, data);
+		fPending.remove(key); // latest event goes to the end of the queue
+		fPending.put(key, event);
+	}
+
+	/**
+	 * Checks if topic reports pack collection changes superseded by PACKS_RELOADED
+	 * @param topic event topic
+	 * @return true if topic is PACK_ADDED, PACK_REMOVED, PACK_MODIFIED, PACKS_UPDATED or PACKS_RELOADED
+	 */
+	protected boolean isPackChangeTopic(String topic) {
+		switch(topic) {
+		case RteEvent.PACK_ADDED:
+		case RteEvent.PACK_REMOVED:
+		case RteEvent.PACK_MODIFIED:
+		case RteEvent.PACKS_UPDATED:
+		case RteEvent.PACKS_RELOADED:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Delivers all queued events in the order they are queued
+	 */
+	protected void flush() {
+		List<RteEvent> events;
+		synchronized (fPending) {
+			events = new ArrayList<RteEvent>(fPending.values());
+			fPending.clear();
+			fFlush = null;
+		}
+		for(RteEvent event : events) {
+			super.notifyListeners(event);
+		}
+	}
+
+	private ScheduledExecutorService getExecutor() {
+		if(fExecutor == null) {
+			fExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "RTE event dispatcher"); //$NON-NLS-1$
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return fExecutor;
+	}
+
+	@Override
+	public void removeAllListeners() {
+		synchronized (fPending) {
+			fPending.clear();
+		}
+		super.removeAllListeners();
+	}
+
+	/**
+	 * Discards queued events and stops the dispatcher thread
+	 */
+	public void dispose() {
+		synchronized (fPending) {
+			fPending.clear();
+			if(fExecutor != null) {
+				fExecutor.shutdownNow();
+				fExecutor = null;
+			}
+			fFlush = null;
+		}
+	}
+}
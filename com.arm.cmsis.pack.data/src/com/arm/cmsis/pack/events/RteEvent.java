@@ -28,6 +28,9 @@ public class RteEvent {
 
 	public static final String PACKS_RELOADED 	= "com.arm.cmsis.pack.reloaded"; //$NON-NLS-1$ - all packs reloaded
 	public static final String PACKS_UPDATED  	= "com.arm.cmsis.pack.updated"; //$NON-NLS-1$  - some packs changed (added, removed)
+	public static final String PACK_ADDED  		= "com.arm.cmsis.pack.added"; //$NON-NLS-1$  - pdsc file is added, data is the loaded ICpPack
+	public static final String PACK_REMOVED  	= "com.arm.cmsis.pack.removed"; //$NON-NLS-1$  - pdsc file is removed, data is the unloaded ICpPack
+	public static final String PACK_MODIFIED  	= "com.arm.cmsis.pack.modified"; //$NON-NLS-1$  - pdsc file is changed, data is the reloaded ICpPack
 	public static final String PACK_JOB 		= "com.arm.cmsis.pack.job"; //$NON-NLS-1$ - prefix for job finished
 	public static final String PACK_JOB_RELOAD		 			= PACK_JOB + ".reload"; //$NON-NLS-1$ // job finished and requests reload
 	public static final String PACK_INSTALL_JOB_FINISHED 		= PACK_JOB + ".installed"; //$NON-NLS-1$
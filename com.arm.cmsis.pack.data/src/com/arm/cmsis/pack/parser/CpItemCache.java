@@ -0,0 +1,599 @@
+/*******************************************************************************
+* Copyright (c) 2015 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.arm.cmsis.pack.data.ICpItem;
+
+/**
+ * On-disk snapshot of parsed ICpItem trees.
+ * <p>
+ * Each entry stores the parse events (tag, attributes, text, children) of one XML file
+ * together with file size and modification time the snapshot was taken for.
+ * A file can have several entries for different parse variants, e.g. a complete tree and a header only.
+ * An entry is only used if the file still has the same size and modification time,
+ * otherwise the file is parsed again and the entry is replaced.
+ * </p>
+ * The cache file starts with an index of all entries followed by their data.
+ * Only the index is kept in memory, entry data is read on demand with a positional read and decoded.
+ * Entries stored since the last save are kept in memory until {@link #save()} writes them.
+ * The cache file is not kept open or mapped, so that it can be replaced by {@link #save()} on every platform.
+ * Each cache file version carries a random id, a read only uses an entry if the file still has the id of its index.
+ * Restoring replays the same factory calls as parsing: {@link ICpItem#createItem(ICpItem, String)},
+ * {@link ICpItem#addChild(ICpItem)} and {@link CpXmlParser#processItem(ICpItem)}.
+ * The class is thread-safe: several parsers can use the same cache concurrently.
+ */
+public class CpItemCache {
+
+	private static final int MAGIC = 0x43504943; // "CPIC"
+	private static final int FORMAT_VERSION = 3;
+	private static final int HEADER_SIZE = 20; // magic, version, file id, entry count
+	private static final char VARIANT_SEPARATOR = '\n'; // separates file name and variant in entry keys
+
+	// event codes
+	static final byte START = 1;
+	static final byte ATTRIBUTE = 2;
+	static final byte TEXT = 3;
+	static final byte END = 4;
+	static final byte SKIPPED = 5;
+
+	/**
+	 * Cache entry: file properties and location of the encoded events
+	 */
+	static class CacheEntry {
+		final long size;
+		final long modified;
+		final long fileId; 	// id of the cache file containing the data
+		final long offset;	// data offset in the cache file
+		final int length;	// data length
+		final byte[] data;	// data not yet saved, null if the data is in the cache file
+
+		CacheEntry(long size, long modified, long fileId, long offset, int length) {
+			this.size = size;
+			this.modified = modified;
+			this.fileId = fileId;
+			this.offset = offset;
+			this.length = length;
+			this.data = null;
+		}
+
+		CacheEntry(long size, long modified, byte[] data) {
+			this.size = size;
+			this.modified = modified;
+			this.fileId = 0;
+			this.offset = -1;
+			this.length = data.length;
+			this.data = data;
+		}
+
+		boolean isValid(File f) {
+			return f.isFile() && f.length() == size && f.lastModified() == modified;
+		}
+	}
+
+	protected String fCacheFile;
+	protected Map<String, CacheEntry> fEntries = new ConcurrentHashMap<String, CacheEntry>();
+	protected boolean fModified = false;
+	protected boolean fLoaded = false;
+	protected long fFileId = 0; // id of the cache file when loaded or saved
+	protected long fFileSize = -1; // size of the cache file when loaded or saved
+	protected long fFileModified = -1; // modification time of the cache file when loaded or saved
+
+	/**
+	 * Constructs cache for the given cache file
+	 * @param cacheFile absolute file name of the cache file
+	 */
+	public CpItemCache(String cacheFile) {
+		fCacheFile = cacheFile;
+	}
+
+	/**
+	 * Returns cache file name
+	 * @return absolute cache file name
+	 */
+	public String getCacheFile() {
+		return fCacheFile;
+	}
+
+	/**
+	 * Clears all entries
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+		fModified = false;
+	}
+
+	/**
+	 * Loads the cache file index if it has not been loaded yet or has been changed on disk since it was loaded or saved.
+	 * Entries added since the last save are kept.
+	 * @return true if the entries are up to date with the cache file
+	 */
+	public synchronized boolean update() {
+		File f = new File(fCacheFile);
+		if(fLoaded && f.length() == fFileSize && f.lastModified() == fFileModified) {
+			return true;
+		}
+		return load();
+	}
+
+	/**
+	 * Loads the cache file index, replaces entries read from the cache file before, keeps entries not yet saved
+	 * @return true if the cache file was successfully loaded
+	 */
+	public synchronized boolean load() {
+		Map<String, CacheEntry> unsaved = new HashMap<String, CacheEntry>();
+		for(Entry<String, CacheEntry> e : fEntries.entrySet()) {
+			if(e.getValue().data != null) {
+				unsaved.put(e.getKey(), e.getValue());
+			}
+		}
+		fEntries.clear();
+		fLoaded = true; // also if the file is missing or invalid : nothing to reload until it changes
+		fFileId = 0;
+		boolean loaded = readIndex();
+		if(!loaded) {
+			fEntries.clear(); // corrupted or inaccessible cache : ignore it
+		}
+		fEntries.putAll(unsaved);
+		fModified = !unsaved.isEmpty();
+		return loaded;
+	}
+
+	/**
+	 * Reads the index of the cache file into the entries
+	 * @return true if successful
+	 */
+	private boolean readIndex() {
+		File f = new File(fCacheFile);
+		fFileSize = f.length();
+		fFileModified = f.lastModified();
+		if(!f.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+			if(fFileSize < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return false;
+			}
+			long fileId = in.readLong();
+			int count = in.readInt();
+			for(int i = 0; i < count; i++) {
+				int keyLength = in.readInt();
+				if(keyLength < 0 || keyLength > fFileSize) {
+					throw new IOException("Invalid key length " + keyLength); //$NON-NLS-1$
+				}
+				byte[] keyBytes = new byte[keyLength];
+				in.readFully(keyBytes);
+				long size = in.readLong();
+				long modified = in.readLong();
+				long offset = in.readLong();
+				int length = in.readInt();
+				if(offset < HEADER_SIZE || length < 0 || offset + length > fFileSize) {
+					throw new IOException("Invalid entry location " + offset); //$NON-NLS-1$
+				}
+				String key = new String(keyBytes, StandardCharsets.UTF_8);
+				fEntries.put(key, new CacheEntry(size, modified, fileId, offset, length));
+			}
+			fFileId = fileId;
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Saves the cache if it was modified since loading.
+	 * Entries for deleted or changed files are dropped, entries saved by another instance in the meantime are kept.
+	 * The file is written to a temporary file in the same folder first and then moved to its place,
+	 * data of unchanged entries is copied from the current cache file without reading it into memory.
+	 * @return true if successful or nothing to save
+	 */
+	public synchronized boolean save() {
+		update(); // merge entries saved by another instance
+		List<String> staleFiles = new LinkedList<String>();
+		for(Entry<String, CacheEntry> e : fEntries.entrySet()) {
+			if(!e.getValue().isValid(new File(getFile(e.getKey())))) {
+				staleFiles.add(e.getKey());
+			}
+		}
+		for(String file : staleFiles) {
+			fEntries.remove(file);
+			fModified = true;
+		}
+		if(!fModified) {
+			return true;
+		}
+
+		Path cachePath = Paths.get(fCacheFile);
+		Map<String, CacheEntry> entries = new HashMap<String, CacheEntry>(fEntries);
+		Map<String, CacheEntry> saved = new HashMap<String, CacheEntry>();
+		long fileId = ThreadLocalRandom.current().nextLong();
+		Path tmpPath = null;
+		try {
+			tmpPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), cachePath.getFileName().toString(), ".tmp"); //$NON-NLS-1$
+			writeCacheFile(tmpPath, cachePath, fileId, entries, saved);
+			Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			if(tmpPath != null) {
+				tmpPath.toFile().delete();
+			}
+			return false;
+		}
+		// entries stored meanwhile are not replaced, they will be written with the next save
+		for(Entry<String, CacheEntry> e : saved.entrySet()) {
+			fEntries.replace(e.getKey(), entries.get(e.getKey()), e.getValue());
+		}
+		fModified = false;
+		for(CacheEntry entry : fEntries.values()) {
+			if(entry.data != null) {
+				fModified = true;
+				break;
+			}
+		}
+		File f = new File(fCacheFile);
+		fFileId = fileId;
+		fFileSize = f.length();
+		fFileModified = f.lastModified();
+		return true;
+	}
+
+	/**
+	 * Writes index and data of the given entries
+	 * @param path file to write
+	 * @param cachePath current cache file to copy saved entry data from
+	 * @param fileId id of the new cache file
+	 * @param entries entries to write
+	 * @param saved map to collect the entries referring to the new file
+	 * @throws IOException
+	 */
+	private static void writeCacheFile(Path path, Path cachePath, long fileId, Map<String, CacheEntry> entries,
+			Map<String, CacheEntry> saved) throws IOException {
+		List<String> keys = new ArrayList<String>();
+		List<byte[]> keyBytes = new ArrayList<byte[]>();
+		long offset = HEADER_SIZE;
+		for(String key : entries.keySet()) {
+			byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+			keys.add(key);
+			keyBytes.add(bytes);
+			offset += 4 + bytes.length + 8 + 8 + 8 + 4;
+		}
+		try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE);
+			 FileChannel in = Files.isRegularFile(cachePath) ? FileChannel.open(cachePath, StandardOpenOption.READ) : null) {
+			DataOutputStream index = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out)));
+			index.writeInt(MAGIC);
+			index.writeInt(FORMAT_VERSION);
+			index.writeLong(fileId);
+			index.writeInt(keys.size());
+			for(int i = 0; i < keys.size(); i++) {
+				CacheEntry entry = entries.get(keys.get(i));
+				index.writeInt(keyBytes.get(i).length);
+				index.write(keyBytes.get(i));
+				index.writeLong(entry.size);
+				index.writeLong(entry.modified);
+				index.writeLong(offset);
+				index.writeInt(entry.length);
+				saved.put(keys.get(i), new CacheEntry(entry.size, entry.modified, fileId, offset, entry.length));
+				offset += entry.length;
+			}
+			index.flush();
+			for(String key : keys) {
+				CacheEntry entry = entries.get(key);
+				if(entry.data != null) {
+					ByteBuffer buf = ByteBuffer.wrap(entry.data);
+					while(buf.hasRemaining()) {
+						out.write(buf);
+					}
+				} else {
+					if(in == null || !isFileId(in, entry.fileId)) {
+						throw new IOException("Cache file has been replaced"); //$NON-NLS-1$
+					}
+					long position = entry.offset;
+					long remaining = entry.length;
+					while(remaining > 0) {
+						long n = in.transferTo(position, remaining, out);
+						if(n <= 0) {
+							throw new EOFException();
+						}
+						position += n;
+						remaining -= n;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the opened cache file has the given id
+	 * @param channel FileChannel of a cache file
+	 * @param fileId expected file id
+	 * @return true if the header is valid and contains the file id
+	 * @throws IOException
+	 */
+	private static boolean isFileId(FileChannel channel, long fileId) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		read(channel, header, 0);
+		return header.getInt() == MAGIC && header.getInt() == FORMAT_VERSION && header.getLong() == fileId;
+	}
+
+	/**
+	 * Fills the buffer from the given file position and flips it
+	 */
+	private static void read(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+		while(buf.hasRemaining()) {
+			if(channel.read(buf, position + buf.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		buf.flip();
+	}
+
+	/**
+	 * Reads entry data from the cache file
+	 * @param entry CacheEntry to read
+	 * @return buffer with encoded events or null if the cache file has been replaced
+	 * @throws IOException
+	 */
+	private ByteBuffer readData(CacheEntry entry) throws IOException {
+		if(entry.data != null) {
+			return ByteBuffer.wrap(entry.data);
+		}
+		try (FileChannel channel = FileChannel.open(Paths.get(fCacheFile), StandardOpenOption.READ)) {
+			if(!isFileId(channel, entry.fileId)) {
+				return null;
+			}
+			ByteBuffer buf = ByteBuffer.allocate(entry.length);
+			read(channel, buf, entry.offset);
+			return buf;
+		}
+	}
+
+	/**
+	 * Returns entry key for file and parse variant
+	 * @param file XML file name
+	 * @param variant parse variant, null for a complete tree
+	 * @return entry key
+	 */
+	static String getKey(String file, String variant) {
+		return variant == null ? file : file + VARIANT_SEPARATOR + variant;
+	}
+
+	/**
+	 * Returns file name of an entry key
+	 * @param key entry key
+	 * @return XML file name
+	 */
+	static String getFile(String key) {
+		int index = key.indexOf(VARIANT_SEPARATOR);
+		return index < 0 ? key : key.substring(0, index);
+	}
+
+	/**
+	 * Restores item tree for the given file if a valid entry exists
+	 * @param parser CpXmlParser to use as item factory
+	 * @param file XML file name
+	 * @param variant parse variant, null for a complete tree
+	 * @return restored root item or null if file is not cached, changed or the entry cannot be read or decoded
+	 */
+	ICpItem restore(CpXmlParser parser, String file, String variant) {
+		if(file == null) {
+			return null;
+		}
+		String key = getKey(file, variant);
+		CacheEntry entry = fEntries.get(key);
+		if(entry == null || !entry.isValid(new File(file))) {
+			return null;
+		}
+		try {
+			ByteBuffer data = readData(entry);
+			if(data == null) {
+				return null; // cache file replaced by another instance, the index is reloaded by next update()
+			}
+			return decode(parser, data);
+		} catch (IOException e) {
+			return null; // cache file is not accessible
+		} catch (RuntimeException e) {
+			fEntries.remove(key, entry); // corrupted entry
+			return null;
+		}
+	}
+
+	/**
+	 * Stores encoded events for the given file, the data is kept in memory until the cache is saved
+	 * @param file XML file name
+	 * @param variant parse variant, null for a complete tree
+	 * @param encoder Encoder containing events of the parsed file
+	 */
+	void store(String file, String variant, Encoder encoder) {
+		if(file == null || encoder == null) {
+			return;
+		}
+		File f = new File(file);
+		if(!f.isFile()) {
+			return;
+		}
+		fEntries.put(getKey(file, variant), new CacheEntry(f.length(), f.lastModified(), encoder.toByteArray()));
+		synchronized (this) {
+			fModified = true;
+		}
+	}
+
+	/**
+	 * Decodes the events and creates items
+	 */
+	private static ICpItem decode(CpXmlParser parser, ByteBuffer buf) {
+		List<String> strings = new ArrayList<String>();
+		LinkedList<ICpItem> stack = new LinkedList<ICpItem>();
+		ICpItem root = null;
+		ICpItem pending = null; // item not yet added to its parent (attributes are still coming)
+		ICpItem pendingParent = null;
+		while(buf.hasRemaining()) {
+			byte code = buf.get();
+			if(code != ATTRIBUTE && pending != null) {
+				// add child item after its attributes are set since parent implementation can query them
+				pendingParent.addChild(pending);
+				pending = null;
+				pendingParent = null;
+			}
+			switch(code) {
+			case START: {
+				String tag = readString(buf, strings);
+				ICpItem parent = stack.peek();
+				ICpItem item = parser.createItem(parent, tag);
+				if(item == null) {
+					return null;
+				}
+				if(root == null) {
+					root = item;
+				}
+				stack.push(item);
+				if(parent != null) {
+					pending = item;
+					pendingParent = parent;
+				}
+				break;
+			}
+			case ATTRIBUTE: {
+				String key = readString(buf, strings);
+				String value = readString(buf, strings);
+				stack.peek().attributes().setAttribute(key, value);
+				break;
+			}
+			case TEXT:
+				stack.peek().setText(readString(buf, strings));
+				break;
+			case END:
+				parser.processItem(stack.pop());
+				break;
+			case SKIPPED: {
+				String tag = readString(buf, strings);
+				parser.elementSkipped(stack.peek(), tag, buf.get() != 0);
+				break;
+			}
+			default:
+				return null;
+			}
+		}
+		if(!stack.isEmpty()) {
+			return null;
+		}
+		return root;
+	}
+
+	private static String readString(ByteBuffer buf, List<String> strings) {
+		int index = readVarInt(buf);
+		if(index < strings.size()) {
+			return strings.get(index);
+		}
+		// new string follows
+		byte[] bytes = new byte[readVarInt(buf)];
+		buf.get(bytes);
+		String s = new String(bytes, StandardCharsets.UTF_8);
+		strings.add(s);
+		return s;
+	}
+
+	private static int readVarInt(ByteBuffer buf) {
+		int value = 0;
+		for(int shift = 0; shift < 32; shift += 7) {
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Malformed variable-length integer"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Records parse events of a single file in the cache format
+	 */
+	static class Encoder {
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+		void startItem(String tag) {
+			out.write(START);
+			writeString(tag);
+		}
+
+		void attribute(String key, String value) {
+			out.write(ATTRIBUTE);
+			writeString(key);
+			writeString(value);
+		}
+
+		void text(String text) {
+			out.write(TEXT);
+			writeString(text);
+		}
+
+		void endItem() {
+			out.write(END);
+		}
+
+		void skipped(String tag, boolean hasChildren) {
+			out.write(SKIPPED);
+			writeString(tag);
+			out.write(hasChildren ? 1 : 0);
+		}
+
+		byte[] toByteArray() {
+			return out.toByteArray();
+		}
+
+		private void writeString(String s) {
+			Integer index = strings.get(s);
+			if(index != null) {
+				writeVarInt(index);
+				return;
+			}
+			writeVarInt(strings.size());
+			strings.put(s, strings.size());
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		private void writeVarInt(int value) {
+			while((value & ~0x7F) != 0) {
+				out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+	}
+}
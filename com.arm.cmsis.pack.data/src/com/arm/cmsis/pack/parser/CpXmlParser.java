@@ -16,19 +16,23 @@ import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -40,6 +44,7 @@ import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -73,11 +78,20 @@ public abstract class CpXmlParser implements ICpXmlParser {
 	protected int nErrors = 0;
 	protected int nWarnings = 0;
 
+	// snapshot cache of parsed items
+	protected CpItemCache itemCache = null;
+	protected CpItemCache.Encoder itemEncoder = null;
+
 	// DOM
 	private DocumentBuilderFactory docBuilderFactory = null;
 	private DocumentBuilder docBuilder = null;
 	protected XmlErrorHandler errorHandler = null;
 
+	// StAX
+	protected boolean streaming = false; // parse with StAX instead of DOM
+	private XMLInputFactory inputFactory = null;
+	private Schema schema = null;
+
 	public CpXmlParser() {
 	}
 
@@ -90,6 +104,7 @@ public abstract class CpXmlParser implements ICpXmlParser {
 		xmlFile = null;
 		xmlString = null;
 		rootItem 	= null;
+		itemEncoder = null;
 		errorStrings.clear();
 		nErrors   = 0;
 		nWarnings = 0;
@@ -132,6 +147,26 @@ public abstract class CpXmlParser implements ICpXmlParser {
 	}
 
 
+	@Override
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	@Override
+	public void setItemCache(CpItemCache cache) {
+		itemCache = cache;
+	}
+
+	@Override
+	public CpItemCache getItemCache() {
+		return itemCache;
+	}
+
 	@Override
 	public void setIgnoreTags(Set<String> ignoreTags) {
 		this.ignoreTags = ignoreTags;
@@ -157,6 +192,47 @@ public abstract class CpXmlParser implements ICpXmlParser {
 		return ignoreTags.contains(tag);
 	}
 
+	/**
+	 * Checks if an element should be skipped by reading together with its children
+	 * @param parent parent ICpItem, null for the root element
+	 * @param tag element tag
+	 * @return true if element is skipped, default returns {@link #isTagIgnored(String)}
+	 */
+	protected boolean isElementSkipped(ICpItem parent, String tag) {
+		return isTagIgnored(tag);
+	}
+
+	/**
+	 * Called after an element has been skipped by reading
+	 * @param parent parent ICpItem, null for the root element
+	 * @param tag element tag
+	 * @param hasChildren true if skipped element contains child elements
+	 */
+	protected void elementSkipped(ICpItem parent, String tag, boolean hasChildren) {
+		// default does nothing
+	}
+
+	/**
+	 * Records skipped element in the cache encoder and calls {@link #elementSkipped(ICpItem, String, boolean)}
+	 * @param parent parent ICpItem, null for the root element
+	 * @param tag element tag
+	 * @param hasChildren true if skipped element contains child elements
+	 */
+	protected void skipElement(ICpItem parent, String tag, boolean hasChildren) {
+		if(itemEncoder != null) {
+			itemEncoder.skipped(tag, hasChildren);
+		}
+		elementSkipped(parent, tag, hasChildren);
+	}
+
+	/**
+	 * Returns variant of the cache entry for the current parse mode, parses in different modes are cached separately
+	 * @return variant string or null for the default (complete) parse
+	 */
+	protected String getCacheVariant() {
+		return null;
+	}
+
 	/**
 	 * Check if item should be ignored by writing
 	 * @param item {@link ICpItem} to check
@@ -235,7 +311,7 @@ public abstract class CpXmlParser implements ICpXmlParser {
 				docBuilderFactory.setNamespaceAware(true);
 				if (xsdFile != null && !xsdFile.isEmpty()) {
 					SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-					Schema schema = schemaFactory.newSchema(new Source[] {new StreamSource(xsdFile)});
+					schema = schemaFactory.newSchema(new Source[] {new StreamSource(xsdFile)});
 					docBuilderFactory.setSchema(schema);
 				}
 			}
@@ -244,6 +320,17 @@ public abstract class CpXmlParser implements ICpXmlParser {
 				errorHandler = new XmlErrorHandler();
 			}
 			docBuilder.setErrorHandler(errorHandler);
+			if(streaming && inputFactory == null) {
+				inputFactory = XMLInputFactory.newInstance();
+				inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+				inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+				try {
+					// report CDATA sections separately: DOM-based parsing does not take them as text
+					inputFactory.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", Boolean.TRUE); //$NON-NLS-1$
+				} catch (IllegalArgumentException e) {
+					// property is not supported by the implementation
+				}
+			}
 		} catch (ParserConfigurationException e) {
 			String err = "Error initializing XML parser"; //$NON-NLS-1$
 			err += ": "; //$NON-NLS-1$
@@ -276,6 +363,16 @@ public abstract class CpXmlParser implements ICpXmlParser {
 			return null;
 		}
 
+		if(streaming) {
+			if(!validateStream(new StreamSource(new StringReader(xml)))) {
+				return null;
+			}
+			if(parseStream(null, new StringReader(xml))) {
+				return rootItem;
+			}
+			return null;
+		}
+
 		Document domDoc = null;
 		StringReader sr = new StringReader(xml);
 		InputSource is = new InputSource(sr);
@@ -312,10 +409,38 @@ public abstract class CpXmlParser implements ICpXmlParser {
 	public ICpItem parseFile(String file) {
 		clear();
 		this.xmlFile = file;
+		if(itemCache != null) {
+			ICpItem item = itemCache.restore(this, file, getCacheVariant());
+			if(item != null) {
+				return item;
+			}
+			rootItem = null; // discard partially restored item
+			itemEncoder = new CpItemCache.Encoder();
+		}
 		if(!init()) {
 			return null;
 		}
 
+		if(streaming) {
+			if(!validateStream(new StreamSource(new File(xmlFile)))) {
+				return null;
+			}
+			boolean parsed = false;
+			try (InputStream is = new FileInputStream(xmlFile)) {
+				parsed = parseStream(is, null);
+			} catch (IOException e) {
+				addParseError(e);
+			}
+			if(parsed) {
+				if(itemCache != null && nErrors == 0) {
+					itemCache.store(file, getCacheVariant(), itemEncoder);
+				}
+				itemEncoder = null;
+				return rootItem;
+			}
+			return null;
+		}
+
 		Document domDoc = null;
 		InputStream sr = null;
 		try {
@@ -347,6 +472,10 @@ public abstract class CpXmlParser implements ICpXmlParser {
 		}
 
 		if(parseElement(domElement, null)) {
+			if(itemCache != null && nErrors == 0) {
+				itemCache.store(file, getCacheVariant(), itemEncoder);
+			}
+			itemEncoder = null;
 			return rootItem;
 		}
 		return null;
@@ -362,33 +491,31 @@ public abstract class CpXmlParser implements ICpXmlParser {
 	protected boolean parseElement(Node elementNode, ICpItem parent) {
 		// set element tag name
 		String tag = elementNode.getNodeName();
-		if (isTagIgnored(tag)) {
+		if (isElementSkipped(parent, tag)) {
+			boolean hasChildren = false;
+			for (Node node = elementNode.getFirstChild(); node != null; node = node.getNextSibling()) {
+				if(node.getNodeType() == Node.ELEMENT_NODE) {
+					hasChildren = true;
+					break;
+				}
+			}
+			skipElement(parent, tag, hasChildren);
 			return true; // no further processing
 		}
 		ICpItem item = createItem(parent, tag);
 		if(item == null) {
 			return false;
 		}
+		if(itemEncoder != null) {
+			itemEncoder.startItem(tag);
+		}
 		// process node attributes
 		NamedNodeMap attributes = elementNode.getAttributes();
 		if (attributes != null && attributes.getLength() > 0) {
 			for (int i = 0; i < attributes.getLength(); i++) {
 				Node node = attributes.item(i);
 				if (node != null) {
-					String key = node.getNodeName();
-					if (key == null) {
-						continue;
-					}
-					key = key.trim();
-					if (key.isEmpty()) {
-						continue;
-					}
-					String value = node.getNodeValue();
-					if (value == null) {
-						continue;
-					}
-					value = adjustAttributeValue(key, value.trim());
-					item.attributes().setAttribute(key, value);
+					setItemAttribute(item, node.getNodeName(), node.getNodeValue());
 				}
 			}
 		}
@@ -399,6 +526,7 @@ public abstract class CpXmlParser implements ICpXmlParser {
 		}
 
 		// insert children and text
+		String text = null;
 		for (Node node = elementNode.getFirstChild(); node != null; node = node.getNextSibling()) {
 			switch (node.getNodeType()) {
 			case Node.ELEMENT_NODE: {
@@ -408,9 +536,10 @@ public abstract class CpXmlParser implements ICpXmlParser {
 				break;
 			}
 			case Node.TEXT_NODE: {
-				String text = node.getNodeValue();
-				if (text != null) {
-					item.setText(text.trim());
+				String nodeText = node.getNodeValue();
+				if (nodeText != null) {
+					text = nodeText.trim();
+					item.setText(text);
 				}
 				break;
 			}
@@ -419,12 +548,212 @@ public abstract class CpXmlParser implements ICpXmlParser {
 			}
 		}
 
+		if(itemEncoder != null) {
+			if(text != null) {
+				itemEncoder.text(text);
+			}
+			itemEncoder.endItem();
+		}
+
 		// do some post processing of the item
 		processItem(item);
 
 		return true;
 	}
 
+	/**
+	 * Sets parsed attribute to the item, adjusts its value
+	 * @param item ICpItem to set attribute to
+	 * @param key attribute key as read from XML
+	 * @param value attribute value as read from XML
+	 */
+	protected void setItemAttribute(ICpItem item, String key, String value) {
+		if (key == null || value == null) {
+			return;
+		}
+		key = key.trim();
+		if (key.isEmpty()) {
+			return;
+		}
+		value = adjustAttributeValue(key, value.trim());
+		item.attributes().setAttribute(key, value);
+		if(itemEncoder != null) {
+			itemEncoder.attribute(key, value);
+		}
+	}
+
+	/**
+	 * Validates XML input against the schema if any, used in streaming mode
+	 * @param source StreamSource to validate
+	 * @return false if a fatal error occurred
+	 */
+	protected boolean validateStream(StreamSource source) {
+		if(schema == null) {
+			return true;
+		}
+		try {
+			Validator validator = schema.newValidator();
+			validator.setErrorHandler(errorHandler);
+			validator.validate(source);
+		} catch (SAXException | IOException e) {
+			addParseError(e);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds error string for an exception thrown during parsing
+	 * @param e the exception
+	 */
+	protected void addParseError(Exception e) {
+		String err = "Error parsing file"; //$NON-NLS-1$
+		err += " " + xmlFile; //$NON-NLS-1$
+		err += "': "; //$NON-NLS-1$
+		err += e.toString();
+		errorStrings.add(err);
+		nErrors++;
+	}
+
+	/**
+	 * Parses XML input with a StAX reader and creates ICpItems directly from the events.
+	 * The resulting items are the same as created by {@link #parseElement(Node, ICpItem)}.
+	 * @param is input stream to parse, null if reader is used
+	 * @param reader character reader to parse, null if input stream is used
+	 * @return true if successful
+	 */
+	protected boolean parseStream(InputStream is, Reader reader) {
+		XMLStreamReader xml = null;
+		try {
+			xml = is != null ? inputFactory.createXMLStreamReader(is) : inputFactory.createXMLStreamReader(reader);
+			return parseStream(xml);
+		} catch (XMLStreamException e) {
+			addParseError(e);
+			return false;
+		} finally {
+			if(xml != null) {
+				try {
+					xml.close();
+				} catch (XMLStreamException e) {
+					// ignore the exception
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates ICpItems out of StAX events
+	 * @param xml XMLStreamReader to read events from
+	 * @return true if successful
+	 * @throws XMLStreamException
+	 */
+	protected boolean parseStream(XMLStreamReader xml) throws XMLStreamException {
+		List<ICpItem> items = new ArrayList<ICpItem>(); // stack of open items
+		List<String> texts = new ArrayList<String>();   // last text of open items
+		StringBuilder chars = null; // text collected since last non-text event
+		int ignoreDepth = 0;
+		String skippedTag = null;
+		boolean skippedHasChildren = false;
+		while(xml.hasNext()) {
+			int event = xml.next();
+			if(ignoreDepth > 0) {
+				if(event == XMLStreamConstants.START_ELEMENT) {
+					ignoreDepth++;
+					skippedHasChildren = true;
+				} else if(event == XMLStreamConstants.END_ELEMENT) {
+					ignoreDepth--;
+					if(ignoreDepth == 0) {
+						skipElement(items.isEmpty() ? null : items.get(items.size() - 1), skippedTag, skippedHasChildren);
+					}
+				}
+				continue;
+			}
+			if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE) {
+				if(!items.isEmpty()) {
+					if(chars == null) {
+						chars = new StringBuilder();
+					}
+					chars.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+				}
+				continue;
+			}
+			if(chars != null) {
+				// any other event ends a text node
+				int top = items.size() - 1;
+				String text = chars.toString().trim();
+				items.get(top).setText(text);
+				texts.set(top, text);
+				chars = null;
+			}
+
+			switch(event) {
+			case XMLStreamConstants.START_ELEMENT: {
+				String tag = getQualifiedName(xml.getPrefix(), xml.getLocalName());
+				ICpItem parent = items.isEmpty() ? null : items.get(items.size() - 1);
+				if (isElementSkipped(parent, tag)) {
+					ignoreDepth = 1; // skip element with its children
+					skippedTag = tag;
+					skippedHasChildren = false;
+					break;
+				}
+				ICpItem item = createItem(parent, tag);
+				if(item == null) {
+					return false;
+				}
+				if(itemEncoder != null) {
+					itemEncoder.startItem(tag);
+				}
+				for(int i = 0; i < xml.getNamespaceCount(); i++) {
+					String prefix = xml.getNamespacePrefix(i);
+					String key = prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix; //$NON-NLS-1$ //$NON-NLS-2$
+					setItemAttribute(item, key, xml.getNamespaceURI(i));
+				}
+				for(int i = 0; i < xml.getAttributeCount(); i++) {
+					String key = getQualifiedName(xml.getAttributePrefix(i), xml.getAttributeLocalName(i));
+					setItemAttribute(item, key, xml.getAttributeValue(i));
+				}
+				// add child item here since parent implementation can query item attributes
+				if(parent != null) {
+					parent.addChild(item);
+				}
+				items.add(item);
+				texts.add(null);
+				break;
+			}
+			case XMLStreamConstants.END_ELEMENT: {
+				int top = items.size() - 1;
+				ICpItem item = items.remove(top);
+				String text = texts.remove(top);
+				if(itemEncoder != null) {
+					if(text != null) {
+						itemEncoder.text(text);
+					}
+					itemEncoder.endItem();
+				}
+				// do some post processing of the item
+				processItem(item);
+				break;
+			}
+			default:
+				break;
+			}
+		}
+		return rootItem != null;
+	}
+
+	/**
+	 * Returns qualified XML name
+	 * @param prefix namespace prefix, can be null or empty
+	 * @param localName local name
+	 * @return qualified name in the form prefix:localName
+	 */
+	protected static String getQualifiedName(String prefix, String localName) {
+		if(prefix == null || prefix.isEmpty()) {
+			return localName;
+		}
+		return prefix + ':' + localName;
+	}
+
 	/**
 	 * Process the item just created
 	 * @param item item just created
@@ -612,10 +941,7 @@ public abstract class CpXmlParser implements ICpXmlParser {
 		}
 
 		if(item.attributes().hasAttributes()) {
-			Map<String, String> attributesMap = item.attributes().getAttributesAsMap();
-			for(Entry<String, String> e: attributesMap.entrySet()) {
-				node.setAttribute(e.getKey(), e.getValue());
-			}
+			item.attributes().forEachAttribute(node::setAttribute);
 		}
 
 		String text = item.getText();
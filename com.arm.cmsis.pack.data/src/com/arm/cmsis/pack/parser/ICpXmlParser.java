@@ -59,6 +59,32 @@ public interface ICpXmlParser extends ICpItemFactory {
 	 */
 	int getWarningCount();
 
+	/**
+	 * Selects parser backend: streaming (StAX) or DOM
+	 * @param streaming true to create items directly from StAX events without building DOM document,
+	 *  false to use DOM (default)
+	 */
+	void setStreaming(boolean streaming);
+
+	/**
+	 * Checks if streaming (StAX) backend is used
+	 * @return true if streaming backend is used, false if DOM
+	 */
+	boolean isStreaming();
+
+	/**
+	 * Sets cache of parsed items to use by {@link #parseFile(String)}: unchanged files are restored from the cache,
+	 * the others are parsed and stored in the cache
+	 * @param cache CpItemCache to use, null to disable caching
+	 */
+	void setItemCache(CpItemCache cache);
+
+	/**
+	 * Returns cache of parsed items
+	 * @return CpItemCache used by the parser or null if none is set
+	 */
+	CpItemCache getItemCache();
+
 	/**
 	 * Sets XML tags to ignore during parsing
 	 * @param ignoreTags set of tags to ignore
@@ -12,6 +12,14 @@
 package com.arm.cmsis.pack.parser;
 
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.data.CpPack;
 import com.arm.cmsis.pack.data.ICpItem;
 
@@ -19,7 +27,25 @@ import com.arm.cmsis.pack.data.ICpItem;
  * Class to parse pdsc files 
  */
 public class PdscParser extends CpXmlParser  {
-	
+
+	/**
+	 * Top-level pdsc sections that are not read in header-only mode
+	 */
+	public static final Set<String> HEAVY_SECTIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			CmsisConstants.CONDITIONS_TAG,
+			CmsisConstants.COMPONENTS_TAG,
+			CmsisConstants.DEVICES_TAG,
+			CmsisConstants.BOARDS_TAG,
+			CmsisConstants.EXAMPLES_TAG,
+			CmsisConstants.APIS_TAG,
+			CmsisConstants.TAXONOMY_TAG,
+			CmsisConstants.GENERATORS_TAG)));
+
+	protected static final String HEADER_VARIANT = "header"; //$NON-NLS-1$
+	protected static final String SECTIONS_VARIANT = "sections:"; //$NON-NLS-1$
+
+	protected boolean headerOnly = false;
+	protected Set<String> sections = null; // heavy sections to read, null to read all
 
 	public PdscParser() {
 	}
@@ -30,6 +56,73 @@ public class PdscParser extends CpXmlParser  {
 	
 	@Override
 	public ICpItem createRootItem(String tag) {
-		return new CpPack(tag, xmlFile);
+		CpPack pack = new CpPack(tag, xmlFile);
+		pack.setItemCache(itemCache); // sections skipped in header-only mode are loaded through the same cache
+		return pack;
+	}
+
+	/**
+	 * Sets header-only mode: only package header (vendor, name, description, releases, etc.) is read,
+	 * the heavy sections are skipped and loaded by the resulting pack on first access
+	 * @param headerOnly true to read only header
+	 */
+	public void setHeaderOnly(boolean headerOnly) {
+		this.headerOnly = headerOnly;
+	}
+
+	/**
+	 * Checks if parser reads only package header
+	 * @return true if header-only mode is set
+	 */
+	public boolean isHeaderOnly() {
+		return headerOnly;
+	}
+
+	/**
+	 * Restricts reading to the package header and the given heavy sections, other heavy sections are skipped.
+	 * Used to load a single section of a header-only pack without reading the rest of it.
+	 * @param sections collection of section tags to read, null to read all sections
+	 */
+	public void setSections(Collection<String> sections) {
+		this.sections = sections != null ? new TreeSet<String>(sections) : null;
+	}
+
+	@Override
+	public ICpItem parseFile(String file) {
+		if(!headerOnly && sections == null) {
+			return super.parseFile(file);
+		}
+		// header-only and section modes always stream, the result is cached separately from complete trees
+		boolean wasStreaming = streaming;
+		streaming = true;
+		try {
+			return super.parseFile(file);
+		} finally {
+			streaming = wasStreaming;
+		}
+	}
+
+	@Override
+	protected String getCacheVariant() {
+		if(headerOnly) {
+			return HEADER_VARIANT;
+		}
+		return sections != null ? SECTIONS_VARIANT + String.join(",", sections) : null; //$NON-NLS-1$
+	}
+
+	@Override
+	protected boolean isElementSkipped(ICpItem parent, String tag) {
+		if(parent != null && parent == rootItem && HEAVY_SECTIONS.contains(tag)
+				&& (headerOnly || (sections != null && !sections.contains(tag)))) {
+			return true;
+		}
+		return super.isElementSkipped(parent, tag);
+	}
+
+	@Override
+	protected void elementSkipped(ICpItem parent, String tag, boolean hasChildren) {
+		if(headerOnly && parent == rootItem && parent instanceof CpPack && HEAVY_SECTIONS.contains(tag) && !isTagIgnored(tag)) {
+			((CpPack)parent).addLazySection(tag, hasChildren);
+		}
 	}
 }
@@ -0,0 +1,531 @@
+/*******************************************************************************
+* Copyright (c) 2016 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.debugseq.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.arm.cmsis.pack.debugseq.debugSeq.And;
+import com.arm.cmsis.pack.debugseq.debugSeq.Assignment;
+import com.arm.cmsis.pack.debugseq.debugSeq.BitAnd;
+import com.arm.cmsis.pack.debugseq.debugSeq.BitNot;
+import com.arm.cmsis.pack.debugseq.debugSeq.BitOr;
+import com.arm.cmsis.pack.debugseq.debugSeq.BitXor;
+import com.arm.cmsis.pack.debugseq.debugSeq.Block;
+import com.arm.cmsis.pack.debugseq.debugSeq.CodeBlock;
+import com.arm.cmsis.pack.debugseq.debugSeq.Comparison;
+import com.arm.cmsis.pack.debugseq.debugSeq.Control;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapDelay;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapJtagSequence;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapSwjClock;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapSwjPins;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapSwjSequence;
+import com.arm.cmsis.pack.debugseq.debugSeq.DapWriteABORT;
+import com.arm.cmsis.pack.debugseq.debugSeq.DebugSeqModel;
+import com.arm.cmsis.pack.debugseq.debugSeq.DebugVars;
+import com.arm.cmsis.pack.debugseq.debugSeq.Div;
+import com.arm.cmsis.pack.debugseq.debugSeq.Equality;
+import com.arm.cmsis.pack.debugseq.debugSeq.Expression;
+import com.arm.cmsis.pack.debugseq.debugSeq.IntConstant;
+import com.arm.cmsis.pack.debugseq.debugSeq.LoadDebugInfo;
+import com.arm.cmsis.pack.debugseq.debugSeq.Message;
+import com.arm.cmsis.pack.debugseq.debugSeq.Minus;
+import com.arm.cmsis.pack.debugseq.debugSeq.Mul;
+import com.arm.cmsis.pack.debugseq.debugSeq.Not;
+import com.arm.cmsis.pack.debugseq.debugSeq.Or;
+import com.arm.cmsis.pack.debugseq.debugSeq.Parameter;
+import com.arm.cmsis.pack.debugseq.debugSeq.Plus;
+import com.arm.cmsis.pack.debugseq.debugSeq.Query;
+import com.arm.cmsis.pack.debugseq.debugSeq.QueryValue;
+import com.arm.cmsis.pack.debugseq.debugSeq.Read16;
+import com.arm.cmsis.pack.debugseq.debugSeq.Read32;
+import com.arm.cmsis.pack.debugseq.debugSeq.Read64;
+import com.arm.cmsis.pack.debugseq.debugSeq.Read8;
+import com.arm.cmsis.pack.debugseq.debugSeq.ReadAP;
+import com.arm.cmsis.pack.debugseq.debugSeq.ReadDP;
+import com.arm.cmsis.pack.debugseq.debugSeq.Rem;
+import com.arm.cmsis.pack.debugseq.debugSeq.Sequence;
+import com.arm.cmsis.pack.debugseq.debugSeq.SequenceCall;
+import com.arm.cmsis.pack.debugseq.debugSeq.Shift;
+import com.arm.cmsis.pack.debugseq.debugSeq.Statement;
+import com.arm.cmsis.pack.debugseq.debugSeq.StringConstant;
+import com.arm.cmsis.pack.debugseq.debugSeq.Ternary;
+import com.arm.cmsis.pack.debugseq.debugSeq.VariableDeclaration;
+import com.arm.cmsis.pack.debugseq.debugSeq.VariableRef;
+import com.arm.cmsis.pack.debugseq.debugSeq.Write16;
+import com.arm.cmsis.pack.debugseq.debugSeq.Write32;
+import com.arm.cmsis.pack.debugseq.debugSeq.Write64;
+import com.arm.cmsis.pack.debugseq.debugSeq.Write8;
+import com.arm.cmsis.pack.debugseq.debugSeq.WriteAP;
+import com.arm.cmsis.pack.debugseq.debugSeq.WriteDP;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.Arithmetic;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.Assign;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.BlockNode;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.CodeBlockNode;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.Command;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.ControlNode;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.Declaration;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.GlobalRef;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.IntConst;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.LocalRef;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.Node;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.SequenceNode;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.StatementNode;
+import com.arm.cmsis.pack.debugseq.engine.DebugSeqProgram.StringConst;
+import com.arm.cmsis.pack.dsq.IDsqCommand;
+import com.arm.cmsis.pack.dsq.IDsqContext;
+
+/**
+ * Lowers a validated debug sequence model to a {@link DebugSeqProgram}
+ * <p>
+ * Variables are resolved to slots following the interpreter scopes: one scope per sequence and per control,
+ * a redeclaration in the same scope reuses the slot of the variable.
+ * Constructs the interpreter handles ambiguously (variable shadowing, empty blocks, sequence calls inside atomic blocks)
+ * are not compiled: sequences containing them and sequences calling such sequences are left to the interpreter.
+ * </p>
+ */
+public class DebugSeqCompiler {
+
+	/**
+	 * Thrown when the model contains a construct that is not compiled
+	 */
+	static class NotCompilableException extends Exception {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private final Map<String, Integer> fGlobals = new HashMap<>();	// debugvars variable name -> global slot
+	private Deque<Map<String, Integer>> fScopes = null;				// variable name -> frame slot per open scope, null in debugvars
+	private int fFrameSize = 0;										// frame size of the sequence being compiled
+	private boolean fInAtomicBlock = false;
+	private List<DebugSeqProgram.SequenceCall> fCalls = null;		// calls of the sequence being compiled
+
+	private DebugSeqCompiler() {
+	}
+
+	/**
+	 * Compiles the model
+	 * @param model validated DebugSeqModel
+	 * @return DebugSeqProgram or null if the debugvars contain constructs that are not compiled
+	 */
+	public static DebugSeqProgram compile(DebugSeqModel model) {
+		if (model == null) {
+			return null;
+		}
+		try {
+			return new DebugSeqCompiler().compileModel(model);
+		} catch (NotCompilableException e) {
+			return null;
+		}
+	}
+
+	private DebugSeqProgram compileModel(DebugSeqModel model) throws NotCompilableException {
+		List<StatementNode> debugVars = new ArrayList<>();
+		DebugVars dv = model.getDebugvars();
+		if (dv != null) {
+			for (Statement stmt : dv.getStatements()) {
+				debugVars.add(compileStatement(stmt));
+			}
+		}
+		int[] predefinedSlots = new int[DebugSeqProgram.PREDEFINED.length];
+		for (int i = 0; i < predefinedSlots.length; i++) {
+			Integer slot = fGlobals.get(DebugSeqProgram.PREDEFINED[i]);
+			if (slot == null) {
+				throw new NotCompilableException();
+			}
+			predefinedSlots[i] = slot;
+		}
+
+		Map<Sequence, SequenceNode> sequences = new IdentityHashMap<>();
+		Map<SequenceNode, List<DebugSeqProgram.SequenceCall>> calls = new IdentityHashMap<>();
+		Map<String, Sequence> sequencesByName = new HashMap<>();
+		List<Sequence> seqs = model.getSequences() != null ? model.getSequences().getSequences() : new ArrayList<>();
+		for (Sequence seq : seqs) {
+			if (!sequencesByName.containsKey(seq.getName())) {
+				sequencesByName.put(seq.getName(), seq); // calls are resolved to the first sequence with the name
+			}
+			SequenceNode node = compileSequence(seq);
+			if (node != null) {
+				sequences.put(seq, node);
+				calls.put(node, fCalls);
+			}
+		}
+
+		// a sequence calling an interpreted sequence is interpreted too
+		boolean removed;
+		do {
+			removed = false;
+			for (Iterator<SequenceNode> it = sequences.values().iterator(); it.hasNext();) {
+				for (DebugSeqProgram.SequenceCall call : calls.get(it.next())) {
+					Sequence callee = sequencesByName.get(call.name);
+					if (callee != null && !sequences.containsKey(callee)) {
+						it.remove();
+						removed = true;
+						break;
+					}
+				}
+			}
+		} while (removed);
+		for (List<DebugSeqProgram.SequenceCall> sequenceCalls : calls.values()) {
+			for (DebugSeqProgram.SequenceCall call : sequenceCalls) {
+				call.sequence = sequences.get(sequencesByName.get(call.name));
+			}
+		}
+		return new DebugSeqProgram(fGlobals.size(), predefinedSlots, debugVars.toArray(new StatementNode[debugVars.size()]), sequences);
+	}
+
+	/**
+	 * Compiles the sequence
+	 * @return SequenceNode or null if the sequence contains constructs that are not compiled
+	 */
+	private SequenceNode compileSequence(Sequence seq) {
+		SequenceNode node = new SequenceNode(seq.getName());
+		fScopes = new ArrayDeque<>();
+		fScopes.push(new HashMap<>());
+		fFrameSize = DebugSeqProgram.FRAME_PREDEFINED_COUNT;
+		fInAtomicBlock = false;
+		fCalls = new ArrayList<>();
+		try {
+			node.codeblocks = compileCodeBlocks(seq.getCodeblocks());
+		} catch (NotCompilableException e) {
+			return null;
+		}
+		node.frameSize = fFrameSize;
+		return node;
+	}
+
+	private CodeBlockNode[] compileCodeBlocks(List<CodeBlock> codeblocks) throws NotCompilableException {
+		if (codeblocks == null) {
+			return new CodeBlockNode[0];
+		}
+		CodeBlockNode[] nodes = new CodeBlockNode[codeblocks.size()];
+		for (int i = 0; i < nodes.length; i++) {
+			CodeBlock codeblock = codeblocks.get(i);
+			if (codeblock instanceof Block) {
+				nodes[i] = compileBlock((Block) codeblock);
+			} else if (codeblock instanceof Control) {
+				nodes[i] = compileControl((Control) codeblock);
+			} else {
+				throw new NotCompilableException();
+			}
+		}
+		return nodes;
+	}
+
+	private CodeBlockNode compileBlock(Block block) throws NotCompilableException {
+		List<Statement> statements = block.getStatements();
+		if (statements.isEmpty()) {
+			throw new NotCompilableException(); // the interpreter logs a null statement
+		}
+		boolean atomic = block.getAtomic() != 0;
+		fInAtomicBlock = atomic;
+		StatementNode[] nodes = new StatementNode[statements.size()];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = compileStatement(statements.get(i));
+		}
+		fInAtomicBlock = false;
+		return new BlockNode(atomic, block.getInfo(), nodes);
+	}
+
+	private CodeBlockNode compileControl(Control control) throws NotCompilableException {
+		fScopes.push(new HashMap<>()); // the interpreter enters a scope for each control
+		StatementNode ifNode = control.getIf() != null ? compileStatement(control.getIf()) : null;
+		StatementNode whileNode = control.getWhile() != null ? compileStatement(control.getWhile()) : null;
+		CodeBlockNode node = new ControlNode(ifNode, whileNode, control.getTimeout(), control.getInfo(), compileCodeBlocks(control.getCodeblocks()));
+		fScopes.pop();
+		return node;
+	}
+
+	private StatementNode compileStatement(Statement stmt) throws NotCompilableException {
+		if (stmt instanceof VariableDeclaration) {
+			return new StatementNode(compileDeclaration((VariableDeclaration) stmt), stmt);
+		} else if (stmt instanceof Expression) {
+			return new StatementNode(compileExpression((Expression) stmt), stmt);
+		}
+		throw new NotCompilableException();
+	}
+
+	private Node compileDeclaration(VariableDeclaration vardecl) throws NotCompilableException {
+		Node value = compileExpression(vardecl.getValue());
+		String name = vardecl.getName();
+		if (fScopes == null) {
+			Integer slot = fGlobals.get(name);
+			if (slot == null) {
+				slot = fGlobals.size();
+				fGlobals.put(name, slot);
+			}
+			return new Declaration(true, slot, value);
+		}
+		Integer slot = fScopes.peek().get(name);
+		if (slot == null) {
+			if (findLocal(name) != null || fGlobals.containsKey(name)) {
+				throw new NotCompilableException(); // shadowing depends on the interpreter scopes, also of calling sequences
+			}
+			slot = fFrameSize++;
+			fScopes.peek().put(name, slot);
+		}
+		return new Declaration(false, slot, value);
+	}
+
+	/**
+	 * Looks up variable in the open scopes of the sequence
+	 * @return frame slot or null if not found
+	 */
+	private Integer findLocal(String name) {
+		for (Map<String, Integer> scope : fScopes) {
+			Integer slot = scope.get(name);
+			if (slot != null) {
+				return slot;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves variable to a slot
+	 * @return frame slot if the variable is stored in the sequence frame, otherwise global slot encoded as -(slot + 1)
+	 */
+	private int resolveVariable(VariableRef ref) throws NotCompilableException {
+		if (ref.getVariable() == null) {
+			throw new NotCompilableException();
+		}
+		String name = ref.getVariable().getName();
+		if (fScopes != null) {
+			Integer slot = findLocal(name);
+			if (slot != null) {
+				return slot;
+			}
+			if (IDsqContext.AP.equals(name)) {
+				return DebugSeqProgram.AP_SLOT;
+			} else if (IDsqContext.DP.equals(name)) {
+				return DebugSeqProgram.DP_SLOT;
+			} else if (IDsqContext.ERRORCONTROL.equals(name)) {
+				return DebugSeqProgram.ERRORCONTROL_SLOT;
+			}
+		}
+		Integer slot = fGlobals.get(name);
+		if (slot == null) {
+			throw new NotCompilableException();
+		}
+		return -(slot + 1);
+	}
+
+	private Node compileExpression(Expression e) throws NotCompilableException {
+		if (e == null) {
+			throw new NotCompilableException();
+		} else if (e instanceof IntConstant) {
+			return new IntConst(((IntConstant) e).getValue());
+		} else if (e instanceof StringConstant) {
+			return new StringConst(((StringConstant) e).getValue());
+		} else if (e instanceof VariableRef) {
+			int slot = resolveVariable((VariableRef) e);
+			return slot >= 0 ? new LocalRef(slot) : new GlobalRef(-slot - 1);
+		} else if (e instanceof Not) {
+			return new DebugSeqProgram.Not(compileExpression(((Not) e).getExpression()));
+		} else if (e instanceof Assignment) {
+			return compileAssignment((Assignment) e);
+		} else if (e instanceof Ternary) {
+			Ternary t = (Ternary) e;
+			return new DebugSeqProgram.Ternary(compileExpression(t.getLeft()), compileExpression(t.getExp1()), compileExpression(t.getExp2()));
+		} else if (e instanceof Or) {
+			return new DebugSeqProgram.Or(compileExpression(((Or) e).getLeft()), compileExpression(((Or) e).getRight()));
+		} else if (e instanceof And) {
+			return new DebugSeqProgram.And(compileExpression(((And) e).getLeft()), compileExpression(((And) e).getRight()));
+		} else if (e instanceof BitOr) {
+			return arithmetic(Arithmetic.BIT_OR, ((BitOr) e).getLeft(), ((BitOr) e).getRight());
+		} else if (e instanceof BitXor) {
+			return arithmetic(Arithmetic.BIT_XOR, ((BitXor) e).getLeft(), ((BitXor) e).getRight());
+		} else if (e instanceof BitAnd) {
+			return arithmetic(Arithmetic.BIT_AND, ((BitAnd) e).getLeft(), ((BitAnd) e).getRight());
+		} else if (e instanceof BitNot) {
+			return new DebugSeqProgram.BitNot(compileExpression(((BitNot) e).getExpression()));
+		} else if (e instanceof Equality) {
+			Equality eq = (Equality) e;
+			return new DebugSeqProgram.Equality(compileExpression(eq.getLeft()), compileExpression(eq.getRight()), "==".equals(eq.getOp())); //$NON-NLS-1$
+		} else if (e instanceof Comparison) {
+			Comparison c = (Comparison) e;
+			return arithmetic(comparisonOp(c.getOp()), c.getLeft(), c.getRight());
+		} else if (e instanceof Shift) {
+			Shift s = (Shift) e;
+			return arithmetic(shiftOp(s.getOp()), s.getLeft(), s.getRight());
+		} else if (e instanceof Plus) {
+			return arithmetic(Arithmetic.PLUS, ((Plus) e).getLeft(), ((Plus) e).getRight());
+		} else if (e instanceof Minus) {
+			return arithmetic(Arithmetic.MINUS, ((Minus) e).getLeft(), ((Minus) e).getRight());
+		} else if (e instanceof Mul) {
+			return arithmetic(Arithmetic.MUL, ((Mul) e).getLeft(), ((Mul) e).getRight());
+		} else if (e instanceof Div) {
+			return arithmetic(Arithmetic.DIV, ((Div) e).getLeft(), ((Div) e).getRight());
+		} else if (e instanceof Rem) {
+			return arithmetic(Arithmetic.REM, ((Rem) e).getLeft(), ((Rem) e).getRight());
+		} else if (e instanceof SequenceCall) {
+			if (fScopes == null || fInAtomicBlock) {
+				throw new NotCompilableException();
+			}
+			DebugSeqProgram.SequenceCall call = new DebugSeqProgram.SequenceCall(((SequenceCall) e).getSeqname());
+			fCalls.add(call);
+			return call;
+		} else if (e instanceof Query) {
+			Query q = (Query) e;
+			return new DebugSeqProgram.Query(compileExpression(q.getType()), q.getMessage(), compileExpression(q.getDefault()));
+		} else if (e instanceof QueryValue) {
+			QueryValue q = (QueryValue) e;
+			return new DebugSeqProgram.Query(null, q.getMessage(), compileExpression(q.getDefault()));
+		} else if (e instanceof LoadDebugInfo) {
+			return new DebugSeqProgram.LoadDebugInfo(((LoadDebugInfo) e).getPath());
+		} else if (e instanceof Message) {
+			return compileMessage((Message) e);
+		} else if (e instanceof Read8) {
+			return command(IDsqCommand.DSQ_READ_8, ((Read8) e).getAddr());
+		} else if (e instanceof Read16) {
+			return command(IDsqCommand.DSQ_READ_16, ((Read16) e).getAddr());
+		} else if (e instanceof Read32) {
+			return command(IDsqCommand.DSQ_READ_32, ((Read32) e).getAddr());
+		} else if (e instanceof Read64) {
+			return command(IDsqCommand.DSQ_READ_64, ((Read64) e).getAddr());
+		} else if (e instanceof ReadAP) {
+			return command(IDsqCommand.DSQ_READ_AP, ((ReadAP) e).getAddr());
+		} else if (e instanceof ReadDP) {
+			return command(IDsqCommand.DSQ_READ_DP, ((ReadDP) e).getAddr());
+		} else if (e instanceof Write8) {
+			return command(IDsqCommand.DSQ_WRITE_8, ((Write8) e).getAddr(), ((Write8) e).getVal());
+		} else if (e instanceof Write16) {
+			return command(IDsqCommand.DSQ_WRITE_16, ((Write16) e).getAddr(), ((Write16) e).getVal());
+		} else if (e instanceof Write32) {
+			return command(IDsqCommand.DSQ_WRITE_32, ((Write32) e).getAddr(), ((Write32) e).getVal());
+		} else if (e instanceof Write64) {
+			return command(IDsqCommand.DSQ_WRITE_64, ((Write64) e).getAddr(), ((Write64) e).getVal());
+		} else if (e instanceof WriteAP) {
+			return command(IDsqCommand.DSQ_WRITE_AP, ((WriteAP) e).getAddr(), ((WriteAP) e).getVal());
+		} else if (e instanceof WriteDP) {
+			return command(IDsqCommand.DSQ_WRITE_DP, ((WriteDP) e).getAddr(), ((WriteDP) e).getVal());
+		} else if (e instanceof DapDelay) {
+			return command(IDsqCommand.DSQ_DAP_DELAY, ((DapDelay) e).getDelay());
+		} else if (e instanceof DapWriteABORT) {
+			return command(IDsqCommand.DSQ_DAP_WRITE_ABORT, ((DapWriteABORT) e).getValue());
+		} else if (e instanceof DapSwjPins) {
+			DapSwjPins p = (DapSwjPins) e;
+			return command(IDsqCommand.DSQ_DAP_SWJ_PINS, p.getPinout(), p.getPinselect(), p.getPinwait());
+		} else if (e instanceof DapSwjClock) {
+			return command(IDsqCommand.DSQ_DAP_SWJ_CLOCK, ((DapSwjClock) e).getValue());
+		} else if (e instanceof DapSwjSequence) {
+			return command(IDsqCommand.DSQ_DAP_SWJ_SEQUENCE, ((DapSwjSequence) e).getCnt(), ((DapSwjSequence) e).getVal());
+		} else if (e instanceof DapJtagSequence) {
+			DapJtagSequence j = (DapJtagSequence) e;
+			return command(IDsqCommand.DSQ_DAP_JTAG_SEQUENCE, j.getCnt(), j.getTms(), j.getTdi());
+		}
+		throw new NotCompilableException();
+	}
+
+	private Node compileAssignment(Assignment a) throws NotCompilableException {
+		if (!(a.getLeft() instanceof VariableRef)) {
+			throw new NotCompilableException();
+		}
+		int slot = resolveVariable((VariableRef) a.getLeft());
+		int op;
+		switch (a.getOp()) {
+		case "=": //$NON-NLS-1$
+			op = Assign.SET;
+			break;
+		case "+=": //$NON-NLS-1$
+			op = Assign.ADD;
+			break;
+		case "-=": //$NON-NLS-1$
+			op = Assign.SUB;
+			break;
+		case "*=": //$NON-NLS-1$
+			op = Assign.MUL;
+			break;
+		case "/=": //$NON-NLS-1$
+			op = Assign.DIV;
+			break;
+		case "%=": //$NON-NLS-1$
+			op = Assign.REM;
+			break;
+		case "&lt;&lt;=": //$NON-NLS-1$
+			op = Assign.SHL;
+			break;
+		case "&gt;&gt;=": //$NON-NLS-1$
+			op = Assign.SHR;
+			break;
+		case "&amp;=": //$NON-NLS-1$
+			op = Assign.AND;
+			break;
+		case "^=": //$NON-NLS-1$
+			op = Assign.XOR;
+			break;
+		case "|=": //$NON-NLS-1$
+			op = Assign.OR;
+			break;
+		default:
+			throw new NotCompilableException();
+		}
+		Node right = compileExpression(a.getRight());
+		return slot >= 0 ? new Assign(false, slot, op, right) : new Assign(true, -slot - 1, op, right);
+	}
+
+	private static int comparisonOp(String op) throws NotCompilableException {
+		switch (op) {
+		case "&lt;": //$NON-NLS-1$
+			return Arithmetic.LT;
+		case "&gt;": //$NON-NLS-1$
+			return Arithmetic.GT;
+		case "&lt;=": //$NON-NLS-1$
+			return Arithmetic.LE;
+		case "&gt;=": //$NON-NLS-1$
+			return Arithmetic.GE;
+		default:
+			throw new NotCompilableException();
+		}
+	}
+
+	private static int shiftOp(String op) throws NotCompilableException {
+		switch (op) {
+		case "&lt;&lt;": //$NON-NLS-1$
+			return Arithmetic.SHL;
+		case "&gt;&gt;": //$NON-NLS-1$
+			return Arithmetic.SHR;
+		default:
+			throw new NotCompilableException();
+		}
+	}
+
+	private Node arithmetic(int op, Expression left, Expression right) throws NotCompilableException {
+		return new Arithmetic(op, compileExpression(left), compileExpression(right));
+	}
+
+	private Node command(String name, Expression... arguments) throws NotCompilableException {
+		Node[] nodes = new Node[arguments.length];
+		for (int i = 0; i < arguments.length; i++) {
+			nodes[i] = compileExpression(arguments[i]);
+		}
+		return new Command(name, nodes);
+	}
+
+	private Node compileMessage(Message m) throws NotCompilableException {
+		List<Parameter> parameters = m.getParameters();
+		Node[] nodes = new Node[parameters.size()];
+		for (int i = 0; i < nodes.length; i++) {
+			Parameter p = parameters.get(i);
+			if (!(p instanceof Expression)) {
+				throw new NotCompilableException();
+			}
+			nodes[i] = compileExpression((Expression) p);
+		}
+		return new DebugSeqProgram.Message(compileExpression(m.getType()), m.getFormat(), nodes);
+	}
+}
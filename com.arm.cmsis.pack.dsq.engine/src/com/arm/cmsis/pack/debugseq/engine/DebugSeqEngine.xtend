@@ -73,7 +73,6 @@ import java.nio.file.Paths
 import com.arm.cmsis.pack.parser.PdscParser
 import java.util.List
 import org.eclipse.emf.ecore.EObject
-import com.arm.cmsis.pack.debugseq.DebugSeqStandaloneSetup
 import org.eclipse.xtext.resource.XtextResourceSet
 import org.eclipse.xtext.resource.XtextResource
 import org.eclipse.emf.common.util.URI
@@ -84,19 +83,14 @@ import org.eclipse.xtext.util.CancelIndicator
 import java.util.Collection
 import com.arm.cmsis.pack.dsq.IDsqCommand
 import com.arm.cmsis.pack.dsq.IDsqLogger
-import com.arm.cmsis.pack.dsq.DsqCommand
+import com.arm.cmsis.pack.dsq.DsqCommandBuffer
+import com.arm.cmsis.pack.dsq.PooledDsqCommand
 import com.arm.cmsis.pack.dsq.IDsqEngine
 import com.arm.cmsis.pack.data.ICpSequence
-import java.net.URL
-import java.io.BufferedReader
-import java.io.InputStreamReader
 import com.arm.cmsis.pack.dsq.DsqException
 import com.arm.cmsis.pack.dsq.IDsqContext
 import com.arm.cmsis.pack.dsq.IDsqSequence
 import com.arm.cmsis.pack.dsq.IDsqClient
-import com.arm.cmsis.pack.utils.Utils
-import org.eclipse.core.runtime.FileLocator
-import java.io.File
 import org.eclipse.emf.ecore.resource.Resource
 import com.google.inject.Provider
 import org.eclipse.xtext.validation.IResourceValidator
@@ -105,6 +99,8 @@ import com.arm.cmsis.pack.debugseq.generator.DsqScriptGeneratorFactory
 
 class DebugSeqEngine implements IDsqEngine {
 	
+	static val MAX_PIPELINED_COMMANDS = 256 // pipelined commands are sent when exceeded
+	
 	@Inject Provider<XtextResourceSet> resourceSetProvider
 	@Inject IResourceValidator validator;
 
@@ -119,11 +115,24 @@ class DebugSeqEngine implements IDsqEngine {
 	DebugSeqModel dsqModel
 	String debugVars
 	
+	DebugSeqProgram program
+	boolean programCompiled = false
+	boolean compiledExecution = true // the interpreter runs models the compiler does not handle
+	
 	boolean inAtomic = false
 	boolean collectingCommands = false
-	List<IDsqCommand> commands
+	val DsqCommandBuffer commands = new DsqCommandBuffer // commands collected in an atomic block
 	int commandIndex
 	
+	boolean pipelining = false
+	val DsqCommandBuffer pendingCommands = new DsqCommandBuffer // pipelined commands, sent with the next flush
+	val List<Statement> pendingStatements = newArrayList // statements of pipelined commands to log
+	val DsqCommandBuffer singleCommand = new DsqCommandBuffer // reused for each non-atomic command
+	
+	val long[] predefinedValues = newLongArrayOfSize(PooledDsqCommand.PREDEFINED_VARIABLES.length) // predefined variables by slot
+	int predefinedMask = 0 // bit per predefined variable found in the symbol table
+	boolean predefinedValid = false // false if the symbol table has changed since predefinedValues were read
+	
 	@Inject
 	protected new(IDsqClient dsqClient) { // constructor for testing
 		debugSeqClient = dsqClient
@@ -135,7 +144,7 @@ class DebugSeqEngine implements IDsqEngine {
 		logger = log
 		debugVars = ''
 		
-		new DebugSeqStandaloneSetup().createInjectorAndDoEMFRegistration().injectMembers(this)
+		DebugSeqModelCache.injector.injectMembers(this)
 	}
 	
 	override Collection<String> getDefaultSequenceNames() {
@@ -143,7 +152,7 @@ class DebugSeqEngine implements IDsqEngine {
 			dsqModel = parse
 		}
 		if (dsqModel !== null) {
-			dsqModel.sequences.sequences.map[name].filter[defaultSqs.contains(it)].toList
+			dsqModel.sequences.sequences.map[name].filter[DebugSeqModelCache.defaultSequenceNames.contains(it)].toList
 		} else {
 			newArrayList
 		}
@@ -164,18 +173,69 @@ class DebugSeqEngine implements IDsqEngine {
 		val seq = seqContext.sequence
 		
 		if (seq !== null) {
+			val prog = if (compiledExecution) compiledProgram else null
+			if (prog !== null && prog.hasSequence(seq)) {
+				prog.execute(seq, seqContext, debugSeqClient, logger, deviceInfo)
+				return
+			}
 			contexts.clear
+			pipelining = debugSeqClient.isPipeliningSupported
 			enterScope(false)
 			dsqModel.debugvars.interpret
 			// set the value of pre-defined variables
 			setPredefinedVariableValues(seqContext)
-			seq.interpret
+			try {
+				seq.interpret
+			} catch (Exception e) {
+				// without pipelining the commands before the failure would have been executed
+				try {
+					flush
+				} catch (DsqException flushError) {
+					e.addSuppressed(flushError)
+				}
+				throw e
+			}
+			flush
 			exitScope
 		} else if (!seqContext.sequenceName.isEmptyDefaultSequence) {
 			throw new DsqException("Sequence named '" + seqContext.sequenceName + "' is undefined")
 		}
 	}
 	
+	/**
+	 * Selects execution backend
+	 * @param compiled true to execute the compiled form of the model if it can be compiled (default), false to interpret the model
+	 */
+	def void setCompiledExecution(boolean compiled) {
+		compiledExecution = compiled
+	}
+	
+	/**
+	 * Checks if the sequence is executed by the compiled program
+	 * @param seqContext sequence to execute with predefined variable values
+	 * @return true if the sequence is compiled, false if it is interpreted
+	 */
+	def boolean isCompiled(IDsqSequence seqContext) throws DsqException {
+		val seq = seqContext.sequence
+		if (seq === null || !compiledExecution) {
+			return false
+		}
+		val prog = compiledProgram
+		prog !== null && prog.hasSequence(seq)
+	}
+	
+	/**
+	 * Compiles the parsed model on first use
+	 * @return DebugSeqProgram or null if the model can only be interpreted
+	 */
+	def private DebugSeqProgram getCompiledProgram() {
+		if (!programCompiled) {
+			programCompiled = true
+			program = DebugSeqModelCache.getProgram(dsqModel)
+		}
+		program
+	}
+	
 	override String generateCode(String generatorID, String header) throws DsqException {
 		if (generator === null) {
 			generator = DsqScriptGeneratorFactory.instance.getExtender(generatorID)
@@ -231,7 +291,7 @@ class DebugSeqEngine implements IDsqEngine {
 		if (dv !== null) {
 			val text = dv.text
 			if (dv.dgbConfFileName !== null && !dv.dgbConfFileName.empty) {
-				sb.append(readFile(Paths.get(dv.dgbConfFileName).toUri().toURL()))
+				sb.append(DebugSeqModelCache.readFile(Paths.get(dv.dgbConfFileName).toUri().toURL()))
 			}
 			dv.text = sb.toString
 			val xmlParser = new PdscParser
@@ -287,15 +347,24 @@ class DebugSeqEngine implements IDsqEngine {
 			contexts.peek.put(IDsqContext::TRACEOUT, tc)
 		if (ec !== null)
 			contexts.peek.put(IDsqContext::ERRORCONTROL, ec)
+		predefinedValid = false
 	}
 	
 	/**
-	 * Parses all sequences provided by device
+	 * Parses all sequences provided by device, reuses the model cached for the same device and debugvars
 	 * @return The root node of the parsed model
 	 */
 	def private DebugSeqModel parse() throws DsqException {
+		initDebugVariables
+		val key = DebugSeqModelCache.getKey(deviceInfo, debugVars)
+		val cachedModel = DebugSeqModelCache.getModel(key)
+		if (cachedModel !== null) {
+			return cachedModel
+		}
 		// get the root node
-		return getResource().getContents().get(0) as DebugSeqModel;
+		val model = getResource().getContents().get(0) as DebugSeqModel
+		DebugSeqModelCache.putModel(key, model)
+		return model
 	}
 	
 	def private Resource getResource() {
@@ -303,7 +372,6 @@ class DebugSeqEngine implements IDsqEngine {
 			return resource
 		}
 		
-		initDebugVariables
 		val xmlParser = new PdscParser
 		val sequences = deviceInfo.debugConfiguration.sequences.values.map[xmlParser.writeToXmlString(it)].join('\n').postProcess
 		val modelString = '''
@@ -342,34 +410,14 @@ class DebugSeqEngine implements IDsqEngine {
     	return resource
 	}
 	
-	def private String readFile(URL url) {
-		var result = ""
-		val inputStream = url.openConnection().getInputStream()
-	    val in = new BufferedReader(new InputStreamReader(inputStream))
-	    var inputLine = ""
-	 
-	    while ((inputLine = in.readLine()) !== null) {
-	        result += inputLine + '\n'
-	    }
-
-	    in.close();
-	    result
-	}
-	
-	def private Collection<String> getDefaultSqs() {
-		val url = FileLocator.toFileURL(new URL("platform:/plugin/com.arm.cmsis.pack.dsq.engine/default_sequences"))
-		val defaultSeqsFolder = new File(url.file)
-		defaultSeqsFolder.list.map[Utils.extractBaseFileName(it)]
-	}
-	
 	def private addDefaultSeqs(Map<String, ICpSequence> sequences) {
-		var seqs = ""
-		for (defaultSeqName : defaultSqs) {
+		val seqs = new StringBuilder
+		for (defaultSeqName : DebugSeqModelCache.defaultSequenceNames) {
 			if (!sequences.containsKey(defaultSeqName)) {
-				seqs += readFile(new URL("platform:/plugin/com.arm.cmsis.pack.dsq.engine/default_sequences/" + defaultSeqName + ".dsq"))
+				seqs.append(DebugSeqModelCache.getDefaultSequence(defaultSeqName))
 			}
 		}
-		return seqs
+		return seqs.toString
 	}
 	
 	def dispatch Long interpret(Void obj) throws DsqException {
@@ -383,34 +431,34 @@ class DebugSeqEngine implements IDsqEngine {
 	
 	def dispatch Long interpret(Sequence seq) throws DsqException {
 		if (logger !== null) 
-			logger.logSeqStart(seq.name)
+			flushedLogger.logSeqStart(seq.name)
 		enterScope(true)
 		if (seq.codeblocks !== null)
 			seq.codeblocks.forEach[interpret]
 		exitScope
 		if (logger !== null)
-			logger.logSeqEnd(seq.name)
+			flushedLogger.logSeqEnd(seq.name)
 		0L
 	}
 	
 	// a block returns the value of the last statement
 	def dispatch Long interpret(Block block) throws DsqException {
 		if (logger !== null)
-			logger.logBlockStart(block.atomic !== 0, block.info)
+			flushedLogger.logBlockStart(block.atomic !== 0, block.info)
 		
 		// if the block is atomic, we need to backup the symbol table
 		val tempContexts = new Stack<Map<String, Long>>
 		if (block.atomic !== 0) {
+			flush // pipelined commands precede the atomic block
 			inAtomic = true
 			collectingCommands = true
-			commands = newArrayList
+			commands.clear
 			// backup the symbol table
 			contexts.forEach[tempContexts.push(new HashMap<String, Long>(it))]
 		}
 		
 		block.statements.interpretUntilLast
-		var result = block.statements.last.interpret
-		logger.log(block.statements.last, result.toLong)
+		var result = block.statements.last.interpretStatement
 		
 		if (inAtomic) {
 			// Execute the Debug Access Commands
@@ -418,18 +466,18 @@ class DebugSeqEngine implements IDsqEngine {
 			
 			// restore the symbol table
 			contexts = tempContexts
+			predefinedValid = false
 			
 			// Get all the results
 			collectingCommands = false
 			commandIndex = 0
 			block.statements.interpretUntilLast
-			result = block.statements.last.interpret
-			logger.log(block.statements.last, result.toLong)
+			result = block.statements.last.interpretStatement
 			inAtomic = false
 			commands.clear
 		}
 		if (logger !== null)
-			logger.logBlockEnd()
+			flushedLogger.logBlockEnd()
 		result.toLong
 	}
 	
@@ -437,7 +485,7 @@ class DebugSeqEngine implements IDsqEngine {
 	def dispatch Long interpret(Control control) throws DsqException {
 		var result = 0L
 		if (logger !== null)
-			logger.logContorlStart(control.info)
+			flushedLogger.logContorlStart(control.info)
 		enterScope(false)
 		if (control.^if === null || logger.logIf(control.^if, control.^if.interpret.toLong) !== 0) {
 			if (control.^while === null) {
@@ -453,17 +501,27 @@ class DebugSeqEngine implements IDsqEngine {
 				while (logger.logWhile(control.^while, control.^while.interpret.toLong) !== 0 && runningTime < timeout) {
 					control.codeblocks.interpretUntilLast
 					result = control.codeblocks.last.interpret.toLong
+					flush // pipelined commands count to the loop time
 					runningTime = (System.nanoTime - startTime) / 1000
 				}
 			}
 		}
 		exitScope
 		if (logger !== null)
-			logger.logControlEnd()
+			flushedLogger.logControlEnd()
 		result
 	}
 	
 	def dispatch Object interpret(Expression e) throws DsqException {
+		val cmdName = e.debugAccessName
+		if (cmdName !== null) {
+			// arguments are evaluated into locals before the command is created, their evaluation can execute commands
+			val count = e.debugAccessArgumentCount
+			val arg0 = if (count > 0) e.getDebugAccessArgument(0).interpret.toLong else 0L
+			val arg1 = if (count > 1) e.getDebugAccessArgument(1).interpret.toLong else 0L
+			val arg2 = if (count > 2) e.getDebugAccessArgument(2).interpret.toLong else 0L
+			return executeCommand(cmdName, null, count, arg0, arg1, arg2)
+		}
 		switch (e) {
 			IntConstant: e.value
 			StringConstant: e.value
@@ -498,7 +556,7 @@ class DebugSeqEngine implements IDsqEngine {
 				}
 			}
 			Ternary: {
-				if (e.left.interpret !== 0)
+				if (e.left.interpret.toLong != 0)
 					e.exp1.interpret
 				else
 					e.exp2.interpret
@@ -550,71 +608,211 @@ class DebugSeqEngine implements IDsqEngine {
 					throw new DsqException("Sequence with name '" + e.seqname + "' is undefined")
 				}
 			}
-			Query: debugSeqClient.query(e.type.interpret.toLong, e.message, e.^default.interpret.toLong)
-			QueryValue: debugSeqClient.query(IDsqClient.QUERY_VALUE_TYPE, e.message, e.^default.interpret.toLong)
-			LoadDebugInfo: executeCommand(IDsqCommand.DSQ_LOAD_DEBUG_INFO, #[], #[deviceInfo.getAbsolutePath(e.path)])
+			Query: {
+				flush
+				debugSeqClient.query(e.type.interpret.toLong, e.message, e.^default.interpret.toLong)
+			}
+			QueryValue: {
+				flush
+				debugSeqClient.query(IDsqClient.QUERY_VALUE_TYPE, e.message, e.^default.interpret.toLong)
+			}
+			LoadDebugInfo: executeCommand(IDsqCommand.DSQ_LOAD_DEBUG_INFO, #[deviceInfo.getAbsolutePath(e.path)], 0, 0L, 0L, 0L)
 			Message: {
 				val parameters = e.parameters.map[interpret]
 				val message = e.format.formatWithValues(parameters)
-				executeCommand(IDsqCommand.DSQ_MESSAGE, #[e.type.interpret.toLong], #[message])
+				executeCommand(IDsqCommand.DSQ_MESSAGE, #[message], 1, e.type.interpret.toLong, 0L, 0L)
+			}
+		}
+	}
+	
+	/**
+	 * Returns command name of a debug access function
+	 * @return command name or null if the expression is not a debug access
+	 */
+	def private String getDebugAccessName(Expression e) {
+		switch (e) {
+			Read8: IDsqCommand.DSQ_READ_8
+			Read16: IDsqCommand.DSQ_READ_16
+			Read32: IDsqCommand.DSQ_READ_32
+			Read64: IDsqCommand.DSQ_READ_64
+			ReadAP: IDsqCommand.DSQ_READ_AP
+			ReadDP: IDsqCommand.DSQ_READ_DP
+			Write8: IDsqCommand.DSQ_WRITE_8
+			Write16: IDsqCommand.DSQ_WRITE_16
+			Write32: IDsqCommand.DSQ_WRITE_32
+			Write64: IDsqCommand.DSQ_WRITE_64
+			WriteAP: IDsqCommand.DSQ_WRITE_AP
+			WriteDP: IDsqCommand.DSQ_WRITE_DP
+			DapDelay: IDsqCommand.DSQ_DAP_DELAY
+			DapWriteABORT: IDsqCommand.DSQ_DAP_WRITE_ABORT
+			DapSwjPins: IDsqCommand.DSQ_DAP_SWJ_PINS
+			DapSwjClock: IDsqCommand.DSQ_DAP_SWJ_CLOCK
+			DapSwjSequence: IDsqCommand.DSQ_DAP_SWJ_SEQUENCE
+			DapJtagSequence: IDsqCommand.DSQ_DAP_JTAG_SEQUENCE
+			default: null
+		}
+	}
+	
+	/**
+	 * Returns number of numeric arguments of a debug access function
+	 */
+	def private int getDebugAccessArgumentCount(Expression e) {
+		switch (e) {
+			Write8: 2
+			Write16: 2
+			Write32: 2
+			Write64: 2
+			WriteAP: 2
+			WriteDP: 2
+			DapSwjSequence: 2
+			DapSwjPins: 3
+			DapJtagSequence: 3
+			default: 1
+		}
+	}
+	
+	/**
+	 * Returns argument expression of a debug access function
+	 * @param index argument index, less than {@link #getDebugAccessArgumentCount(Expression)}
+	 */
+	def private Expression getDebugAccessArgument(Expression e, int index) {
+		switch (e) {
+			Read8: e.addr
+			Read16: e.addr
+			Read32: e.addr
+			Read64: e.addr
+			ReadAP: e.addr
+			ReadDP: e.addr
+			Write8: if (index == 0) e.addr else e.^val
+			Write16: if (index == 0) e.addr else e.^val
+			Write32: if (index == 0) e.addr else e.^val
+			Write64: if (index == 0) e.addr else e.^val
+			WriteAP: if (index == 0) e.addr else e.^val
+			WriteDP: if (index == 0) e.addr else e.^val
+			DapDelay: e.delay
+			DapWriteABORT: e.value
+			DapSwjPins: if (index == 0) e.pinout else if (index == 1) e.pinselect else e.pinwait
+			DapSwjClock: e.value
+			DapSwjSequence: if (index == 0) e.cnt else e.^val
+			DapJtagSequence: if (index == 0) e.cnt else if (index == 1) e.tms else e.tdi
+			default: null
+		}
+	}
+	
+	/**
+	 * Interprets and logs a statement. Outside atomic blocks a debug access statement is pipelined
+	 * if the client supports it: its result is not used, the command is sent with the next flush.
+	 * @return statement result, 0 if the statement is pipelined
+	 */
+	def private Object interpretStatement(Statement stmt) throws DsqException {
+		if (pipelining && !inAtomic && stmt instanceof Expression && (stmt as Expression).debugAccessName !== null) {
+			pipeline(stmt as Expression)
+			return 0L
+		}
+		val result = stmt.interpret
+		logger.log(stmt, result.toLong)
+		result
+	}
+	
+	def private void pipeline(Expression e) throws DsqException {
+		// argument evaluation can flush
+		val count = e.debugAccessArgumentCount
+		val arg0 = if (count > 0) e.getDebugAccessArgument(0).interpret.toLong else 0L
+		val arg1 = if (count > 1) e.getDebugAccessArgument(1).interpret.toLong else 0L
+		val arg2 = if (count > 2) e.getDebugAccessArgument(2).interpret.toLong else 0L
+		pendingCommands.addCommand(e.debugAccessName, null, count, arg0, arg1, arg2)
+		pendingStatements.add(e)
+		if (pendingCommands.size >= MAX_PIPELINED_COMMANDS) {
+			flush
+		}
+	}
+	
+	/**
+	 * Sends pipelined commands in one call and logs their statements.
+	 * If the client fails, the statements of the completed commands and of the failed one are logged before rethrowing.
+	 */
+	def private void flush() throws DsqException {
+		if (pendingCommands.empty) {
+			return
+		}
+		try {
+			debugSeqClient.execute(pendingCommands, false)
+			logPending(pendingCommands.size)
+		} catch (DsqException e) {
+			// the client stops at the first failing command and marks it with an error code
+			var failed = 0
+			while (failed < pendingCommands.size && pendingCommands.get(failed).error == 0) {
+				failed++
 			}
-			Read8: executeCommand(IDsqCommand.DSQ_READ_8, #[e.addr.interpret.toLong])
-			Read16: executeCommand(IDsqCommand.DSQ_READ_16, #[e.addr.interpret.toLong])
-			Read32: executeCommand(IDsqCommand.DSQ_READ_32, #[e.addr.interpret.toLong])
-			Read64: executeCommand(IDsqCommand.DSQ_READ_64, #[e.addr.interpret.toLong])
-			ReadAP: executeCommand(IDsqCommand.DSQ_READ_AP, #[e.addr.interpret.toLong])
-			ReadDP: executeCommand(IDsqCommand.DSQ_READ_DP, #[e.addr.interpret.toLong])
-			Write8: executeCommand(IDsqCommand.DSQ_WRITE_8, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			Write16: executeCommand(IDsqCommand.DSQ_WRITE_16, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			Write32: executeCommand(IDsqCommand.DSQ_WRITE_32, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			Write64: executeCommand(IDsqCommand.DSQ_WRITE_64, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			WriteAP: executeCommand(IDsqCommand.DSQ_WRITE_AP, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			WriteDP: executeCommand(IDsqCommand.DSQ_WRITE_DP, #[e.addr.interpret.toLong, e.^val.interpret.toLong])
-			DapDelay: executeCommand(IDsqCommand.DSQ_DAP_DELAY, #[e.delay.interpret.toLong])
-			DapWriteABORT: executeCommand(IDsqCommand.DSQ_DAP_WRITE_ABORT, #[e.value.interpret.toLong])
-			DapSwjPins: executeCommand(IDsqCommand.DSQ_DAP_SWJ_PINS, #[e.pinout.interpret.toLong, e.pinselect.interpret.toLong, e.pinwait.interpret.toLong])
-			DapSwjClock: executeCommand(IDsqCommand.DSQ_DAP_SWJ_CLOCK, #[e.value.interpret.toLong])
-			DapSwjSequence: executeCommand(IDsqCommand.DSQ_DAP_SWJ_SEQUENCE, #[e.cnt.interpret.toLong, e.^val.interpret.toLong])
-			DapJtagSequence: executeCommand(IDsqCommand.DSQ_DAP_JTAG_SEQUENCE, #[e.cnt.interpret.toLong, e.tms.interpret.toLong, e.tdi.interpret.toLong])
-		}
-	}
-	
-	def private long executeCommand(String cmdName, List<Long> params) throws DsqException {
-		executeCommand(cmdName, params, null)
-	}
-	
-	def private long executeCommand(String cmdName, List<Long> params, List<String> strings) throws DsqException {
+			if (failed < pendingCommands.size) {
+				logPending(failed + 1)
+			}
+			throw e
+		} finally {
+			pendingCommands.clear
+			pendingStatements.clear
+		}
+	}
+	
+	def private void logPending(int count) {
+		if (logger === null) {
+			return
+		}
+		for (i : 0 ..< count) {
+			val command = pendingCommands.get(i)
+			logger.logStatement(pendingStatements.get(i).node.tokenText, command.output, command.error)
+		}
+	}
+	
+	/**
+	 * Returns logger after sending pipelined commands, so that log calls stay in execution order
+	 */
+	def private IDsqLogger getFlushedLogger() throws DsqException {
+		flush
+		logger
+	}
+	
+	def private long executeCommand(String cmdName, List<String> strings, int argCount, long arg0, long arg1, long arg2) throws DsqException {
 		if (!inAtomic) {
-			val command = createCommand(cmdName, params, strings)
-			debugSeqClient.execute(#[command], false)
+			flush
+			singleCommand.clear
+			val command = singleCommand.addCommand(cmdName, strings, argCount, arg0, arg1, arg2)
+			debugSeqClient.execute(singleCommand, false)
 			command.output
 		} else if (!collectingCommands) { // all the results are returned
-			val command = findCommand(cmdName, params)
-			command.output
+			commands.get(commandIndex++).output // all the commands are added in order
 		} else { // collecting commands to be sent
-			addCommand(cmdName, params, strings)
+			commands.addCommand(cmdName, strings, argCount, arg0, arg1, arg2)
 			0L
 		}
 	}
 	
-	def private void addCommand(String cmdName, List<Long> params, List<String> strings) {
-		val command = createCommand(cmdName, params, strings)
-		commands.add(command)
-	}
-	
-	def private IDsqCommand findCommand(String cmdName, List<Long> params) {
-		commands.get(commandIndex++) // all the commands are added in order
-	}
-	
-	def private IDsqCommand createCommand(String cmdName, List<Long> params, List<String> strings) {
-		val predefinedVars = newHashMap
-		predefinedVars.put(IDsqContext::AP, IDsqContext::AP.context?.get(IDsqContext::AP))
-		predefinedVars.put(IDsqContext::DP, IDsqContext::DP.context?.get(IDsqContext::DP))
-		predefinedVars.put(IDsqContext::PROTOCOL, IDsqContext::PROTOCOL.context?.get(IDsqContext::PROTOCOL))
-		predefinedVars.put(IDsqContext::CONNECTION, IDsqContext::CONNECTION.context?.get(IDsqContext::CONNECTION))
-		predefinedVars.put(IDsqContext::TRACEOUT, IDsqContext::TRACEOUT.context?.get(IDsqContext::TRACEOUT))
-		predefinedVars.put(IDsqContext::ERRORCONTROL, IDsqContext::ERRORCONTROL.context?.get(IDsqContext::ERRORCONTROL))
-		new DsqCommand(cmdName, params, strings, predefinedVars)
+	/**
+	 * Appends command with up to three arguments and the current values of predefined variables to the buffer
+	 */
+	def private PooledDsqCommand addCommand(DsqCommandBuffer buffer, String cmdName, List<String> strings, int argCount, long arg0, long arg1, long arg2) {
+		val command = buffer.add(cmdName, strings)
+		if (argCount > 0)
+			command.addArgument(arg0)
+		if (argCount > 1)
+			command.addArgument(arg1)
+		if (argCount > 2)
+			command.addArgument(arg2)
+		if (!predefinedValid) {
+			// read predefined variables only after the symbol table has changed, not for each command
+			predefinedMask = 0
+			for (i : 0 ..< PooledDsqCommand.PREDEFINED_VARIABLES.length) {
+				val name = PooledDsqCommand.PREDEFINED_VARIABLES.get(i)
+				val value = name.context?.get(name)
+				if (value !== null) {
+					predefinedValues.set(i, value)
+					predefinedMask = predefinedMask.bitwiseOr(1 << i)
+				}
+			}
+			predefinedValid = true
+		}
+		command.setPredefinedVariables(predefinedValues, predefinedMask)
+		command
 	}
 	
 	def dispatch Long interpret(VariableDeclaration vardecl) throws DsqException {
@@ -623,6 +821,8 @@ class DebugSeqEngine implements IDsqEngine {
 		}
 		val value = vardecl.value.interpret.toLong
 		contexts.peek.put(vardecl.name, value)
+		if (vardecl.name.isPredefinedVariable)
+			predefinedValid = false
 		value
 	}
 	
@@ -632,6 +832,8 @@ class DebugSeqEngine implements IDsqEngine {
 	
 	def private long updateValue(String variableName, long newValue) {
 		variableName.context.put(variableName, newValue)
+		if (variableName.isPredefinedVariable)
+			predefinedValid = false
 		newValue
 	}
 	
@@ -639,14 +841,16 @@ class DebugSeqEngine implements IDsqEngine {
 		if (l.size == 0)
 			return 0L
 		l.subList(0, l.size-1).forEach[
-			val result = interpret
 			if (it instanceof Statement) {
-				logger.log(it, result.toLong)
+				interpretStatement
+			} else {
+				interpret
 			}
 		]
 	}
 	
 	def private void enterScope(boolean store) {
+		predefinedValid = false
 		if (contexts.isEmpty && store) {
 			throw new DsqException("The symbol table is empty")
 		}
@@ -664,6 +868,7 @@ class DebugSeqEngine implements IDsqEngine {
 	}
 	
 	def private void exitScope() {
+		predefinedValid = false
 		contexts.pop
 	}
 	
@@ -671,6 +876,7 @@ class DebugSeqEngine implements IDsqEngine {
 		if (logger === null || collectingCommands) {
 			result
 		} else {
+			flush
 			logger.logStatement(stmt.node.tokenText, result, 0)
 			result
 		}
@@ -680,6 +886,7 @@ class DebugSeqEngine implements IDsqEngine {
 		if (logger === null || collectingCommands) {
 			result
 		} else {
+			flush
 			logger.logIfStatement(stmt.node.tokenText, result, 0)
 			result
 		}
@@ -689,6 +896,7 @@ class DebugSeqEngine implements IDsqEngine {
 		if (logger === null || collectingCommands) {
 			result
 		} else {
+			flush
 			logger.logWhileStatement(stmt.node.tokenText, result, 0)
 			result
 		}
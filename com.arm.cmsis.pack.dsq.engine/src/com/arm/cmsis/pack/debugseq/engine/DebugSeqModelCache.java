@@ -0,0 +1,245 @@
+/*******************************************************************************
+* Copyright (c) 2016 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.debugseq.engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import com.arm.cmsis.pack.CpPlugIn;
+import com.arm.cmsis.pack.data.ICpPack;
+import com.arm.cmsis.pack.debugseq.DebugSeqStandaloneSetup;
+import com.arm.cmsis.pack.debugseq.debugSeq.DebugSeqModel;
+import com.arm.cmsis.pack.events.IRteEventListener;
+import com.arm.cmsis.pack.events.RteEvent;
+import com.arm.cmsis.pack.info.ICpDeviceInfo;
+import com.arm.cmsis.pack.utils.Utils;
+import com.google.inject.Injector;
+
+/**
+ * Process-wide cache of the debug sequence language injector, default sequences and validated models.
+ * <p>
+ * Models are keyed by pack id, pack file time stamp, device, processor and the debugvars text,
+ * so that engines created for the same device share one parsed and validated model and its compiled program.
+ * Cached models are only read, they must not be modified. The cache is cleared when packs are reloaded, updated, modified or removed.
+ * </p>
+ */
+public class DebugSeqModelCache {
+
+	public static final int MAX_CACHED_MODELS = 16; // least recently used models are dropped when exceeded
+
+	private static final String DEFAULT_SEQUENCES_URL = "platform:/plugin/com.arm.cmsis.pack.dsq.engine/default_sequences"; //$NON-NLS-1$
+	private static final String DSQ_EXT = ".dsq"; //$NON-NLS-1$
+
+	private static Injector injector = null;
+	private static Map<String, String> defaultSequences = null; // sequence name -> text
+	private static IRteEventListener packListener = null; // clears cached models on pack changes
+
+	private static final Map<String, CachedModel> models = new LinkedHashMap<String, CachedModel>(MAX_CACHED_MODELS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, CachedModel> eldest) {
+			return size() > MAX_CACHED_MODELS;
+		}
+	};
+
+	/**
+	 * Validated model and its compiled program
+	 */
+	private static class CachedModel {
+		final DebugSeqModel model;
+		DebugSeqProgram program = null;
+		boolean compiled = false;
+
+		CachedModel(DebugSeqModel model) {
+			this.model = model;
+		}
+	}
+
+	private DebugSeqModelCache() {
+	}
+
+	/**
+	 * Returns the injector of the debug sequence language, creates it and registers EMF packages on first call
+	 * @return Injector
+	 */
+	public static synchronized Injector getInjector() {
+		if (injector == null) {
+			injector = new DebugSeqStandaloneSetup().createInjectorAndDoEMFRegistration();
+		}
+		return injector;
+	}
+
+	/**
+	 * Returns cache key for the device
+	 * @param deviceInfo ICpDeviceInfo
+	 * @param debugVars debugvars text used to build the model
+	 * @return cache key string
+	 */
+	public static String getKey(ICpDeviceInfo deviceInfo, String debugVars) {
+		StringBuilder key = new StringBuilder();
+		ICpPack pack = deviceInfo.getPack();
+		if (pack != null) {
+			key.append(pack.getId()).append('\n');
+			String fileName = pack.getFileName();
+			if (fileName != null) {
+				key.append(new File(fileName).lastModified());
+			}
+		}
+		key.append('\n').append(deviceInfo.getDeviceName());
+		key.append('\n').append(deviceInfo.getProcessorName());
+		key.append('\n').append(debugVars);
+		return key.toString();
+	}
+
+	/**
+	 * Returns cached model
+	 * @param key cache key, see {@link #getKey(ICpDeviceInfo, String)}
+	 * @return DebugSeqModel or null if not cached
+	 */
+	public static synchronized DebugSeqModel getModel(String key) {
+		CachedModel cached = models.get(key);
+		return cached != null ? cached.model : null;
+	}
+
+	/**
+	 * Caches validated model
+	 * @param key cache key, see {@link #getKey(ICpDeviceInfo, String)}
+	 * @param model validated DebugSeqModel
+	 */
+	public static synchronized void putModel(String key, DebugSeqModel model) {
+		if (packListener == null && CpPlugIn.getDefault() != null) {
+			packListener = event -> {
+				switch (event.getTopic()) {
+				case RteEvent.PACKS_RELOADED:
+				case RteEvent.PACKS_UPDATED:
+				case RteEvent.PACK_REMOVED:
+				case RteEvent.PACK_MODIFIED:
+					clear();
+					break;
+				default:
+				}
+			};
+			CpPlugIn.addRteListener(packListener);
+		}
+		models.put(key, new CachedModel(model));
+	}
+
+	/**
+	 * Returns compiled program for the model, compiles it on first call
+	 * @param model validated DebugSeqModel
+	 * @return DebugSeqProgram or null if the model can only be interpreted
+	 */
+	public static synchronized DebugSeqProgram getProgram(DebugSeqModel model) {
+		for (CachedModel cached : models.values()) {
+			if (cached.model == model) {
+				if (!cached.compiled) {
+					cached.compiled = true;
+					cached.program = DebugSeqCompiler.compile(model);
+				}
+				return cached.program;
+			}
+		}
+		return DebugSeqCompiler.compile(model); // not cached
+	}
+
+	/**
+	 * Removes all cached models, for example after packs are reloaded
+	 */
+	public static synchronized void clear() {
+		models.clear();
+	}
+
+	/**
+	 * Returns names of default sequences shipped with the engine
+	 * @return collection of sequence names
+	 */
+	public static Collection<String> getDefaultSequenceNames() {
+		return getDefaultSequences().keySet();
+	}
+
+	/**
+	 * Returns text of a default sequence
+	 * @param name sequence name
+	 * @return sequence text or null if there is no such default sequence
+	 */
+	public static String getDefaultSequence(String name) {
+		return getDefaultSequences().get(name);
+	}
+
+	private static synchronized Map<String, String> getDefaultSequences() {
+		if (defaultSequences != null) {
+			return defaultSequences;
+		}
+		Map<String, String> sequences = new LinkedHashMap<>();
+		try {
+			URL url = FileLocator.toFileURL(new URL(DEFAULT_SEQUENCES_URL));
+			String[] files = new File(url.getFile()).list();
+			if (files != null) {
+				for (String file : files) {
+					String name = Utils.extractBaseFileName(file);
+					sequences.put(name, readFile(new URL(DEFAULT_SEQUENCES_URL + '/' + name + DSQ_EXT)));
+				}
+			}
+		} catch (IOException e) {
+			logError("Cannot load default debug sequences", e); //$NON-NLS-1$
+			return Collections.emptyMap(); // not cached, the next call tries again
+		}
+		defaultSequences = Collections.unmodifiableMap(sequences);
+		return defaultSequences;
+	}
+
+	/**
+	 * Reports an error to the plug-in log
+	 * @param message error message
+	 * @param e exception causing the error
+	 */
+	private static void logError(String message, Throwable e) {
+		Bundle bundle = FrameworkUtil.getBundle(DebugSeqModelCache.class);
+		if (bundle == null) {
+			return; // not running in OSGi: no log to report to
+		}
+		Platform.getLog(bundle).log(new Status(IStatus.ERROR, bundle.getSymbolicName(), message, e));
+	}
+
+	/**
+	 * Reads file content
+	 * @param url file URL
+	 * @return file content with '\n' line delimiters
+	 * @throws IOException
+	 */
+	public static String readFile(URL url) throws IOException {
+		StringBuilder result = new StringBuilder();
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(url.openConnection().getInputStream()))) {
+			String inputLine;
+			while ((inputLine = in.readLine()) != null) {
+				result.append(inputLine).append('\n');
+			}
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,978 @@
+/*******************************************************************************
+* Copyright (c) 2016 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.debugseq.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+
+import com.arm.cmsis.pack.debugseq.debugSeq.Sequence;
+import com.arm.cmsis.pack.debugseq.debugSeq.Statement;
+import com.arm.cmsis.pack.debugseq.util.DebugSeqUtil;
+import com.arm.cmsis.pack.dsq.DsqCommandBuffer;
+import com.arm.cmsis.pack.dsq.DsqException;
+import com.arm.cmsis.pack.dsq.IDsqClient;
+import com.arm.cmsis.pack.dsq.IDsqCommand;
+import com.arm.cmsis.pack.dsq.IDsqContext;
+import com.arm.cmsis.pack.dsq.IDsqLogger;
+import com.arm.cmsis.pack.dsq.PooledDsqCommand;
+import com.arm.cmsis.pack.info.ICpDeviceInfo;
+
+/**
+ * Compiled form of a validated debug sequence model, created by {@link DebugSeqCompiler}.
+ * <p>
+ * Variables are resolved to slots at compile time: debugvars variables to global slots, sequence variables
+ * and the sequence copies of __ap, __dp and __errorcontrol to slots of a frame allocated per sequence call.
+ * Expressions are evaluated as primitive long values, object values are only produced where the interpreter
+ * can see a string or null: equality comparisons and message parameters.
+ * </p>
+ * Execution follows {@link DebugSeqEngine} interpretation: the same commands, queries and log calls in the same order,
+ * atomic blocks are evaluated twice - to collect the commands and to distribute their results.
+ * <p>
+ * If the client supports pipelining, commands used as statements outside atomic blocks (typically writes) are buffered
+ * and sent together in one {@link IDsqClient#execute(List, boolean)} call as soon as a result, a query or a log call needs them.
+ * </p>
+ */
+public class DebugSeqProgram {
+
+	static final int AP_SLOT = 0;
+	static final int DP_SLOT = 1;
+	static final int ERRORCONTROL_SLOT = 2;
+	static final int FRAME_PREDEFINED_COUNT = 3; // first frame slot available for sequence variables
+	static final int MAX_PIPELINED_COMMANDS = 256; // pipelined commands are sent when exceeded
+
+	static final String[] PREDEFINED = { IDsqContext.AP, IDsqContext.DP, IDsqContext.PROTOCOL,
+			IDsqContext.CONNECTION, IDsqContext.TRACEOUT, IDsqContext.ERRORCONTROL };
+
+	final int fGlobalCount;
+	final int[] fPredefinedSlots;	// global slots of PREDEFINED variables
+	final StatementNode[] fDebugVars;
+	final Map<Sequence, SequenceNode> fSequences;
+
+	DebugSeqProgram(int globalCount, int[] predefinedSlots, StatementNode[] debugVars, Map<Sequence, SequenceNode> sequences) {
+		fGlobalCount = globalCount;
+		fPredefinedSlots = predefinedSlots;
+		fDebugVars = debugVars;
+		fSequences = sequences;
+	}
+
+	/**
+	 * Checks if the program contains compiled form of the sequence
+	 * @param seq Sequence from the model the program is compiled from
+	 * @return true if the sequence can be executed by this program
+	 */
+	public boolean hasSequence(Sequence seq) {
+		return fSequences.containsKey(seq);
+	}
+
+	/**
+	 * Executes debugvars, sets predefined variable values and executes the sequence
+	 * @param seq Sequence to execute, must belong to the compiled model
+	 * @param dsqContext context providing predefined variable values
+	 * @param client IDsqClient to execute commands
+	 * @param logger IDsqLogger, can be null
+	 * @param deviceInfo ICpDeviceInfo to resolve debug info paths
+	 * @throws DsqException
+	 */
+	public void execute(Sequence seq, IDsqContext dsqContext, IDsqClient client, IDsqLogger logger, ICpDeviceInfo deviceInfo) throws DsqException {
+		execute(seq, dsqContext, client, logger, deviceInfo, client.isPipeliningSupported());
+	}
+
+	/**
+	 * Executes debugvars, sets predefined variable values and executes the sequence
+	 * @param seq Sequence to execute, must belong to the compiled model
+	 * @param dsqContext context providing predefined variable values
+	 * @param client IDsqClient to execute commands
+	 * @param logger IDsqLogger, can be null
+	 * @param deviceInfo ICpDeviceInfo to resolve debug info paths
+	 * @param pipelining true to buffer commands whose results are not needed immediately
+	 * @throws DsqException
+	 */
+	public void execute(Sequence seq, IDsqContext dsqContext, IDsqClient client, IDsqLogger logger, ICpDeviceInfo deviceInfo, boolean pipelining) throws DsqException {
+		SequenceNode sequence = fSequences.get(seq);
+		if (sequence == null) {
+			throw new DsqException("Sequence named '" + seq.getName() + "' is not compiled"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		Execution x = new Execution(this, client, logger, deviceInfo, pipelining);
+		for (StatementNode stmt : fDebugVars) {
+			x.log(stmt, stmt.eval(x, null));
+		}
+		for (int i = 0; i < PREDEFINED.length; i++) {
+			Long value = dsqContext.getPredefinedVariableValue(PREDEFINED[i]);
+			if (value != null) {
+				x.globals[fPredefinedSlots[i]] = value;
+			}
+		}
+		try {
+			sequence.call(x, null);
+		} catch (RuntimeException e) {
+			// without pipelining the commands before the failure would have been executed
+			try {
+				x.flush();
+			} catch (DsqException flushError) {
+				e.addSuppressed(flushError);
+			}
+			throw e;
+		}
+		x.flush();
+	}
+
+	/**
+	 * Execution state of a program
+	 */
+	static class Execution {
+		final DebugSeqProgram program;
+		final IDsqClient client;
+		final IDsqLogger logger;
+		final ICpDeviceInfo deviceInfo;
+		final long[] globals;
+		final boolean pipelining;
+		final DsqCommandBuffer singleCommand = new DsqCommandBuffer(); // reused for each non-atomic command
+		final DsqCommandBuffer atomicCommands = new DsqCommandBuffer(); // commands collected in an atomic block
+		final DsqCommandBuffer pendingCommands = new DsqCommandBuffer(); // pipelined commands
+		final List<StatementNode> pendingStatements = new ArrayList<>(); // statements of pipelined commands to log
+
+		boolean inAtomic = false;
+		boolean collectingCommands = false;
+		int commandIndex = 0;
+
+		Execution(DebugSeqProgram program, IDsqClient client, IDsqLogger logger, ICpDeviceInfo deviceInfo, boolean pipelining) {
+			this.program = program;
+			this.client = client;
+			this.logger = logger;
+			this.deviceInfo = deviceInfo;
+			this.globals = new long[program.fGlobalCount];
+			this.pipelining = pipelining;
+		}
+
+		/**
+		 * Returns logger after sending pipelined commands, so that log calls stay in execution order
+		 */
+		IDsqLogger getLogger() throws DsqException {
+			if (logger != null) {
+				flush();
+			}
+			return logger;
+		}
+
+		/**
+		 * Buffers the command of a statement, the command is sent with the next flush
+		 */
+		void pipeline(StatementNode stmt, String cmdName, long[] frame, int argCount, long arg0, long arg1, long arg2) throws DsqException {
+			createCommand(pendingCommands, cmdName, null, frame, argCount, arg0, arg1, arg2);
+			pendingStatements.add(stmt);
+			if (pendingCommands.size() >= MAX_PIPELINED_COMMANDS) {
+				flush();
+			}
+		}
+
+		/**
+		 * Sends pipelined commands in one call and logs their statements.
+		 * If the client fails, the statements of the completed commands and of the failed one are logged before rethrowing.
+		 */
+		void flush() throws DsqException {
+			if (pendingCommands.isEmpty()) {
+				return;
+			}
+			try {
+				client.execute(pendingCommands, false);
+				logPending(pendingCommands.size());
+			} catch (DsqException e) {
+				int failed = 0; // the client stops at the first failing command and marks it with an error code
+				while (failed < pendingCommands.size() && pendingCommands.get(failed).getError() == 0) {
+					failed++;
+				}
+				if (failed < pendingCommands.size()) {
+					logPending(failed + 1);
+				}
+				throw e;
+			} finally {
+				pendingCommands.clear();
+				pendingStatements.clear();
+			}
+		}
+
+		/**
+		 * Logs statements of the first pipelined commands
+		 * @param count number of commands to log
+		 */
+		private void logPending(int count) {
+			if (logger == null) {
+				return;
+			}
+			for (int i = 0; i < count; i++) {
+				PooledDsqCommand command = pendingCommands.get(i);
+				logger.logStatement(pendingStatements.get(i).getText(), command.getOutput(), command.getError());
+			}
+		}
+
+		long predefined(long[] frame, int index) {
+			switch (index) {
+			case 0:
+				return frame != null ? frame[AP_SLOT] : globals[program.fPredefinedSlots[0]];
+			case 1:
+				return frame != null ? frame[DP_SLOT] : globals[program.fPredefinedSlots[1]];
+			case 5:
+				return frame != null ? frame[ERRORCONTROL_SLOT] : globals[program.fPredefinedSlots[5]];
+			default:
+				return globals[program.fPredefinedSlots[index]];
+			}
+		}
+
+		long executeCommand(String cmdName, List<String> strings, long[] frame, int argCount, long arg0, long arg1, long arg2) throws DsqException {
+			if (!inAtomic) {
+				flush();
+				singleCommand.clear();
+				PooledDsqCommand command = createCommand(singleCommand, cmdName, strings, frame, argCount, arg0, arg1, arg2);
+				client.execute(singleCommand, false);
+				return command.getOutput();
+			} else if (!collectingCommands) { // all the results are returned
+				return atomicCommands.get(commandIndex++).getOutput();
+			}
+			createCommand(atomicCommands, cmdName, strings, frame, argCount, arg0, arg1, arg2);
+			return 0L;
+		}
+
+		/**
+		 * Appends command to the buffer with up to three arguments and a snapshot of predefined variables
+		 */
+		PooledDsqCommand createCommand(DsqCommandBuffer buffer, String cmdName, List<String> strings, long[] frame, int argCount, long arg0, long arg1, long arg2) {
+			PooledDsqCommand command = buffer.add(cmdName, strings);
+			if (argCount > 0) {
+				command.addArgument(arg0);
+			}
+			if (argCount > 1) {
+				command.addArgument(arg1);
+			}
+			if (argCount > 2) {
+				command.addArgument(arg2);
+			}
+			for (int i = 0; i < PREDEFINED.length; i++) {
+				command.setPredefinedVariable(i, predefined(frame, i));
+			}
+			return command;
+		}
+
+		void log(StatementNode stmt, long result) throws DsqException {
+			if (logger != null && !collectingCommands) {
+				flush();
+				logger.logStatement(stmt.getText(), result, 0);
+			}
+		}
+	}
+
+	/**
+	 * Compiled expression
+	 */
+	static abstract class Node {
+		/**
+		 * Evaluates expression as a number
+		 */
+		abstract long eval(Execution x, long[] frame) throws DsqException;
+
+		/**
+		 * Evaluates expression to the object the interpreter would return
+		 */
+		Object value(Execution x, long[] frame) throws DsqException {
+			return eval(x, frame);
+		}
+
+		/**
+		 * Checks if value() always returns a Long
+		 */
+		boolean isNumeric() {
+			return true;
+		}
+	}
+
+	/**
+	 * Statement with its source text for logging
+	 */
+	static class StatementNode extends Node {
+		final Node node;
+		final Statement statement;
+		String text = null;
+
+		StatementNode(Node node, Statement statement) {
+			this.node = node;
+			this.statement = statement;
+		}
+
+		String getText() {
+			if (text == null) {
+				text = NodeModelUtils.getTokenText(NodeModelUtils.getNode(statement));
+			}
+			return text;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return node.eval(x, frame);
+		}
+
+		@Override
+		Object value(Execution x, long[] frame) throws DsqException {
+			return node.value(x, frame);
+		}
+
+		@Override
+		boolean isNumeric() {
+			return node.isNumeric();
+		}
+	}
+
+	/**
+	 * Block or control
+	 */
+	static abstract class CodeBlockNode {
+		abstract long run(Execution x, long[] frame) throws DsqException;
+	}
+
+	static class SequenceNode {
+		final String name;
+		int frameSize = FRAME_PREDEFINED_COUNT;
+		CodeBlockNode[] codeblocks = null;
+
+		SequenceNode(String name) {
+			this.name = name;
+		}
+
+		long call(Execution x, long[] callerFrame) throws DsqException {
+			IDsqLogger logger = x.getLogger();
+			if (logger != null) {
+				logger.logSeqStart(name);
+			}
+			long[] frame = new long[frameSize];
+			frame[AP_SLOT] = x.predefined(callerFrame, 0);
+			frame[DP_SLOT] = x.predefined(callerFrame, 1);
+			frame[ERRORCONTROL_SLOT] = x.predefined(callerFrame, 5);
+			for (CodeBlockNode codeblock : codeblocks) {
+				codeblock.run(x, frame);
+			}
+			logger = x.getLogger();
+			if (logger != null) {
+				logger.logSeqEnd(name);
+			}
+			return 0L;
+		}
+	}
+
+	static class BlockNode extends CodeBlockNode {
+		final boolean atomic;
+		final String info;
+		final StatementNode[] statements; // not empty
+
+		BlockNode(boolean atomic, String info, StatementNode[] statements) {
+			this.atomic = atomic;
+			this.info = info;
+			this.statements = statements;
+		}
+
+		@Override
+		long run(Execution x, long[] frame) throws DsqException {
+			IDsqLogger logger = x.getLogger();
+			if (logger != null) {
+				logger.logBlockStart(atomic, info);
+			}
+			long[] savedGlobals = null;
+			long[] savedFrame = null;
+			if (atomic) {
+				x.flush();
+				x.inAtomic = true;
+				x.collectingCommands = true;
+				x.atomicCommands.clear();
+				// backup the symbol table
+				savedGlobals = x.globals.clone();
+				savedFrame = frame != null ? frame.clone() : null;
+			}
+
+			long result = runStatements(x, frame);
+
+			if (x.inAtomic) {
+				// execute the collected commands
+				x.client.execute(x.atomicCommands, true);
+
+				// restore the symbol table
+				if (savedGlobals != null) {
+					System.arraycopy(savedGlobals, 0, x.globals, 0, savedGlobals.length);
+				}
+				if (savedFrame != null) {
+					System.arraycopy(savedFrame, 0, frame, 0, savedFrame.length);
+				}
+
+				// get all the results
+				x.collectingCommands = false;
+				x.commandIndex = 0;
+				result = runStatements(x, frame);
+				x.inAtomic = false;
+				x.atomicCommands.clear();
+			}
+			logger = x.getLogger();
+			if (logger != null) {
+				logger.logBlockEnd();
+			}
+			return result;
+		}
+
+		/**
+		 * Executes statements
+		 * @return result of the last statement, 0 if it is pipelined (block results are not used)
+		 */
+		long runStatements(Execution x, long[] frame) throws DsqException {
+			long result = 0L;
+			for (StatementNode stmt : statements) {
+				if (x.pipelining && !x.inAtomic && stmt.node instanceof Command) {
+					((Command) stmt.node).pipeline(x, stmt, frame);
+					result = 0L;
+					continue;
+				}
+				result = stmt.eval(x, frame);
+				x.log(stmt, result);
+			}
+			return result;
+		}
+	}
+
+	static class ControlNode extends CodeBlockNode {
+		final StatementNode ifNode;		// null if not specified
+		final StatementNode whileNode;	// null if not specified
+		final long timeout;
+		final String info;
+		final CodeBlockNode[] codeblocks;
+
+		ControlNode(StatementNode ifNode, StatementNode whileNode, long timeout, String info, CodeBlockNode[] codeblocks) {
+			this.ifNode = ifNode;
+			this.whileNode = whileNode;
+			this.timeout = timeout != 0 ? timeout : Long.MAX_VALUE; // 0 : never time out
+			this.info = info;
+			this.codeblocks = codeblocks;
+		}
+
+		@Override
+		long run(Execution x, long[] frame) throws DsqException {
+			long result = 0L;
+			IDsqLogger logger = x.getLogger();
+			if (logger != null) {
+				logger.logContorlStart(info);
+			}
+			if (ifNode == null || logCondition(x, ifNode, ifNode.eval(x, frame), false) != 0) {
+				if (whileNode == null) {
+					result = runCodeBlocks(x, frame);
+				} else {
+					long runningTime = 0L;
+					long startTime = System.nanoTime();
+					while (logCondition(x, whileNode, whileNode.eval(x, frame), true) != 0 && runningTime < timeout) {
+						result = runCodeBlocks(x, frame);
+						x.flush(); // pipelined commands count to the loop time
+						runningTime = (System.nanoTime() - startTime) / 1000;
+					}
+				}
+			}
+			logger = x.getLogger();
+			if (logger != null) {
+				logger.logControlEnd();
+			}
+			return result;
+		}
+
+		long runCodeBlocks(Execution x, long[] frame) throws DsqException {
+			long result = 0L;
+			for (CodeBlockNode codeblock : codeblocks) {
+				result = codeblock.run(x, frame);
+			}
+			return result;
+		}
+
+		static long logCondition(Execution x, StatementNode stmt, long result, boolean isWhile) throws DsqException {
+			if (x.logger != null && !x.collectingCommands) {
+				IDsqLogger logger = x.getLogger();
+				if (isWhile) {
+					logger.logWhileStatement(stmt.getText(), result, 0);
+				} else {
+					logger.logIfStatement(stmt.getText(), result, 0);
+				}
+			}
+			return result;
+		}
+	}
+
+	// ---------------------------------------------------------------- variables
+
+	static class GlobalRef extends Node {
+		final int slot;
+
+		GlobalRef(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) {
+			return x.globals[slot];
+		}
+	}
+
+	static class LocalRef extends Node {
+		final int slot;
+
+		LocalRef(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) {
+			return frame[slot];
+		}
+	}
+
+	static class Declaration extends Node {
+		final boolean global;
+		final int slot;
+		final Node value;
+
+		Declaration(boolean global, int slot, Node value) {
+			this.global = global;
+			this.slot = slot;
+			this.value = value;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			long v = value.eval(x, frame);
+			if (global) {
+				x.globals[slot] = v;
+			} else {
+				frame[slot] = v;
+			}
+			return v;
+		}
+	}
+
+	static class Assign extends Node {
+		static final int SET = 0;
+		static final int ADD = 1;
+		static final int SUB = 2;
+		static final int MUL = 3;
+		static final int DIV = 4;
+		static final int REM = 5;
+		static final int SHL = 6;
+		static final int SHR = 7;
+		static final int AND = 8;
+		static final int XOR = 9;
+		static final int OR = 10;
+
+		final boolean global;
+		final int slot;
+		final int op;
+		final Node right;
+
+		Assign(boolean global, int slot, int op, Node right) {
+			this.global = global;
+			this.slot = slot;
+			this.op = op;
+			this.right = right;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			long[] vars = global ? x.globals : frame;
+			long i = vars[slot];
+			long v = right.eval(x, frame);
+			switch (op) {
+			case ADD:
+				v = i + v;
+				break;
+			case SUB:
+				v = i - v;
+				break;
+			case MUL:
+				v = i * v;
+				break;
+			case DIV:
+				v = Long.divideUnsigned(i, v);
+				break;
+			case REM:
+				v = Long.remainderUnsigned(i, v);
+				break;
+			case SHL:
+				v = i << toInteger(v);
+				break;
+			case SHR:
+				v = i >> toInteger(v);
+				break;
+			case AND:
+				v = i & v;
+				break;
+			case XOR:
+				v = i ^ v;
+				break;
+			case OR:
+				v = i | v;
+				break;
+			default:
+				break;
+			}
+			vars[slot] = v;
+			return v;
+		}
+	}
+
+	/**
+	 * Converts shift count the way {@link DebugSeqUtil#toInteger(Long)} does
+	 */
+	static int toInteger(long v) {
+		if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+			return (int) v;
+		}
+		return DebugSeqUtil.toInteger(v); // throws NumberFormatException
+	}
+
+	// ---------------------------------------------------------------- constants
+
+	static class IntConst extends Node {
+		final long value;
+		final Long boxed;
+
+		IntConst(long value) {
+			this.value = value;
+			this.boxed = value;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) {
+			return value;
+		}
+
+		@Override
+		Object value(Execution x, long[] frame) {
+			return boxed;
+		}
+	}
+
+	static class StringConst extends Node {
+		final String value;
+		final long numeric;
+
+		StringConst(String value) {
+			this.value = value;
+			this.numeric = DebugSeqUtil.toLong(value);
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) {
+			return numeric;
+		}
+
+		@Override
+		Object value(Execution x, long[] frame) {
+			return value;
+		}
+
+		@Override
+		boolean isNumeric() {
+			return false;
+		}
+	}
+
+	// ---------------------------------------------------------------- operators
+
+	static abstract class Binary extends Node {
+		final Node left;
+		final Node right;
+
+		Binary(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	static class Ternary extends Node {
+		final Node condition;
+		final Node exp1;
+		final Node exp2;
+
+		Ternary(Node condition, Node exp1, Node exp2) {
+			this.condition = condition;
+			this.exp1 = exp1;
+			this.exp2 = exp2;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return condition.eval(x, frame) != 0 ? exp1.eval(x, frame) : exp2.eval(x, frame);
+		}
+
+		@Override
+		Object value(Execution x, long[] frame) throws DsqException {
+			return condition.eval(x, frame) != 0 ? exp1.value(x, frame) : exp2.value(x, frame);
+		}
+
+		@Override
+		boolean isNumeric() {
+			return exp1.isNumeric() && exp2.isNumeric();
+		}
+	}
+
+	static class Not extends Node {
+		final Node expression;
+
+		Not(Node expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return expression.eval(x, frame) == 0 ? 1L : 0L;
+		}
+	}
+
+	static class BitNot extends Node {
+		final Node expression;
+
+		BitNot(Node expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return ~expression.eval(x, frame);
+		}
+	}
+
+	static class Or extends Binary {
+		Or(Node left, Node right) {
+			super(left, right);
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return (left.eval(x, frame) != 0 || right.eval(x, frame) != 0) ? 1L : 0L;
+		}
+	}
+
+	static class And extends Binary {
+		And(Node left, Node right) {
+			super(left, right);
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			return (left.eval(x, frame) != 0 && right.eval(x, frame) != 0) ? 1L : 0L;
+		}
+	}
+
+	static class Equality extends Binary {
+		final boolean equal;
+
+		Equality(Node left, Node right, boolean equal) {
+			super(left, right);
+			this.equal = equal;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			boolean res;
+			if (left.isNumeric() && right.isNumeric()) {
+				res = left.eval(x, frame) == right.eval(x, frame);
+			} else {
+				Object l = left.value(x, frame);
+				Object r = right.value(x, frame);
+				res = l == null ? r == null : l.equals(r);
+			}
+			return res == equal ? 1L : 0L;
+		}
+	}
+
+	static class Arithmetic extends Binary {
+		static final int BIT_OR = 0;
+		static final int BIT_XOR = 1;
+		static final int BIT_AND = 2;
+		static final int LT = 3;
+		static final int GT = 4;
+		static final int LE = 5;
+		static final int GE = 6;
+		static final int SHL = 7;
+		static final int SHR = 8;
+		static final int PLUS = 9;
+		static final int MINUS = 10;
+		static final int MUL = 11;
+		static final int DIV = 12;
+		static final int REM = 13;
+
+		final int op;
+
+		Arithmetic(int op, Node left, Node right) {
+			super(left, right);
+			this.op = op;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			long l = left.eval(x, frame);
+			long r = right.eval(x, frame);
+			switch (op) {
+			case BIT_OR:
+				return l | r;
+			case BIT_XOR:
+				return l ^ r;
+			case BIT_AND:
+				return l & r;
+			case LT:
+				return Long.compareUnsigned(l, r) < 0 ? 1L : 0L;
+			case GT:
+				return Long.compareUnsigned(l, r) > 0 ? 1L : 0L;
+			case LE:
+				return Long.compareUnsigned(l, r) <= 0 ? 1L : 0L;
+			case GE:
+				return Long.compareUnsigned(l, r) >= 0 ? 1L : 0L;
+			case SHL:
+				return l << toInteger(r);
+			case SHR:
+				return l >> toInteger(r);
+			case PLUS:
+				return l + r;
+			case MINUS:
+				return l - r;
+			case MUL:
+				return l * r;
+			case DIV:
+				return Long.divideUnsigned(l, r);
+			case REM:
+				return Long.remainderUnsigned(l, r);
+			default:
+				return 0L;
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- functions
+
+	static class SequenceCall extends Node {
+		final String name;
+		SequenceNode sequence; // null if the sequence is not defined
+
+		SequenceCall(String name) {
+			this.name = name;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			value(x, frame);
+			return 0L;
+		}
+
+		@Override
+		Object value(Execution x, long[] frame) throws DsqException {
+			if (sequence != null) {
+				return sequence.call(x, frame);
+			} else if (!DebugSeqUtil.isEmptyDefaultSequence(name)) {
+				throw new DsqException("Sequence with name '" + name + "' is undefined"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return null;
+		}
+
+		@Override
+		boolean isNumeric() {
+			return sequence != null;
+		}
+	}
+
+	static class Query extends Node {
+		final Node type;	// null for QueryValue
+		final String message;
+		final Node defaultValue;
+
+		Query(Node type, String message, Node defaultValue) {
+			this.type = type;
+			this.message = message;
+			this.defaultValue = defaultValue;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			x.flush();
+			long t = type != null ? type.eval(x, frame) : IDsqClient.QUERY_VALUE_TYPE;
+			long d = defaultValue.eval(x, frame);
+			return x.client.query(t, message, d);
+		}
+	}
+
+	static class LoadDebugInfo extends Node {
+		final String path;
+
+		LoadDebugInfo(String path) {
+			this.path = path;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			List<String> strings = Collections.singletonList(x.deviceInfo.getAbsolutePath(path));
+			return x.executeCommand(IDsqCommand.DSQ_LOAD_DEBUG_INFO, strings, frame, 0, 0L, 0L, 0L);
+		}
+	}
+
+	static class Message extends Node {
+		final Node type;
+		final String format;
+		final Node[] parameters;
+
+		Message(Node type, String format, Node[] parameters) {
+			this.type = type;
+			this.format = format;
+			this.parameters = parameters;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			String message = format;
+			if (format != null && !format.isEmpty()) { // parameters are not evaluated otherwise
+				List<Object> values = new ArrayList<>(parameters.length);
+				for (Node p : parameters) {
+					values.add(p.value(x, frame));
+				}
+				message = DebugSeqUtil.formatWithValues(format, values);
+			}
+			long t = type.eval(x, frame);
+			return x.executeCommand(IDsqCommand.DSQ_MESSAGE, Collections.singletonList(message), frame, 1, t, 0L, 0L);
+		}
+	}
+
+	/**
+	 * Debug access command with up to three numeric arguments evaluated in order
+	 */
+	static class Command extends Node {
+		final String name;
+		final Node[] arguments;
+
+		Command(String name, Node... arguments) {
+			this.name = name;
+			this.arguments = arguments;
+		}
+
+		@Override
+		long eval(Execution x, long[] frame) throws DsqException {
+			long arg0 = arguments.length > 0 ? arguments[0].eval(x, frame) : 0L;
+			long arg1 = arguments.length > 1 ? arguments[1].eval(x, frame) : 0L;
+			long arg2 = arguments.length > 2 ? arguments[2].eval(x, frame) : 0L;
+			return x.executeCommand(name, null, frame, arguments.length, arg0, arg1, arg2);
+		}
+
+		void pipeline(Execution x, StatementNode stmt, long[] frame) throws DsqException {
+			long arg0 = arguments.length > 0 ? arguments[0].eval(x, frame) : 0L; // argument evaluation can flush
+			long arg1 = arguments.length > 1 ? arguments[1].eval(x, frame) : 0L;
+			long arg2 = arguments.length > 2 ? arguments[2].eval(x, frame) : 0L;
+			x.pipeline(stmt, name, frame, arguments.length, arg0, arg1, arg2);
+		}
+	}
+}
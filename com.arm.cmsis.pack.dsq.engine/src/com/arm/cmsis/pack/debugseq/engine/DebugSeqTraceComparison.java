@@ -0,0 +1,300 @@
+/*******************************************************************************
+* Copyright (c) 2016 ARM Ltd. and others
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+* ARM Ltd and ARM Germany GmbH - Initial API and implementation
+*******************************************************************************/
+
+package com.arm.cmsis.pack.debugseq.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.arm.cmsis.pack.data.ICpDebugConfiguration;
+import com.arm.cmsis.pack.dsq.DsqException;
+import com.arm.cmsis.pack.dsq.DsqSequence;
+import com.arm.cmsis.pack.dsq.IDsqClient;
+import com.arm.cmsis.pack.dsq.IDsqCommand;
+import com.arm.cmsis.pack.dsq.IDsqContext;
+import com.arm.cmsis.pack.dsq.IDsqLogger;
+import com.arm.cmsis.pack.dsq.IDsqSequence;
+import com.arm.cmsis.pack.dsq.PooledDsqCommand;
+import com.arm.cmsis.pack.info.ICpDeviceInfo;
+
+/**
+ * Differential check of the debug sequence backends: executes sequences with the interpreter and with the compiled program
+ * against a simulated debug client and compares the traces of both runs.
+ * <p>
+ * A trace records every client call (command batches with command names, arguments and predefined variables, queries)
+ * and every logger call in order, followed by the exception that ended the run if any.
+ * Sequences are executed with and without logger, since log calls send pipelined commands.
+ * The simulated client returns reproducible values: repeated reads of the same address alternate between 0, all ones
+ * and a hash value, so that polling loops terminate. Both runs stop with a DsqException after {@link #MAX_COMMANDS} commands.
+ * </p>
+ */
+public class DebugSeqTraceComparison {
+
+	public static final int MAX_COMMANDS = 4096; // limit for sequences that poll longer than the simulated client answers
+
+	static final long[] PROTOCOLS = { 0x00000001L, 0x00010002L }; // JTAG, SWD with switch from JTAG
+	static final long[] CONNECTIONS = { 0L, 1L }; // debug, flash
+
+	private DebugSeqTraceComparison() {
+	}
+
+	/**
+	 * Compares the backends for all sequences of the device: sequences described in the pack and the default ones,
+	 * each with JTAG and SWD protocol, for debug and flash connections, with and without pipelining and logger
+	 * @param deviceInfo ICpDeviceInfo with debug configuration
+	 * @return list of differences, empty if all traces are equal
+	 * @throws DsqException if the sequences cannot be parsed
+	 */
+	public static List<String> compareAll(ICpDeviceInfo deviceInfo) throws DsqException {
+		List<String> differences = new ArrayList<>();
+		for (String name : getSequenceNames(deviceInfo)) {
+			for (long protocol : PROTOCOLS) {
+				for (long connection : CONNECTIONS) {
+					IDsqSequence seqContext = createSequenceContext(name, protocol, connection);
+					for (boolean pipelining : new boolean[] { false, true }) {
+						for (boolean logging : new boolean[] { true, false }) {
+							String difference = compare(deviceInfo, seqContext, pipelining, logging);
+							if (difference != null) {
+								differences.add(difference);
+							}
+						}
+					}
+				}
+			}
+		}
+		return differences;
+	}
+
+	/**
+	 * Returns names of the sequences described in the pack followed by the default sequences
+	 * @param deviceInfo ICpDeviceInfo with debug configuration
+	 * @return set of sequence names
+	 * @throws DsqException if the sequences cannot be parsed
+	 */
+	public static Set<String> getSequenceNames(ICpDeviceInfo deviceInfo) throws DsqException {
+		Set<String> names = new LinkedHashSet<>();
+		ICpDebugConfiguration debugConfiguration = deviceInfo.getDebugConfiguration();
+		if (debugConfiguration != null && debugConfiguration.getSequences() != null) {
+			names.addAll(debugConfiguration.getSequences().keySet());
+		}
+		names.addAll(new DebugSeqEngine(deviceInfo, new TraceClient(new ArrayList<>(), false), null).getDefaultSequenceNames());
+		return names;
+	}
+
+	/**
+	 * Creates sequence context with predefined variable values
+	 * @param name sequence name
+	 * @param protocol value of __protocol
+	 * @param connection value of __connection
+	 * @return IDsqSequence
+	 */
+	public static IDsqSequence createSequenceContext(String name, long protocol, long connection) {
+		DsqSequence seqContext = new DsqSequence(name);
+		seqContext.setPredefinedVariableValue(IDsqContext.AP, 0L);
+		seqContext.setPredefinedVariableValue(IDsqContext.DP, 0L);
+		seqContext.setPredefinedVariableValue(IDsqContext.PROTOCOL, protocol);
+		seqContext.setPredefinedVariableValue(IDsqContext.CONNECTION, connection);
+		seqContext.setPredefinedVariableValue(IDsqContext.TRACEOUT, 0L);
+		seqContext.setPredefinedVariableValue(IDsqContext.ERRORCONTROL, 0L);
+		return seqContext;
+	}
+
+	/**
+	 * Executes the sequence with both backends and compares the traces
+	 * @param deviceInfo ICpDeviceInfo with debug configuration
+	 * @param seqContext sequence to execute with predefined variable values
+	 * @param pipelining true if the simulated client supports pipelining
+	 * @param logging true to record logger calls, false to execute without logger
+	 * @return description of the first difference or null if the traces are equal
+	 * @throws DsqException if the sequences cannot be parsed
+	 */
+	public static String compare(ICpDeviceInfo deviceInfo, IDsqSequence seqContext, boolean pipelining, boolean logging) throws DsqException {
+		List<String> interpreted = trace(deviceInfo, seqContext, pipelining, logging, false);
+		List<String> compiled = trace(deviceInfo, seqContext, pipelining, logging, true);
+		int size = Math.min(interpreted.size(), compiled.size());
+		int index = 0;
+		while (index < size && interpreted.get(index).equals(compiled.get(index))) {
+			index++;
+		}
+		if (index == interpreted.size() && index == compiled.size()) {
+			return null;
+		}
+		StringBuilder difference = new StringBuilder();
+		difference.append(seqContext.getSequenceName())
+			.append(" (protocol 0x").append(Long.toHexString(seqContext.getPredefinedVariableValue(IDsqContext.PROTOCOL)))
+			.append(", connection ").append(seqContext.getPredefinedVariableValue(IDsqContext.CONNECTION))
+			.append(pipelining ? ", pipelining" : "") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(logging ? "" : ", no logger") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(") differs at trace entry ").append(index).append('\n') //$NON-NLS-1$
+			.append("  interpreter: ").append(index < interpreted.size() ? interpreted.get(index) : "<end>").append('\n') //$NON-NLS-1$ //$NON-NLS-2$
+			.append("  compiled:    ").append(index < compiled.size() ? compiled.get(index) : "<end>"); //$NON-NLS-1$ //$NON-NLS-2$
+		return difference.toString();
+	}
+
+	/**
+	 * Executes the sequence with a simulated client and returns the trace
+	 * @param deviceInfo ICpDeviceInfo with debug configuration
+	 * @param seqContext sequence to execute with predefined variable values
+	 * @param pipelining true if the simulated client supports pipelining
+	 * @param logging true to record logger calls, false to execute without logger
+	 * @param compiled true to execute the compiled program, false to interpret the model
+	 * @return list of trace entries
+	 * @throws DsqException if the sequences cannot be parsed
+	 */
+	public static List<String> trace(ICpDeviceInfo deviceInfo, IDsqSequence seqContext, boolean pipelining, boolean logging, boolean compiled) throws DsqException {
+		List<String> trace = new ArrayList<>();
+		DebugSeqEngine engine = new DebugSeqEngine(deviceInfo, new TraceClient(trace, pipelining), logging ? new TraceLogger(trace) : null);
+		engine.setCompiledExecution(compiled);
+		engine.getDefaultSequenceNames(); // parse errors are not part of the trace
+		try {
+			engine.execute(seqContext);
+		} catch (RuntimeException e) {
+			trace.add("exception " + e.getClass().getSimpleName() + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return trace;
+	}
+
+	/**
+	 * Simulated debug client recording its calls
+	 */
+	static class TraceClient implements IDsqClient {
+		final List<String> trace;
+		final boolean pipelining;
+		final Map<String, Integer> accessCounts = new HashMap<>(); // command with arguments -> number of executions
+		int commandCount = 0;
+
+		TraceClient(List<String> trace, boolean pipelining) {
+			this.trace = trace;
+			this.pipelining = pipelining;
+		}
+
+		@Override
+		public boolean isPipeliningSupported() {
+			return pipelining;
+		}
+
+		@Override
+		public void execute(List<IDsqCommand> commands, boolean atomic) throws DsqException {
+			trace.add("execute " + commands.size() + (atomic ? " atomic" : "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			for (IDsqCommand command : commands) {
+				if (++commandCount > MAX_COMMANDS) {
+					command.setError(1);
+					throw new DsqException("Command limit of the simulated client exceeded"); //$NON-NLS-1$
+				}
+				String access = command.getCommandName() + command.getArguments() + command.getStringArguments();
+				StringBuilder entry = new StringBuilder("  ").append(access); //$NON-NLS-1$
+				for (String name : PooledDsqCommand.PREDEFINED_VARIABLES) {
+					entry.append(' ').append(name).append('=').append(command.getPredefinedVariableValue(name));
+				}
+				trace.add(entry.toString());
+				Integer count = accessCounts.get(access);
+				count = count != null ? count + 1 : 0;
+				accessCounts.put(access, count);
+				command.setOutput(output(access, count));
+			}
+		}
+
+		/**
+		 * Returns reproducible output: 0, all ones and a hash value in turn
+		 */
+		static long output(String access, int count) {
+			switch (count % 3) {
+			case 0:
+				return 0L;
+			case 1:
+				return -1L;
+			default:
+				long h = access.hashCode() * 0x9E3779B97F4A7C15L + count;
+				return h ^ (h >>> 29);
+			}
+		}
+
+		@Override
+		public long query(long type, String message, long defaultValue) throws DsqException {
+			trace.add("query " + type + " " + message + " " + defaultValue); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Logger recording its calls
+	 */
+	static class TraceLogger implements IDsqLogger {
+		final List<String> trace;
+
+		TraceLogger(List<String> trace) {
+			this.trace = trace;
+		}
+
+		@Override
+		public void setEnabled(boolean enable) {
+			// always enabled
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public void logSeqStart(String seqName) {
+			trace.add("sequence " + seqName); //$NON-NLS-1$
+		}
+
+		@Override
+		public void logSeqEnd(String seqName) {
+			trace.add("end sequence " + seqName); //$NON-NLS-1$
+		}
+
+		@Override
+		public void logBlockStart(boolean isAtomic, String blockInfo) {
+			trace.add("block " + isAtomic + " " + blockInfo); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		@Override
+		public void logBlockEnd() {
+			trace.add("end block"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void logContorlStart(String controlInfo) {
+			trace.add("control " + controlInfo); //$NON-NLS-1$
+		}
+
+		@Override
+		public void logControlEnd() {
+			trace.add("end control"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void logStatement(String stmt, Long result, int errorCode) {
+			trace.add("statement " + stmt + " = " + result + " error " + errorCode); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		@Override
+		public void logIfStatement(String stmt, Long result, int errorCode) {
+			trace.add("if " + stmt + " = " + result + " error " + errorCode); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		@Override
+		public void logWhileStatement(String stmt, Long result, int errorCode) {
+			String entry = "while " + stmt + " = " + result + " error " + errorCode; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			// a loop without debug access waits for its timeout, the number of iterations depends on the execution speed
+			if (trace.isEmpty() || !trace.get(trace.size() - 1).equals(entry)) {
+				trace.add(entry);
+			}
+		}
+	}
+}
@@ -61,6 +61,7 @@ public class Messages extends NLS {
 	public static String PackInstallerView_InstallRequiredPacksToolTip;
 	public static String PackInstallerView_OpenPreferenceLink;
 	public static String PackPropertyView_InstallTooltip;
+	public static String PackPropertyView_LoadingPack;
 	public static String PackPropertyView_UnpackAction;
 	public static String PackPropertyView_UnpackTooltip;
 	public static String PacksExamplesViewFilter_NoBoards;
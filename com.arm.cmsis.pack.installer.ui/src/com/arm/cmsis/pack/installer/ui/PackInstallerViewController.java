@@ -18,6 +18,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IPerspectiveDescriptor;
 import org.eclipse.ui.ISelectionListener;
 import org.eclipse.ui.IWorkbench;
@@ -67,13 +68,17 @@ public class PackInstallerViewController extends RteEventProxy implements ISelec
 
 	@Override
 	public void handle(RteEvent event) {
-		if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) {
-			fSelectedPack = null;
-			if (fFilter != null) {
-				fFilter.clear();
+		// debounced pack events arrive from a background thread, the others from the emitting one:
+		// all events are forwarded through the UI queue to keep their order, the filter is used by the views in the UI thread
+		Display.getDefault().asyncExec(() -> {
+			if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) {
+				fSelectedPack = null;
+				if (fFilter != null) {
+					fFilter.clear();
+				}
 			}
-		}
-		super.handle(event);
+			super.handle(event);
+		});
 	}
 
 	public ICpPack getSelectedPack() {
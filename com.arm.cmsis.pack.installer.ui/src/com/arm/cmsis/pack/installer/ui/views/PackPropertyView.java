@@ -12,9 +12,14 @@
 package com.arm.cmsis.pack.installer.ui.views;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.regex.Pattern;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.Separator;
@@ -23,6 +28,7 @@ import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerSorter;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Tree;
 
 import com.arm.cmsis.pack.CpPlugIn;
@@ -31,6 +37,7 @@ import com.arm.cmsis.pack.ICpPackInstaller;
 import com.arm.cmsis.pack.common.CmsisConstants;
 import com.arm.cmsis.pack.data.CpComponent;
 import com.arm.cmsis.pack.data.CpItem;
+import com.arm.cmsis.pack.data.CpPack;
 import com.arm.cmsis.pack.data.ICpBoard;
 import com.arm.cmsis.pack.data.ICpComponent;
 import com.arm.cmsis.pack.data.ICpDeviceItem;
@@ -453,6 +460,33 @@ public class PackPropertyView extends PackInstallerView {
 	@Override
 	protected void refresh() {
 		ICpPack pack = fViewController.getSelectedPack();
+		if (pack instanceof CpPack && !((CpPack) pack).isMaterialized()) {
+			// load pack sections in background, the tree is shown when they are in memory
+			fViewer.setInput(null);
+			Job job = new Job(Messages.PackPropertyView_LoadingPack) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					CpPlugIn.getPackManager().materializePacks(Collections.singletonList(pack));
+					Display.getDefault().asyncExec(() -> {
+						if (!fViewer.getControl().isDisposed() && fViewController.getSelectedPack() == pack) {
+							showPack(pack);
+						}
+					});
+					return Status.OK_STATUS;
+				}
+			};
+			job.setSystem(true);
+			job.schedule();
+			return;
+		}
+		showPack(pack);
+	}
+
+	/**
+	 * Sets the pack as input of the viewer
+	 * @param pack ICpPack to show, can be null
+	 */
+	void showPack(ICpPack pack) {
 		if (pack != null) {
 			ICpItem proot = new CpItem(null);
 			proot.addChild(pack);
@@ -30,6 +30,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -665,6 +666,8 @@ public class CpPackInstaller extends PlatformObject implements ICpPackInstaller
 		}
 
 		// update .Local folder
+		// String[] { url, name, destFileName }
+		List<String[]> downloads = new LinkedList<String[]>();
 		Map<String, ICpPackFamily> families = manager.getPacks().getFamilies();
 		for (Entry<String, ICpPackFamily> entry : families.entrySet()) {
 			if(fMonitor.isCanceled()) {
@@ -681,8 +684,9 @@ public class CpPackInstaller extends PlatformObject implements ICpPackInstaller
 			}
 			final String pdscUrl = latestPack.getUrl();
 			final String destFileName = localFolder.append(pdscName).toOSString();
-			downloadPdscFile(pdscUrl, pdscName, destFileName);
-		}			
+			downloads.add(new String[]{pdscUrl, pdscName, destFileName});
+		}
+		downloadPdscFiles(downloads);
 	}
 	
 	/**
@@ -721,6 +725,9 @@ public class CpPackInstaller extends PlatformObject implements ICpPackInstaller
 
 		// repo keys: { "type", "url", "list" }
 
+		// String[] { url, name, destFileName }
+		List<String[]> downloads = new LinkedList<String[]>();
+
 		// String[] { url, name, version }
 		for (int i = 0; i < list.size(); i++) {
 			String[] pdsc = list.get(i);
@@ -735,8 +742,6 @@ public class CpPackInstaller extends PlatformObject implements ICpPackInstaller
 			final String pdscVersion = pdsc[2];
 			final String packFamilyId = Utils.extractBaseFileName(pdscName);
 
-			fMonitor.subTask(NLS.bind(Messages.CpPackInstaller_Updating, pdscName, pdscUrl));
-
 			String destFileName = webFolder.append(pdscName).toOSString();
 
 			// if this is not .idx file and we have already higher version, skip
@@ -746,58 +751,68 @@ public class CpPackInstaller extends PlatformObject implements ICpPackInstaller
 				fMonitor.worked(1);
 				continue;
 			}
-			downloadPdscFile(pdscUrl, pdscName, destFileName);
+			downloads.add(new String[]{pdscUrl, pdscName, destFileName});
 		}
+		downloadPdscFiles(downloads);
 	}
 	
 	/**
-	 * Download the pdsc file with url and name
+	 * Download the pdsc files in parallel, files that timed out are downloaded again on request.
+	 * Each file accounts for one unit of work: downloaded files are counted by the repository service provider,
+	 * failed ones here once they are not downloaded again.
 	 * 
-	 * @param pdscUrl URL of the pdsc file
-	 * @param pdscName pdsc file name
-	 * @param destFileName destination file name
-	 * @return true if this pdsc file is successfully downloaded, false otherwise
-	 *         False if this pdsc file needs to be downloaded again.
+	 * @param pdscFiles list of pdsc files, each item is { url, name, destFileName }
 	 */
-	private boolean downloadPdscFile(String pdscUrl, String pdscName, String destFileName) {
-		
-		while(true) { // while for timeout
+	private void downloadPdscFiles(List<String[]> pdscFiles) {
+		List<String[]> pending = pdscFiles;
+		while (!pending.isEmpty()) { // while for timeout
 			if(fMonitor.isCanceled())
-				return false;
-			try {
-				fRepoServiceProvider.getPdscFile(pdscUrl, pdscName, destFileName, fMonitor);
-			} catch (FileNotFoundException e) {
-				String url = pdscUrl + pdscName;
-				printInConsole(NLS.bind(Messages.CpPackInstallJob_FileNotFound, url), ConsoleType.ERROR);
-				return false;
-			} catch (UnknownHostException e) {
-				printInConsole(NLS.bind(Messages.CpPackInstallJob_UnknownHostException, e.getMessage()), ConsoleType.ERROR);
-				return false;
-			} catch (SocketTimeoutException e) {
-				int wait = timeoutQuestion(pdscUrl);
-				if (wait == 0) { // Yes
-					return false;
-				} else if (wait == 1) { // No
-					printInConsole(NLS.bind(Messages.CpPackInstaller_TimeoutConsoleMessage,
-							pdscName, pdscUrl), ConsoleType.WARNING);
+				return;
+			Map<String, IOException> errors = fRepoServiceProvider.getPdscFiles(pending, fMonitor);
+			List<String[]> timedOut = new LinkedList<String[]>();
+			Set<String> timedOutUrls = new LinkedHashSet<>();
+			for (String[] pdsc : pending) {
+				IOException e = errors.get(pdsc[2]);
+				if (e == null) {
 					continue;
-				} else { // Cancel
-					fMonitor.setCanceled(true);
-					return false;
 				}
-			} catch (InterruptedIOException e) {
-				printInConsole(e.getMessage(), ConsoleType.ERROR);
-				return false;
-			} catch (IOException e) {
-				printInConsole(NLS.bind(Messages.CpPackInstaller_ErrorWhileRefreshingIgnored,
-						e.getMessage()), ConsoleType.WARNING);
-				return false;
+				String pdscUrl = pdsc[0];
+				String pdscName = pdsc[1];
+				if (e instanceof FileNotFoundException) {
+					printInConsole(NLS.bind(Messages.CpPackInstallJob_FileNotFound, pdscUrl + pdscName), ConsoleType.ERROR);
+				} else if (e instanceof UnknownHostException) {
+					printInConsole(NLS.bind(Messages.CpPackInstallJob_UnknownHostException, e.getMessage()), ConsoleType.ERROR);
+				} else if (e instanceof SocketTimeoutException) {
+					timedOut.add(pdsc);
+					timedOutUrls.add(pdscUrl);
+					continue; // counted when given up
+				} else if (e instanceof InterruptedIOException) {
+					printInConsole(e.getMessage(), ConsoleType.ERROR);
+				} else {
+					printInConsole(NLS.bind(Messages.CpPackInstaller_ErrorWhileRefreshingIgnored,
+							e.getMessage()), ConsoleType.WARNING);
+				}
+				fMonitor.worked(1);
+			}
+			if (timedOut.isEmpty() || fMonitor.isCanceled()) {
+				return;
+			}
+			// ask once for all files that timed out in this run
+			int wait = timeoutQuestion(String.join(", ", timedOutUrls)); //$NON-NLS-1$
+			if (wait == 0) { // Yes
+				fMonitor.worked(timedOut.size());
+				return;
+			} else if (wait == 1) { // No
+				for (String[] pdsc : timedOut) {
+					printInConsole(NLS.bind(Messages.CpPackInstaller_TimeoutConsoleMessage,
+							pdsc[1], pdsc[0]), ConsoleType.WARNING);
+				}
+				pending = timedOut;
+			} else { // Cancel
+				fMonitor.setCanceled(true);
+				return;
 			}
-			break;
 		}
-		// One more unit completed
-		fMonitor.worked(1);
-		return true;
 	}
 
 	/***************** Here begins utility function part *****************/
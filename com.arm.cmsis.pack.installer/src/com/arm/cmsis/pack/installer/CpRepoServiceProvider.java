@@ -12,36 +12,36 @@
 package com.arm.cmsis.pack.installer;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InterruptedIOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketAddress;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.BundleContext;
 import org.xml.sax.SAXException;
 
 import com.arm.cmsis.pack.CpPlugIn;
 import com.arm.cmsis.pack.ICpRepoServiceProvider;
-import com.arm.cmsis.pack.common.CmsisConstants;
+import com.arm.cmsis.pack.installer.utils.PackDownloadManager;
 import com.arm.cmsis.pack.installer.utils.RepositoryRefreshingUtils;
 import com.arm.cmsis.pack.preferences.CpPreferenceInitializer;
-import com.arm.cmsis.pack.utils.Utils;
 
 /**
  * Default implementation of providing repository service like get pdsc files and pack files
@@ -50,6 +50,9 @@ import com.arm.cmsis.pack.utils.Utils;
 public class CpRepoServiceProvider implements ICpRepoServiceProvider {
 
 	private final static int TIME_OUT = 10000;
+	private final static String DOWNLOAD_STATE_FILE = "download.properties"; //$NON-NLS-1$
+
+	private PackDownloadManager fDownloadManager = null;
 
 	public CpRepoServiceProvider() {
 	}
@@ -64,121 +67,46 @@ public class CpRepoServiceProvider implements ICpRepoServiceProvider {
 
 	@Override
 	public File getPdscFile(String pdscUrl, String pdscName, String destFileName, IProgressMonitor monitor) throws IOException {
-		File destFile = null;
-
-		URL sourceUrl = new URL(pdscUrl + pdscName);
-
-		File destFileTmp = File.createTempFile("temp-pdsc", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
-
-		URLConnection connection = null;
-		while (true) {
-			connection = getConnection(sourceUrl);
-			if (connection == null) {
-				break;
-			}
-			connection.setConnectTimeout(TIME_OUT);
-			connection.setReadTimeout(TIME_OUT);
-
-			if (connection instanceof HttpURLConnection) {
-				HttpURLConnection httpURLConnection = (HttpURLConnection) connection; 
-				int responseCode = httpURLConnection.getResponseCode();
-				if (responseCode == HttpURLConnection.HTTP_OK) {
-					break;
-				}else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
-					httpURLConnection.disconnect();
-					throw new FileNotFoundException(); // we do not supply a message here, it is processed by caller
-				} else if (responseCode == HttpURLConnection.HTTP_MOVED_TEMP
-						|| responseCode == HttpURLConnection.HTTP_MOVED_PERM
-						|| responseCode == HttpURLConnection.HTTP_SEE_OTHER) {
-					String newUrl = connection.getHeaderField(CmsisConstants.REPO_LOCATION);
-					sourceUrl = new URL(newUrl);
-					continue;
-				}
+		// the monitor is only checked for cancellation, its work is accounted by the caller
+		IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
 			}
-			break;
+		};
+		File destFile = getDownloadManager().download(pdscUrl + pdscName, new File(destFileName), false, cancelMonitor);
+		if (destFile != null) {
+			destFile.setReadOnly();
 		}
+		return destFile;
+	}
 
-		if (connection != null) {
-			try{
-				InputStream input = connection.getInputStream();
-				OutputStream output = new FileOutputStream(destFileTmp);
-				boolean finished = true;
-				byte[] buf = new byte[4096]; // 4096 is a common NTFS block size
-				int bytesRead;
-				while ((bytesRead = input.read(buf)) > 0) {
-					output.write(buf, 0, bytesRead);
-					// Check if the cancel button is pressed
-					if (monitor.isCanceled()) {
-						finished = false;
-						break;
-					}
-				}
-				output.close();
-				if (input != null) {
-					input.close();
-				}
-				if (finished) {
-					destFile = new File(destFileName);
-					Utils.copy(destFileTmp, destFile);
-					destFile.setReadOnly();
-				}
-				if (destFileTmp.exists()) {
-					destFileTmp.delete();
-				} 
-			} finally {
-				if (connection instanceof HttpURLConnection) {
-					((HttpURLConnection) connection).disconnect();
-				}
+	@Override
+	public Map<String, IOException> getPdscFiles(List<String[]> pdscFiles, IProgressMonitor monitor) {
+		Map<File, String> downloads = new LinkedHashMap<>();
+		Map<File, String[]> entries = new HashMap<>();
+		for (String[] pdsc : pdscFiles) {
+			File destFile = new File(pdsc[2]);
+			downloads.put(destFile, pdsc[0] + pdsc[1]);
+			entries.put(destFile, pdsc);
+		}
+		Map<File, IOException> failed = getDownloadManager().downloadAll(downloads, false, monitor, (url, destFile, error) -> {
+			String[] pdsc = entries.get(destFile);
+			if (error == null) {
+				destFile.setReadOnly();
 			}
+			monitor.subTask(NLS.bind(Messages.CpPackInstaller_Updating, pdsc[1], pdsc[0]));
+		});
+		Map<String, IOException> errors = new LinkedHashMap<>();
+		for (Entry<File, IOException> entry : failed.entrySet()) {
+			errors.put(entries.get(entry.getKey())[2], entry.getValue());
 		}
-		return destFile;
+		return errors;
 	}
 
 	@Override
 	public File getPackFile(String packUrl, String destFileName, IProgressMonitor monitor) throws IOException {
 		SubMonitor progress = SubMonitor.convert(monitor, 100);
-
-		/***************** Establish connection *****************/
-		URLConnection connection = null;
-		progress.subTask(Messages.CpPackInstallJob_ConnectingTo + packUrl);
-		URL url = new URL(packUrl);
-		while (true) {
-			progress.worked(10);
-			if (progress.isCanceled()) {
-				throw new InterruptedIOException(Messages.CpPackJob_CancelledByUser);
-			}
-			connection = getConnection(url);
-			connection.setConnectTimeout(TIME_OUT);
-			connection.setReadTimeout(TIME_OUT);
-			if (connection instanceof HttpURLConnection) {
-				HttpURLConnection httpURLConnection = (HttpURLConnection) connection; 
-				int responseCode = httpURLConnection.getResponseCode();				if (responseCode == HttpURLConnection.HTTP_OK) {
-					break;
-				}else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
-					httpURLConnection.disconnect();
-					throw new FileNotFoundException(); // we do not supply a message here, it is processed by caller
-				} else if (responseCode == HttpURLConnection.HTTP_MOVED_TEMP
-						|| responseCode == HttpURLConnection.HTTP_MOVED_PERM
-						|| responseCode == HttpURLConnection.HTTP_SEE_OTHER) {
-					String newUrl = connection.getHeaderField(CmsisConstants.REPO_LOCATION);
-					url = new URL(newUrl);
-					continue;
-				}
-			}
-			break;
-		}
-
-		if(connection == null) {
-			return null; // should not happen
-		}
-
-		/***************** Start downloading *****************/
-		int totalWork = connection.getContentLength();
-		if (totalWork == -1) {
-			totalWork = IProgressMonitor.UNKNOWN;
-		}
-
-		progress = SubMonitor.convert(progress.newChild(90), totalWork);
 		progress.subTask(NLS.bind(Messages.CpPackInstallJob_DownloadingFrom, destFileName, packUrl));
 
 		IPath downloadDir = new Path(CpPlugIn.getPackManager().getCmsisPackDownloadDir());
@@ -186,40 +114,24 @@ public class CpRepoServiceProvider implements ICpRepoServiceProvider {
 			downloadDir.toFile().mkdir();
 		}
 		File downloadFile = downloadDir.append(destFileName).toFile();
-		File downloadFileTmp = File.createTempFile("temp-pack", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
-
-		InputStream input = null;
-		OutputStream output = null;
-		try {
-			input = connection.getInputStream();
-			output = new FileOutputStream(downloadFileTmp);
-
-			byte[] buf = new byte[4096]; // 4096 is a common NTFS block size
-			int bytesRead;
-			while ((bytesRead = input.read(buf)) > 0) {
-				output.write(buf, 0, bytesRead);
-				progress.worked(bytesRead);
-				// Check if the cancel button is pressed
-				if (progress.isCanceled()) {
-					throw new InterruptedIOException(Messages.CpPackJob_CancelledByUser);
-				}
-			}
-			Utils.copy(downloadFileTmp, downloadFile);
-			return downloadFile;
-		} finally {
-			if (input != null) {
-				input.close();
-			}
-			if (output != null) {
-				output.close();
-			}
-			if (downloadFileTmp.exists()) {
-				downloadFileTmp.delete();
-			}
-			if (connection instanceof HttpURLConnection) {
-				((HttpURLConnection) connection).disconnect();
+
+		// an interrupted download is continued from its .part file
+		File file = getDownloadManager().download(packUrl, downloadFile, true, progress.newChild(100));
+		if (file == null) {
+			throw new InterruptedIOException(Messages.CpPackJob_CancelledByUser);
+		}
+		return file;
+	}
+
+	private synchronized PackDownloadManager getDownloadManager() {
+		if (fDownloadManager == null) {
+			fDownloadManager = new PackDownloadManager(this::getConnection, TIME_OUT);
+			BundleContext context = CpInstallerPlugIn.getContext();
+			if (context != null) {
+				fDownloadManager.setStateFile(context.getDataFile(DOWNLOAD_STATE_FILE));
 			}
 		}
+		return fDownloadManager;
 	}
 
 	private URLConnection getConnection(URL url) throws IOException {
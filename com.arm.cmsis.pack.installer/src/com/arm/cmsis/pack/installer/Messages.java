@@ -107,6 +107,11 @@ public class Messages extends NLS {
 	public static String OverwriteQuery_OverwriteNameAndPathQuestion;
 	public static String OverwriteQuery_Question;
 
+	public static String PackDownloadManager_CannotReadState;
+	public static String PackDownloadManager_CannotWriteState;
+	public static String PackDownloadManager_IncompleteDownload;
+	public static String PackDownloadManager_TooManyRedirects;
+
 	public static String PackInstallerUtils_PleaseAgreeLicenseAgreement;
 
 	static {
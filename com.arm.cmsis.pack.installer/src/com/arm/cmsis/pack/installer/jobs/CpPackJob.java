@@ -76,6 +76,7 @@ public abstract class CpPackJob extends Job {
 		File localFile = localPath.toFile();
 		if(localFile.exists()) {
 			PdscParser parser = new PdscParser();
+			parser.setHeaderOnly(true); // only version is needed
 			ICpItem existingLocalPack = parser.parseFile(localFile.toString());
 			if(existingLocalPack != null)
 				existingLocalVersion = existingLocalPack.getVersion(); 
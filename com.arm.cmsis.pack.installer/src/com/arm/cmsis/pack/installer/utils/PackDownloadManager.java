@@ -0,0 +1,609 @@
+/*******************************************************************************
+ * Copyright (c) 2016 ARM Ltd. and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * ARM Ltd and ARM Germany GmbH - Initial API and implementation
+ *******************************************************************************/
+
+package com.arm.cmsis.pack.installer.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+
+import com.arm.cmsis.pack.CpPlugIn;
+import com.arm.cmsis.pack.ICpPackInstaller;
+import com.arm.cmsis.pack.ICpPackInstaller.ConsoleType;
+import com.arm.cmsis.pack.ICpPackManager;
+import com.arm.cmsis.pack.common.CmsisConstants;
+import com.arm.cmsis.pack.installer.Messages;
+
+/**
+ * Downloads pack and pdsc files over HTTP with a bounded number of parallel connections per host.
+ * <p>
+ * Files are first written to a <code>.part</code> file next to the destination and moved to the destination when complete.
+ * ETag and Last-Modified of each URL are remembered, so that unchanged files are not downloaded again (conditional GET)
+ * and interrupted downloads are continued with a Range request.
+ * </p>
+ * Connections are opened by an {@link IConnectionFactory}, use <code>URL::openConnection</code> to work against a local server.
+ */
+public class PackDownloadManager {
+
+	public static final int MAX_CONNECTIONS_PER_HOST = 4;
+	public static final int MAX_THREADS = 8;
+	public static final String PART_EXT = ".part"; //$NON-NLS-1$
+
+	private static final int MAX_REDIRECTS = 10;
+	private static final long TRANSFER_CHUNK_SIZE = 64 * 1024;
+	private static final long POLL_INTERVAL = 100; // ms to wait for a finished download before checking the monitor
+
+	private static final String ETAG = "ETag"; //$NON-NLS-1$
+	private static final String LAST_MODIFIED = "Last-Modified"; //$NON-NLS-1$
+	private static final String IF_NONE_MATCH = "If-None-Match"; //$NON-NLS-1$
+	private static final String IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
+	private static final String IF_RANGE = "If-Range"; //$NON-NLS-1$
+	private static final String RANGE = "Range"; //$NON-NLS-1$
+	private static final String CONTENT_RANGE = "Content-Range"; //$NON-NLS-1$
+	private static final String BYTES = "bytes"; //$NON-NLS-1$
+	private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final IConnectionFactory fConnectionFactory;
+	private final int fTimeout;
+	private final int fMaxConnectionsPerHost;
+	private final int fMaxThreads;
+
+	private final Map<String, Semaphore> fHostPermits = new ConcurrentHashMap<>();
+	private final Map<String, Validator> fValidators = new ConcurrentHashMap<>(); // URL -> validator of the last response
+	private File fStateFile = null;
+	private volatile boolean fStateChanged = false;
+
+	/**
+	 * Opens connections to download URLs, for example with proxy settings applied
+	 */
+	@FunctionalInterface
+	public interface IConnectionFactory {
+		/**
+		 * Opens a connection to the URL, does not connect yet
+		 * @param url URL to open
+		 * @return URLConnection
+		 * @throws IOException
+		 */
+		URLConnection openConnection(URL url) throws IOException;
+	}
+
+	/**
+	 * Notified on the calling thread of {@link PackDownloadManager#downloadAll(Map, boolean, IProgressMonitor, IDownloadListener)}
+	 * each time a download is finished
+	 */
+	@FunctionalInterface
+	public interface IDownloadListener {
+		/**
+		 * Called when a download is finished
+		 * @param url source URL
+		 * @param destFile destination file
+		 * @param error IOException if the download failed, null if it succeeded
+		 */
+		void downloadFinished(String url, File destFile, IOException error);
+	}
+
+	/**
+	 * ETag and Last-Modified of a response and the length of the file written from it
+	 */
+	private static class Validator {
+		final String etag;
+		final String lastModified;
+		final long length; // -1 if the file is not complete yet
+
+		Validator(String etag, String lastModified, long length) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		boolean isEmpty() {
+			return etag == null && lastModified == null;
+		}
+
+		/**
+		 * Returns value for the If-Range header, weak ETags are not allowed there
+		 * @return strong ETag or Last-Modified, null if none
+		 */
+		String getRangeValidator() {
+			if (etag != null && !etag.startsWith("W/")) { //$NON-NLS-1$
+				return etag;
+			}
+			return lastModified;
+		}
+
+		@Override
+		public String toString() {
+			return length + "\t" + toString(etag) + '\t' + toString(lastModified); //$NON-NLS-1$
+		}
+
+		static String toString(String s) {
+			return s != null ? s : CmsisConstants.EMPTY_STRING;
+		}
+
+		static Validator fromString(String s) {
+			String[] values = s.split("\t", -1); //$NON-NLS-1$
+			if (values.length != 3) {
+				return null;
+			}
+			try {
+				return new Validator(values[1].isEmpty() ? null : values[1],
+						values[2].isEmpty() ? null : values[2], Long.parseLong(values[0]));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Receives progress of a single download, may be called on a worker thread
+	 */
+	private interface ITransferProgress {
+		void started(long length);
+		void transferred(long bytes);
+		boolean isCanceled();
+	}
+
+	/**
+	 * Reports progress of a download on the calling thread: 10% for connecting, 90% for the transfer
+	 */
+	private static class MonitorProgress implements ITransferProgress {
+		private final SubMonitor progress;
+		private SubMonitor transferProgress = null;
+
+		MonitorProgress(IProgressMonitor monitor) {
+			progress = SubMonitor.convert(monitor, 100);
+		}
+
+		@Override
+		public void started(long length) {
+			progress.worked(10);
+			int totalWork = length >= 0 && length <= Integer.MAX_VALUE ? (int) length : IProgressMonitor.UNKNOWN;
+			transferProgress = SubMonitor.convert(progress.newChild(90), totalWork);
+		}
+
+		@Override
+		public void transferred(long bytes) {
+			if (transferProgress != null) {
+				transferProgress.worked((int) bytes);
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return progress.isCanceled();
+		}
+	}
+
+	/**
+	 * Shared by all downloads of a batch, workers only check for cancellation
+	 */
+	private static class BatchProgress implements ITransferProgress {
+		private volatile boolean cancelled = false;
+
+		void cancel() {
+			cancelled = true;
+		}
+
+		@Override
+		public void started(long length) {
+		}
+
+		@Override
+		public void transferred(long bytes) {
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Outcome of a download in a batch
+	 */
+	private static class Result {
+		final String url;
+		final File destFile;
+		final File file;
+		final IOException error;
+
+		Result(String url, File destFile, File file, IOException error) {
+			this.url = url;
+			this.destFile = destFile;
+			this.file = file;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Creates download manager with default limits
+	 * @param connectionFactory IConnectionFactory to open connections
+	 * @param timeout connect and read timeout in milliseconds
+	 */
+	public PackDownloadManager(IConnectionFactory connectionFactory, int timeout) {
+		this(connectionFactory, timeout, MAX_CONNECTIONS_PER_HOST, MAX_THREADS);
+	}
+
+	/**
+	 * Creates download manager
+	 * @param connectionFactory IConnectionFactory to open connections
+	 * @param timeout connect and read timeout in milliseconds
+	 * @param maxConnectionsPerHost maximum number of parallel connections to one host
+	 * @param maxThreads maximum number of parallel downloads in {@link #downloadAll(Map, boolean, IProgressMonitor, IDownloadListener)}
+	 */
+	public PackDownloadManager(IConnectionFactory connectionFactory, int timeout, int maxConnectionsPerHost, int maxThreads) {
+		fConnectionFactory = connectionFactory;
+		fTimeout = timeout;
+		fMaxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+		fMaxThreads = Math.max(1, maxThreads);
+	}
+
+	/**
+	 * Sets file to keep ETag and Last-Modified of downloaded URLs across sessions and loads it
+	 * @param stateFile properties file, null to keep them in memory only
+	 */
+	public synchronized void setStateFile(File stateFile) {
+		fStateFile = stateFile;
+		if (stateFile == null || !stateFile.exists()) {
+			return;
+		}
+		Properties properties = new Properties();
+		try (InputStream input = new FileInputStream(stateFile)) {
+			properties.load(input);
+		} catch (IOException e) {
+			printError(NLS.bind(Messages.PackDownloadManager_CannotReadState, stateFile, e.toString()));
+			return;
+		}
+		for (String url : properties.stringPropertyNames()) {
+			Validator validator = Validator.fromString(properties.getProperty(url));
+			if (validator != null) {
+				fValidators.putIfAbsent(url, validator);
+			}
+		}
+	}
+
+	/**
+	 * Downloads a file on the calling thread
+	 * @param url source URL
+	 * @param destFile destination file
+	 * @param resume true to continue an interrupted download from its <code>.part</code> file, false to delete the <code>.part</code> file if the download is cancelled or fails
+	 * @param monitor progress monitor, receives 100 units
+	 * @return destination file, also if it has not been modified on the server, null if cancelled
+	 * @throws IOException if the download fails, FileNotFoundException if the server responds with 404
+	 */
+	public File download(String url, File destFile, boolean resume, IProgressMonitor monitor) throws IOException {
+		try {
+			return download(url, destFile, resume, new MonitorProgress(monitor));
+		} finally {
+			saveState();
+		}
+	}
+
+	/**
+	 * Downloads files in parallel, at most {@link #MAX_CONNECTIONS_PER_HOST} connections to a host
+	 * @param downloads map of destination file to source URL
+	 * @param resume true to continue interrupted downloads from their <code>.part</code> files, false to delete the <code>.part</code> files of cancelled and failed downloads
+	 * @param monitor progress monitor, receives one unit of work per successful download, failed ones are accounted by the caller
+	 * @param listener IDownloadListener notified on the calling thread, can be null
+	 * @return map of destination file to IOException for failed downloads, empty if all succeeded or were cancelled
+	 */
+	public Map<File, IOException> downloadAll(Map<File, String> downloads, boolean resume,
+			IProgressMonitor monitor, IDownloadListener listener) {
+		Map<File, IOException> errors = new LinkedHashMap<>();
+		if (downloads.isEmpty()) {
+			return errors;
+		}
+		BatchProgress progress = new BatchProgress();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(fMaxThreads, downloads.size()), r -> {
+			Thread thread = new Thread(r, "CMSIS Pack Download " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+		for (Entry<File, String> entry : downloads.entrySet()) {
+			File destFile = entry.getKey();
+			String url = entry.getValue();
+			completionService.submit(() -> {
+				try {
+					return new Result(url, destFile, download(url, destFile, resume, progress), null);
+				} catch (IOException e) {
+					return new Result(url, destFile, null, e);
+				} catch (RuntimeException e) {
+					return new Result(url, destFile, null, new IOException(e));
+				}
+			});
+		}
+
+		try {
+			int remaining = downloads.size();
+			while (remaining > 0) {
+				if (monitor.isCanceled()) {
+					progress.cancel();
+					break;
+				}
+				Future<Result> future = completionService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				remaining--;
+				Result result;
+				try {
+					result = future.get();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+				if (result.error != null) {
+					errors.put(result.destFile, result.error);
+				} else if (result.file == null) {
+					continue; // cancelled
+				}
+				if (listener != null) {
+					listener.downloadFinished(result.url, result.destFile, result.error);
+				}
+				if (result.error == null) {
+					monitor.worked(1);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			progress.cancel();
+		} finally {
+			executor.shutdownNow(); // interrupts transfers still running after cancel
+			awaitTermination(executor); // they still update validators and part files
+			saveState();
+		}
+		return errors;
+	}
+
+	/**
+	 * Waits until interrupted transfers are finished, a blocked connection is released within the timeout
+	 * @param executor ExecutorService that has been shut down
+	 */
+	private void awaitTermination(ExecutorService executor) {
+		boolean interrupted = Thread.interrupted();
+		try {
+			executor.awaitTermination(2L * fTimeout + POLL_INTERVAL, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			interrupted = true;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private File download(String url, File destFile, boolean resume, ITransferProgress progress) throws IOException {
+		URL sourceUrl = new URL(url);
+		Semaphore permits = fHostPermits.computeIfAbsent(sourceUrl.getHost().toLowerCase(),
+				host -> new Semaphore(fMaxConnectionsPerHost, true));
+		try {
+			while (!permits.tryAcquire(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if (progress.isCanceled()) {
+					return null;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(Messages.CpPackJob_CancelledByUser);
+		}
+		try {
+			return transfer(url, sourceUrl, destFile, resume, progress);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private File transfer(String url, URL sourceUrl, File destFile, boolean resume, ITransferProgress progress) throws IOException {
+		File partFile = new File(destFile.getPath() + PART_EXT);
+		Validator validator = fValidators.get(url);
+		boolean conditional = validator != null && !validator.isEmpty()
+				&& destFile.exists() && validator.length == destFile.length();
+		long offset = 0;
+		if (!conditional && resume && validator != null && validator.length < 0
+				&& validator.getRangeValidator() != null && partFile.exists()) {
+			offset = partFile.length();
+		}
+
+		URLConnection connection = null;
+		boolean keepPartFile = resume;
+		try {
+			while (true) {
+				if (progress.isCanceled()) {
+					return null;
+				}
+				connection = connect(sourceUrl, conditional ? validator : null, offset > 0 ? validator : null, offset);
+				if (!(connection instanceof HttpURLConnection)) {
+					offset = 0;
+					break;
+				}
+				int responseCode = ((HttpURLConnection) connection).getResponseCode();
+				if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && conditional) {
+					return destFile;
+				} else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+					throw new FileNotFoundException(); // we do not supply a message here, it is processed by caller
+				} else if (responseCode == HttpURLConnection.HTTP_PARTIAL && offset > 0) {
+					String contentRange = connection.getHeaderField(CONTENT_RANGE);
+					if (contentRange != null && contentRange.startsWith(BYTES + ' ' + offset + '-')) {
+						break;
+					}
+				} else if (responseCode == HTTP_RANGE_NOT_SATISFIABLE && offset > 0) {
+					// part file does not match the file on the server
+				} else {
+					offset = 0; // full content or an error thrown by getInputStream()
+					break;
+				}
+				((HttpURLConnection) connection).disconnect();
+				connection = null;
+				offset = 0; // restart without range
+				conditional = false;
+			}
+
+			if (offset == 0) {
+				validator = new Validator(connection.getHeaderField(ETAG), connection.getHeaderField(LAST_MODIFIED), -1);
+				if (validator.isEmpty()) {
+					fValidators.remove(url);
+				} else {
+					fValidators.put(url, validator);
+				}
+				fStateChanged = true;
+			}
+
+			long length = connection.getContentLengthLong();
+			progress.started(length);
+			File parent = destFile.getParentFile();
+			if (parent != null && !parent.exists()) {
+				parent.mkdirs();
+			}
+			long position = offset;
+			try (ReadableByteChannel input = Channels.newChannel(connection.getInputStream());
+					FileChannel output = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				output.truncate(offset);
+				long count;
+				while ((count = output.transferFrom(input, position, TRANSFER_CHUNK_SIZE)) > 0) {
+					position += count;
+					progress.transferred(count);
+					// Check if the cancel button is pressed
+					if (progress.isCanceled()) {
+						return null; // part file is kept if resume is requested
+					}
+				}
+			}
+			if (length >= 0 && position < offset + length) {
+				throw new IOException(NLS.bind(Messages.PackDownloadManager_IncompleteDownload,
+						new Object[] { url, position, offset + length }));
+			}
+
+			if (destFile.exists()) {
+				destFile.setWritable(true, true);
+			}
+			Files.move(partFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			keepPartFile = true; // moved
+			if (!validator.isEmpty()) {
+				fValidators.put(url, new Validator(validator.etag, validator.lastModified, destFile.length()));
+				fStateChanged = true;
+			}
+			return destFile;
+		} finally {
+			if (connection instanceof HttpURLConnection) {
+				((HttpURLConnection) connection).disconnect();
+			}
+			if (!keepPartFile && partFile.exists()) {
+				partFile.delete(); // cancelled or failed download that is not resumed
+			}
+		}
+	}
+
+	/**
+	 * Opens connection and follows redirects
+	 * @param url URL to connect to
+	 * @param conditional validator to send a conditional GET, null for none
+	 * @param range validator to send as If-Range, null for no range request
+	 * @param offset first requested byte of a range request
+	 * @return connected URLConnection
+	 * @throws IOException
+	 */
+	private URLConnection connect(URL url, Validator conditional, Validator range, long offset) throws IOException {
+		for (int redirects = 0; ; redirects++) {
+			URLConnection connection = fConnectionFactory.openConnection(url);
+			connection.setConnectTimeout(fTimeout);
+			connection.setReadTimeout(fTimeout);
+			if (conditional != null) {
+				if (conditional.etag != null) {
+					connection.setRequestProperty(IF_NONE_MATCH, conditional.etag);
+				}
+				if (conditional.lastModified != null) {
+					connection.setRequestProperty(IF_MODIFIED_SINCE, conditional.lastModified);
+				}
+			} else if (range != null) {
+				connection.setRequestProperty(RANGE, BYTES + '=' + offset + '-');
+				connection.setRequestProperty(IF_RANGE, range.getRangeValidator());
+			}
+			if (!(connection instanceof HttpURLConnection)) {
+				return connection;
+			}
+			HttpURLConnection httpURLConnection = (HttpURLConnection) connection;
+			int responseCode = httpURLConnection.getResponseCode();
+			if (responseCode != HttpURLConnection.HTTP_MOVED_TEMP
+					&& responseCode != HttpURLConnection.HTTP_MOVED_PERM
+					&& responseCode != HttpURLConnection.HTTP_SEE_OTHER) {
+				return connection;
+			}
+			String location = connection.getHeaderField(CmsisConstants.REPO_LOCATION);
+			httpURLConnection.disconnect();
+			if (location == null || redirects >= MAX_REDIRECTS) {
+				throw new IOException(NLS.bind(Messages.PackDownloadManager_TooManyRedirects, url));
+			}
+			url = new URL(url, location);
+		}
+	}
+
+	private synchronized void saveState() {
+		if (!fStateChanged || fStateFile == null) {
+			return;
+		}
+		fStateChanged = false;
+		Properties properties = new Properties();
+		for (Entry<String, Validator> entry : fValidators.entrySet()) {
+			properties.setProperty(entry.getKey(), entry.getValue().toString());
+		}
+		try (OutputStream output = new FileOutputStream(fStateFile)) {
+			properties.store(output, null);
+		} catch (IOException e) {
+			printError(NLS.bind(Messages.PackDownloadManager_CannotWriteState, fStateFile, e.toString()));
+		}
+	}
+
+	/**
+	 * Prints error message in the pack installer console, does nothing if not running in the workbench
+	 * @param message error message
+	 */
+	private static void printError(String message) {
+		ICpPackManager packManager = CpPlugIn.getPackManager();
+		ICpPackInstaller packInstaller = packManager != null ? packManager.getPackInstaller() : null;
+		if (packInstaller != null) {
+			packInstaller.printInConsole(message, ConsoleType.ERROR);
+		}
+	}
+}
@@ -56,6 +56,7 @@ public class Messages extends NLS {
 	public static String ProjectSelectionDialog_RteProjectSelectionDialog;
 	public static String ProjectSelectionDialog_SelectRteProject;
 	public static String ProjectUtils_CannotCopyFile;
+	public static String ProjectUtils_CannotWriteFile;
 	public static String ProjectUtils_DoesNotExistsOrNotAccessible;
 	public static String ProjectUtils_Project;
 	public static String ProjectUtils_ProjectfolderMustBeRelative;
@@ -66,6 +67,7 @@ public class Messages extends NLS {
 	public static String RteConfiguration_DeviceHeader;
 	public static String RteProjectManager_ReloadRteProjectMessage;
 	public static String RteProjectManager_ReloadRteProjectTitle;
+	public static String RteProjectManager_UpdatingRteProjects;
 	public static String RteProjectRenameParticipant_CheckingPreconditions;
 	public static String RteProjectRenameParticipant_CMSIS_RTE_project_rename_handler;
 	public static String RteProjectRenameParticipant_CreatingChange;
@@ -14,9 +14,11 @@
 
 package com.arm.cmsis.pack.project;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.commands.ExecutionEvent;
@@ -33,6 +35,11 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.ui.ISelectionService;
 import org.eclipse.ui.commands.ICommandService;
@@ -56,6 +63,21 @@ public class RteProjectManager extends RteEventProxy implements IResourceChangeL
 
 	private boolean executionListenerRegistered = false;
 	boolean postponeRefresh = false;
+
+	// scheduled updaters that are not yet running, repeated requests for the same project are merged into them
+	private Map<IProject, RteProjectUpdater> pendingUpdates = new HashMap<>();
+	private IJobChangeListener updateListener = new JobChangeAdapter() {
+		@Override
+		public void running(IJobChangeEvent event) {
+			dequeueUpdate((RteProjectUpdater) event.getJob());
+		}
+
+		@Override
+		public void done(IJobChangeEvent event) {
+			dequeueUpdate((RteProjectUpdater) event.getJob()); // cancelled before running
+		}
+	};
+
 	/**
 	 *  Default constructor
 	 */
@@ -230,26 +252,30 @@ public class RteProjectManager extends RteEventProxy implements IResourceChangeL
 
 
 	protected void refreshProjects() {
+		List<IRteProject> projects = new ArrayList<>();
 		synchronized(rteProjects) {
 			for(IRteProject rteProject : rteProjects.values()) {
 				if (rteProject.getProject().isOpen()) {
-					rteProject.refresh();
+					projects.add(rteProject);
 				}
 			}
 		}
+		updateProjects(projects, RteProjectUpdater.LOAD_CONFIGS);
 	}
 
 	protected void refreshGpdscProjects(String file) {
+		List<IRteProject> projects = new ArrayList<>();
 		synchronized(rteProjects) {
 			for(IRteProject rteProject : rteProjects.values()) {
 				if (rteProject.getProject().isOpen()) {
 					IRteConfiguration rteConf = rteProject.getRteConfiguration();
 					if(rteConf != null && rteConf.isGeneratedPackUsed(file)) {
-						rteProject.refresh();
+						projects.add(rteProject);
 					}
 				}
 			}
 		}
+		updateProjects(projects, RteProjectUpdater.LOAD_CONFIGS);
 	}
 
 	@Override
@@ -365,18 +391,90 @@ public class RteProjectManager extends RteEventProxy implements IResourceChangeL
 		}
 	}
 
-	synchronized public void updateProject(IRteProject rteProject, int updateFlags) {
+	/**
+	 * Schedules update of an RTE project, a request is merged into a pending update of the same project if any
+	 * @param rteProject IRteProject to update
+	 * @param updateFlags combination of RteProjectUpdater flags
+	 */
+	public void updateProject(IRteProject rteProject, int updateFlags) {
+		RteProjectUpdater updater = createUpdater(rteProject, updateFlags);
+		if(updater != null) {
+			updater.schedule();
+		}
+	}
+
+	/**
+	 * Schedules update of several RTE projects reporting their aggregate progress.
+	 * Updates of different projects run in parallel sharing loaded packs and cached condition results.
+	 * @param projects collection of IRteProject to update
+	 * @param updateFlags combination of RteProjectUpdater flags
+	 */
+	public void updateProjects(Collection<IRteProject> projects, int updateFlags) {
+		final List<RteProjectUpdater> updaters = new ArrayList<>();
+		for(IRteProject rteProject : projects) {
+			RteProjectUpdater updater = createUpdater(rteProject, updateFlags);
+			if(updater != null) {
+				updaters.add(updater);
+			}
+		}
+		if(updaters.size() > 1) {
+			final IProgressMonitor progressGroup = Job.getJobManager().createProgressGroup();
+			progressGroup.beginTask(Messages.RteProjectManager_UpdatingRteProjects, updaters.size());
+			IJobChangeListener groupListener = new JobChangeAdapter() {
+				private int remaining = updaters.size();
+				@Override
+				public synchronized void done(IJobChangeEvent event) {
+					remaining--;
+					if(remaining == 0) {
+						progressGroup.done();
+					}
+				}
+			};
+			for(RteProjectUpdater updater : updaters) {
+				updater.setProgressGroup(progressGroup, 1);
+				updater.addJobChangeListener(groupListener);
+			}
+		}
+		for(RteProjectUpdater updater : updaters) {
+			updater.schedule();
+		}
+	}
+
+	/**
+	 * Creates an updater for the project or merges the request into a pending one
+	 * @return new RteProjectUpdater to schedule or null if the request is merged or the project is not open
+	 */
+	protected RteProjectUpdater createUpdater(IRteProject rteProject, int updateFlags) {
 		if(rteProject == null) {
-			return;
+			return null;
 		}
 		IProject project = rteProject.getProject();
 		if(project == null || !project.isOpen()) {
-			return;
+			return null;
 		}
 
 		rteProject.setUpdateCompleted(false);
-		RteProjectUpdater updater = new RteProjectUpdater(rteProject, updateFlags);
-		updater.schedule();
+		synchronized(pendingUpdates) {
+			RteProjectUpdater pending = pendingUpdates.get(project);
+			if(pending != null) {
+				pending.addUpdateFlags(updateFlags);
+				return null;
+			}
+			RteProjectUpdater updater = new RteProjectUpdater(rteProject, updateFlags);
+			updater.addJobChangeListener(updateListener);
+			pendingUpdates.put(project, updater);
+			return updater;
+		}
+	}
+
+	/**
+	 * Removes updater from pending ones: requests arriving after it starts need a new update
+	 * @param updater RteProjectUpdater that starts running or is done
+	 */
+	protected void dequeueUpdate(RteProjectUpdater updater) {
+		synchronized(pendingUpdates) {
+			pendingUpdates.remove(updater.project, updater);
+		}
 	}
 
 	/**
@@ -3,10 +3,13 @@ package com.arm.cmsis.pack.project;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
@@ -77,6 +80,7 @@ public class RteProjectUpdater extends WorkspaceJob {
 	protected RteProjectStorage projectStorage = null; 
 	protected IRteToolChainAdapter toolChainAdapter = null;
 	protected IAttributes rteOptionsFromToolchain = null;
+	protected Map<String, Boolean> excludeFromBuild = null; // desired exclude states of RTE files, applied in one step
 	
 
 	public RteProjectUpdater(IRteProject rteProject, int updateFlags) {
@@ -84,16 +88,35 @@ public class RteProjectUpdater extends WorkspaceJob {
 		this.rteProject = rteProject;
 		this.project = rteProject.getProject();
 		this.updateFlags = updateFlags;
-		bLoadConfigs = (updateFlags & LOAD_CONFIGS) == LOAD_CONFIGS;
-		bForceUpdateToolchain = (updateFlags & UPDATE_TOOLCHAIN) == UPDATE_TOOLCHAIN;
-		bDeleteConfigFiles = (updateFlags & CLEANUP_RTE_FILES) == CLEANUP_RTE_FILES;
 
+		// updates of the same project are serialized, independent projects are updated in parallel
 		IWorkspace workspace = ResourcesPlugin.getWorkspace();
-		setRule(workspace.getRoot()); // ensures synch update
+		setRule(project != null ? project : workspace.getRoot());
 
 		rteConsole = RteConsole.openConsole(project);
 	}
 
+	/**
+	 * Merges flags of a coalesced update request, only called before the job starts running
+	 * @param flags additional update flags
+	 */
+	public synchronized void addUpdateFlags(int flags) {
+		updateFlags |= flags;
+	}
+
+	/**
+	 * Returns update flags
+	 * @return combination of LOAD_CONFIGS, UPDATE_TOOLCHAIN and CLEANUP_RTE_FILES flags
+	 */
+	public synchronized int getUpdateFlags() {
+		return updateFlags;
+	}
+
+	@Override
+	public boolean belongsTo(Object family) {
+		return family == RteProjectUpdater.class;
+	}
+
 	@Override
 	public IStatus runInWorkspace(IProgressMonitor monitor) {
 		if (project == null || rteProject == null) {
@@ -103,6 +126,10 @@ public class RteProjectUpdater extends WorkspaceJob {
 		}
 
 		this.monitor = monitor;
+		int flags = getUpdateFlags();
+		bLoadConfigs = (flags & LOAD_CONFIGS) == LOAD_CONFIGS;
+		bForceUpdateToolchain = (flags & UPDATE_TOOLCHAIN) == UPDATE_TOOLCHAIN;
+		bDeleteConfigFiles = (flags & CLEANUP_RTE_FILES) == CLEANUP_RTE_FILES;
 		bSaveProject = false;
 		Status status = null;
 		EEvaluationResult res = EEvaluationResult.FULFILLED;
@@ -133,8 +160,11 @@ public class RteProjectUpdater extends WorkspaceJob {
 				res = loadConfigFile();
 			}
 			// rteConsole.outputInfo(Messages.RteProjectUpdater_UpdatingResources);
+			excludeFromBuild = new LinkedHashMap<String, Boolean>();
 			addResources();
 			removeResources();
+			ProjectUtils.setExcludeFromBuild(project, excludeFromBuild); // single source entries update
+			excludeFromBuild = null;
 
 			updateRteComponentsH();
 
@@ -144,7 +174,7 @@ public class RteProjectUpdater extends WorkspaceJob {
 			if (bSaveProject) {
 				rteProject.save();
 			}
-			project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+			project.refreshLocal(IResource.DEPTH_ONE, monitor); // RTE folder is already refreshed
 			updateIndex();
 
 		} catch (CoreException e) {
@@ -308,6 +338,9 @@ public class RteProjectUpdater extends WorkspaceJob {
 	 */
 	protected void removeResources() throws CoreException {
 		IResource rteFolder = project.findMember(CmsisConstants.RTE);
+		if (rteFolder != null) {
+			rteFolder.refreshLocal(IResource.DEPTH_INFINITE, monitor); // the only deep refresh of an update
+		}
 		removeResources(rteFolder);
 	}
 
@@ -325,10 +358,10 @@ public class RteProjectUpdater extends WorkspaceJob {
 				} else if (bDeleteConfigFiles) {
 					res.delete(IResource.FORCE | IResource.KEEP_HISTORY, monitor);
 				} else {
-					ProjectUtils.setExcludeFromBuild(project, dstFile, true);
+					setExcludeFromBuild(dstFile, true);
 				}
-			} else if (ProjectUtils.isExcludedFromBuild(project, dstFile)) {
-				ProjectUtils.setExcludeFromBuild(project, dstFile, false);
+			} else {
+				setExcludeFromBuild(dstFile, false);
 			}
 		} else if (res.getType() == IResource.FOLDER) {
 			IFolder f = (IFolder) res;
@@ -336,7 +369,6 @@ public class RteProjectUpdater extends WorkspaceJob {
 			for (IResource r : members) {
 				removeResources(r);
 			}
-			f.refreshLocal(IResource.DEPTH_INFINITE, monitor);
 			if (!f.getName().equals(CmsisConstants.RTE) && f.members().length == 0) {
 				f.delete(true, true, null);
 			}
@@ -357,7 +389,20 @@ public class RteProjectUpdater extends WorkspaceJob {
 	protected void addResources() throws CoreException {
 		IRteConfiguration rteConf = rteProject.getRteConfiguration();
 		addResources(rteConf);
-		project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+	}
+
+	/**
+	 * Sets exclude from build state of an RTE file: immediately or, during resource update, with all other files at once
+	 * @param dstFile project relative file path
+	 * @param bExclude true to exclude the file from build
+	 * @throws CoreException
+	 */
+	protected void setExcludeFromBuild(String dstFile, boolean bExclude) throws CoreException {
+		if (excludeFromBuild != null) {
+			excludeFromBuild.put(dstFile, bExclude);
+		} else if (ProjectUtils.isExcludedFromBuild(project, dstFile) != bExclude) {
+			ProjectUtils.setExcludeFromBuild(project, dstFile, bExclude);
+		}
 	}
 
 	protected void addResources(IRteConfiguration rteConf) throws CoreException {
@@ -433,9 +478,7 @@ public class RteProjectUpdater extends WorkspaceJob {
 				ProjectUtils.createLink(project, srcFile, dstFile, monitor);
 			}
 		}
-		if (ProjectUtils.isExcludedFromBuild(project, dstFile)) {
-			ProjectUtils.setExcludeFromBuild(project, dstFile, false);
-		}
+		setExcludeFromBuild(dstFile, false);
 	}
 
 	public void updateFileVersion(String projectRelativePath, String version, boolean bForce) {
@@ -453,18 +496,15 @@ public class RteProjectUpdater extends WorkspaceJob {
 
 	public void updateRteComponentsH() throws CoreException {
 		// ensure resource exists
-		try {
-			IFile f = ProjectUtils.createFile(project, CmsisConstants.RTE_RTE_Components_h, monitor);
-			IPath p = f.getLocation();
-			p.toFile().setWritable(true);
-			PrintWriter pw = new PrintWriter(p.toOSString());
-			writeRteComponentsHhead(pw);
-			writeRteComponentsHbody(pw);
-			writeRteComponentsHtail(pw);
-			pw.close();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		}
+		IFile f = ProjectUtils.createFile(project, CmsisConstants.RTE_RTE_Components_h, monitor);
+		// generate content in memory and write the file only if it changes : otherwise all sources including it are rebuilt
+		StringWriter sw = new StringWriter();
+		PrintWriter pw = new PrintWriter(sw);
+		writeRteComponentsHhead(pw);
+		writeRteComponentsHbody(pw);
+		writeRteComponentsHtail(pw);
+		pw.close();
+		ProjectUtils.writeFile(f, sw.toString().getBytes(Charset.defaultCharset()), monitor);
 	}
 
 	protected void writeRteComponentsHbody(PrintWriter pw) {
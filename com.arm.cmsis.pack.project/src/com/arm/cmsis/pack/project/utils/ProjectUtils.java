@@ -13,12 +13,19 @@ package com.arm.cmsis.pack.project.utils;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.cdt.core.model.CModelException;
 import org.eclipse.cdt.core.model.CoreModel;
@@ -132,6 +139,46 @@ public class ProjectUtils {
 	}
 
 
+	/**
+	 * Writes content to a project file if it differs from the current file content.
+	 * The content is written to a temporary file that is then moved to the destination,
+	 * an unchanged file keeps its time stamp and does not trigger a rebuild.
+	 * @param file IFile to write, its folder must exist
+	 * @param content new file content
+	 * @param monitor IProgressMonitor
+	 * @return true if the file has been written, false if it already has the content
+	 * @throws CoreException
+	 */
+	public static boolean writeFile(IFile file, byte[] content, IProgressMonitor monitor) throws CoreException {
+		File f = file.getLocation().toFile();
+		File tmp = null;
+		try {
+			if(f.isFile() && f.length() == content.length && Arrays.equals(Files.readAllBytes(f.toPath()), content)) {
+				return false;
+			}
+			tmp = File.createTempFile(f.getName(), ".tmp", f.getParentFile()); //$NON-NLS-1$
+			Files.write(tmp.toPath(), content);
+			if(f.exists()) {
+				f.setWritable(true);
+			}
+			try {
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			String msg = Messages.ProjectUtils_CannotWriteFile + f.getAbsolutePath() + '\'';
+			Status status = new Status(IStatus.ERROR, CpProjectPlugIn.PLUGIN_ID, msg, e);
+			throw new CoreException(status);
+		} finally {
+			if(tmp != null) {
+				tmp.delete(); // does nothing if already moved
+			}
+		}
+		file.refreshLocal(IResource.DEPTH_ZERO, monitor);
+		return true;
+	}
+
 	/**
 	 * Copy a local file to a local project folder.
 	 * Destination file name can be different than the source one.
@@ -187,28 +234,25 @@ public class ProjectUtils {
 		}
 
 		try {
+			byte[] content;
 			if(index < 0) {
-				FileInputStream fileStream = new FileInputStream(inputfile);
-				if(file.exists()) {
-					file.delete(true, true, null);
-				}
-				file.create(fileStream,  true, null);
-				fileStream.close();
+				content = Files.readAllBytes(inputfile.toPath());
 			} else {
-				FileReader fr = new FileReader(inputfile);
-				IPath p = file.getLocation();
-				PrintWriter pw = new PrintWriter(p.toOSString());
+				// expand instance placeholders in memory
+				StringWriter sw = new StringWriter();
+				PrintWriter pw = new PrintWriter(sw);
 				String instance = String.valueOf(index);
-				BufferedReader br = new BufferedReader(fr);
+				BufferedReader br = new BufferedReader(new FileReader(inputfile));
 				String s;
 				while ((s = br.readLine()) != null) {
-					s = s.replaceAll(CmsisConstants.pINSTANCEp, instance);
+					s = s.replace(CmsisConstants.pINSTANCEp, instance);
 					pw.println(s);
 				}
-				fr.close();
+				br.close();
 				pw.close();
-				file.refreshLocal(IResource.DEPTH_INFINITE, null);
+				content = sw.toString().getBytes(Charset.defaultCharset());
 			}
+			writeFile(file, content, monitor); // unchanged file is not touched
 		} catch ( IOException e) {
 			e.printStackTrace();
 			String msg = Messages.ProjectUtils_CannotCopyFile + srcFile  + Messages.ProjectUtils_to + dstFile;
@@ -250,6 +294,9 @@ public class ProjectUtils {
 		IFile file = project.getFile(dstFile);
 
 		IPath path = new Path(srcFile);
+		if (file.isLinked() && path.equals(file.getRawLocation())) {
+			return; // link is up to date
+		}
 		file.createLink(path, IResource.REPLACE, monitor);
 	}
 
@@ -523,6 +570,41 @@ public class ProjectUtils {
 		activeConfig.setSourceEntries(sourceEntries);
 	}
 
+	/**
+	 * Sets exclude from build state of several folders or files at once. 
+	 * Source entries of the active configuration are read once and written only if changed
+	 * @param project the project
+	 * @param excludeStates map of resource paths relative to the project to exclude flags
+	 * @return true if source entries have been changed
+	 * @throws CoreException
+	 */
+	static public boolean setExcludeFromBuild(IProject project, Map<String, Boolean> excludeStates) throws CoreException {
+		if (excludeStates == null || excludeStates.isEmpty()) {
+			return false;
+		}
+		IManagedBuildInfo buildInfo = ManagedBuildManager.getBuildInfo(project);
+		if (buildInfo == null) {
+			// not a MBS project
+			return false;
+		}
+		IConfiguration activeConfig = buildInfo.getDefaultConfiguration();
+		ICSourceEntry[] sourceEntries = activeConfig.getSourceEntries();
+		boolean bChanged = false;
+		for (Entry<String, Boolean> e : excludeStates.entrySet()) {
+			IPath path = new Path(e.getKey());
+			boolean bExclude = e.getValue();
+			if (CDataUtil.isExcluded(path, sourceEntries) == bExclude) {
+				continue; // already in desired state
+			}
+			sourceEntries = CDataUtil.setExcluded(path, false, bExclude, sourceEntries);
+			bChanged = true;
+		}
+		if (bChanged) {
+			activeConfig.setSourceEntries(sourceEntries);
+		}
+		return bChanged;
+	}
+
 	/**
 	 * Check if a folder or file is excluded from build
 	 * @param project the project
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2016 ARM Ltd. and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * ARM Ltd and ARM Germany GmbH - Initial API and implementation
+ *******************************************************************************/
+
+package com.arm.cmsis.pack.refclient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.arm.cmsis.pack.dsq.DsqCommandBuffer;
+import com.arm.cmsis.pack.dsq.DsqException;
+import com.arm.cmsis.pack.dsq.IDsqClient;
+import com.arm.cmsis.pack.dsq.IDsqCommand;
+
+/**
+ * Debug Sequence client wrapper that simulates probe latency: each execute call costs a round trip delay,
+ * each command an additional per command delay. Counts round trips and commands to measure pipelining savings.
+ */
+public class DelayingDebugSeqClient implements IDsqClient {
+
+	private final IDsqClient client;
+	private final long roundTripNanos;
+	private final long commandNanos;
+	private boolean pipeliningSupported;
+
+	private long roundTrips = 0;
+	private long commandCount = 0;
+
+	/**
+	 * Wraps a {@link RefDebugSeqClient}
+	 * @param roundTripMicros delay per execute call in microseconds
+	 */
+	public DelayingDebugSeqClient(long roundTripMicros) {
+		this(new RefDebugSeqClient(), roundTripMicros, 0);
+	}
+
+	/**
+	 * Wraps a client
+	 * @param client IDsqClient to execute commands
+	 * @param roundTripMicros delay per execute call in microseconds
+	 * @param commandMicros delay per command in microseconds
+	 */
+	public DelayingDebugSeqClient(IDsqClient client, long roundTripMicros, long commandMicros) {
+		this.client = client;
+		this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+		this.commandNanos = TimeUnit.MICROSECONDS.toNanos(commandMicros);
+		this.pipeliningSupported = client.isPipeliningSupported();
+	}
+
+	@Override
+	public void execute(List<IDsqCommand> commands, boolean atomic) throws DsqException {
+		roundTrips++;
+		commandCount += commands.size();
+		delay(roundTripNanos + commandNanos * commands.size());
+		client.execute(commands, atomic);
+	}
+
+	@Override
+	public void execute(DsqCommandBuffer commands, boolean atomic) throws DsqException {
+		roundTrips++;
+		commandCount += commands.size();
+		delay(roundTripNanos + commandNanos * commands.size());
+		client.execute(commands, atomic);
+	}
+
+	@Override
+	public long query(long type, String message, long defaultValue) throws DsqException {
+		roundTrips++;
+		delay(roundTripNanos);
+		return client.query(type, message, defaultValue);
+	}
+
+	@Override
+	public boolean isPipeliningSupported() {
+		return pipeliningSupported;
+	}
+
+	/**
+	 * Enables or disables pipelining to compare both modes with the same wrapped client
+	 * @param supported value returned by {@link #isPipeliningSupported()}
+	 */
+	public void setPipeliningSupported(boolean supported) {
+		pipeliningSupported = supported;
+	}
+
+	/**
+	 * Returns number of execute and query calls since creation or last {@link #reset()}
+	 * @return number of simulated round trips
+	 */
+	public long getRoundTrips() {
+		return roundTrips;
+	}
+
+	/**
+	 * Returns number of executed commands since creation or last {@link #reset()}
+	 * @return number of commands
+	 */
+	public long getCommandCount() {
+		return commandCount;
+	}
+
+	/**
+	 * Resets counters
+	 */
+	public void reset() {
+		roundTrips = 0;
+		commandCount = 0;
+	}
+
+	private static void delay(long nanos) throws DsqException {
+		if (nanos <= 0) {
+			return;
+		}
+		long end = System.nanoTime() + nanos;
+		long remaining = nanos;
+		try {
+			while (remaining > 0) {
+				TimeUnit.NANOSECONDS.sleep(remaining);
+				remaining = end - System.nanoTime();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DsqException("Interrupted"); //$NON-NLS-1$
+		}
+	}
+}
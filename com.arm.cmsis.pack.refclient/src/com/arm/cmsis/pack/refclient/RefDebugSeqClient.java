@@ -13,6 +13,7 @@ package com.arm.cmsis.pack.refclient;
 
 import java.util.List;
 
+import com.arm.cmsis.pack.dsq.DsqCommandBuffer;
 import com.arm.cmsis.pack.dsq.DsqException;
 import com.arm.cmsis.pack.dsq.IDsqClient;
 import com.arm.cmsis.pack.dsq.IDsqCommand;
@@ -32,9 +33,22 @@ public class RefDebugSeqClient implements IDsqClient {
 		}
 	}
 
+	@Override
+	public void execute(DsqCommandBuffer commands, boolean atomic) throws DsqException {
+		for (int i = 0; i < commands.size(); i++) {
+			commands.get(i).setOutput(commandResult);
+			commandResult = Long.rotateLeft(commandResult, 1);
+		}
+	}
+
 	@Override
 	public long query(long type, String message, long defaultValue) throws DsqException {
 		return 1;
 	}
 
+	@Override
+	public boolean isPipeliningSupported() {
+		return true;
+	}
+
 }
@@ -31,6 +31,7 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
@@ -370,8 +371,13 @@ public class DeviceTreeView extends ViewPart implements IRteEventListener{
 	
 	@Override
 	public void handle(RteEvent event) {
-		if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) 
-			refresh();
+		if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) {
+			// pack events can arrive from a background thread
+			Display.getDefault().asyncExec(() -> {
+				if(!viewer.getControl().isDisposed())
+					refresh();
+			});
+		}
 	}
 
 	@Override
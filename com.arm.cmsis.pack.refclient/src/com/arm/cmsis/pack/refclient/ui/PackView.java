@@ -13,6 +13,10 @@ package com.arm.cmsis.pack.refclient.ui;
 
 import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -30,6 +34,7 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
@@ -48,6 +53,7 @@ import com.arm.cmsis.pack.data.ICpDeviceItem;
 import com.arm.cmsis.pack.data.ICpFile;
 import com.arm.cmsis.pack.data.ICpItem;
 import com.arm.cmsis.pack.data.ICpPack;
+import com.arm.cmsis.pack.data.ICpPackCollection;
 import com.arm.cmsis.pack.data.ICpPackFamily;
 import com.arm.cmsis.pack.events.IRteEventListener;
 import com.arm.cmsis.pack.events.RteEvent;
@@ -73,6 +79,7 @@ public class PackView extends ViewPart implements IRteEventListener {
 	private Action expandAction;
 	private Action collapseAction;
 	Action doubleClickAction;
+	private Job refreshJob = null; // loads the packs for the viewer input
 
 	ICpItem getCpItem(Object obj) {
 		if (obj instanceof ICpItem) {
@@ -237,11 +244,32 @@ public class PackView extends ViewPart implements IRteEventListener {
 	protected void refresh() {
 		if(CpPlugIn.getDefault() == null)
 			return;
-		ICpPackManager packManager = CpPlugIn.getPackManager();
-		if(packManager != null)
-			viewer.setInput(packManager.getInstalledPacks());
-		else 
+		final ICpPackManager packManager = CpPlugIn.getPackManager();
+		if(packManager == null) {
 			viewer.setInput(null);
+			return;
+		}
+		if(refreshJob != null)
+			refreshJob.cancel(); // its result is outdated
+		// the view shows complete pack trees: load them in the background and set the input when done
+		refreshJob = new Job(CpStringsUI.PackView_LoadingPacks) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				ICpPackCollection packs = packManager.getInstalledPacks();
+				if(packs != null)
+					packManager.materializePacks(packs.getPacks());
+				if(monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				final Job job = this;
+				Display.getDefault().asyncExec(() -> {
+					if(job == refreshJob && !viewer.getControl().isDisposed())
+						viewer.setInput(packs);
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		refreshJob.setSystem(true);
+		refreshJob.schedule();
 	}
 	
 	private void hookContextMenu() {
@@ -349,13 +377,20 @@ public class PackView extends ViewPart implements IRteEventListener {
 
 	@Override
 	public void handle(RteEvent event) {
-		if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) 
-			refresh();
+		if(event.getTopic().equals(RteEvent.PACKS_RELOADED)) {
+			// pack events can arrive from a background thread
+			Display.getDefault().asyncExec(() -> {
+				if(!viewer.getControl().isDisposed())
+					refresh();
+			});
+		}
 	}
 
 	@Override
 	public void dispose() {
 		CpPlugIn.removeRteListener(this);
+		if(refreshJob != null)
+			refreshJob.cancel();
 		super.dispose();
 	}
 	
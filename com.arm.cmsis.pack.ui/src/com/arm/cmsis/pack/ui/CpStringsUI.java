@@ -93,6 +93,7 @@ public class CpStringsUI extends NLS {
 	public static String RteManagerWidget_Components;
 	public static String RteManagerWidget_ExpandAllSelected;
 	public static String PackView_Attributes;
+	public static String PackView_LoadingPacks;
 	public static String PackView_Tag;
 	public static String PackView_Text;
 	public static String Launch;
@@ -14,6 +14,7 @@ package com.arm.cmsis.pack.ui.editors;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 
 import com.arm.cmsis.pack.CpPlugIn;
 import com.arm.cmsis.pack.common.CmsisConstants;
@@ -161,16 +162,21 @@ public class RteModelEditor extends RteEditor<IRteModelController> {
 			return;
 		case RteEvent.PACKS_RELOADED:
 		case RteEvent.PACKS_UPDATED:
-			if (fModelController != null) {
-				fModelController.reloadPacks();
-			}
+			// pack events can arrive from a background thread, the model is only modified in the UI thread
+			Display.getDefault().asyncExec(() -> {
+				if (fModelController != null) {
+					fModelController.reloadPacks();
+				}
+			});
 			break;
 		case RteEvent.GPDSC_CHANGED:
-			if (fModelController != null) {
-				if(fModelController.isGeneratedPackUsed((String)event.getData())){
-					fModelController.update();
+			Display.getDefault().asyncExec(() -> {
+				if (fModelController != null) {
+					if(fModelController.isGeneratedPackUsed((String)event.getData())){
+						fModelController.update();
+					}
 				}
-			}
+			});
 			break;
 		default:
 		}
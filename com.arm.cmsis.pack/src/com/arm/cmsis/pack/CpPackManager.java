@@ -17,11 +17,26 @@ package com.arm.cmsis.pack;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -40,7 +55,9 @@ import com.arm.cmsis.pack.data.ICpPackFamily;
 import com.arm.cmsis.pack.events.IRteEventListener;
 import com.arm.cmsis.pack.events.IRteEventProxy;
 import com.arm.cmsis.pack.events.RteEvent;
+import com.arm.cmsis.pack.generic.AttributeIndex;
 import com.arm.cmsis.pack.generic.IAttributes;
+import com.arm.cmsis.pack.parser.CpItemCache;
 import com.arm.cmsis.pack.parser.ICpXmlParser;
 import com.arm.cmsis.pack.parser.PdscParser;
 import com.arm.cmsis.pack.preferences.CpPreferenceInitializer;
@@ -69,9 +86,11 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 	protected ICpPackFamily allErrorPacks = null; // error pack collection
 
 	protected ICpXmlParser pdscParser = null;
+	protected CpItemCache fItemCache = null; // snapshot of parsed pdsc files
 	protected IRteDeviceRoot allDevices = null;
 	protected IRteDeviceRoot allInstalledDevices = null;
 	protected Map<String, ICpBoard> allBoards = null;
+	protected AttributeIndex<ICpBoard> fBoardIndex = null; // boards of allBoards by attributes of their mounted and compatible devices
 	protected IRteBoardItem allRteBoards = null;
 	protected IRteExampleItem allExamples = null;
 	protected String cmsisPackRootDirectory = null;
@@ -80,17 +99,67 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 	protected boolean bPacksLoaded = false;
 	protected boolean bReloading = false; // reload is in progress
 	protected boolean bReloadPending = false; // reload is requested, but pack installer is still busy
+	protected boolean bReadHeaderOnly = false; // readPack() reads only the pack header, set while loading single files
 
 	protected IRteEventProxy fRteEventProxy = null;
 	protected ICpPackInstaller fPackInstaller = null;
 	protected CpRepositoryList fRepoList = null;
 
 	protected Map<String, ICpPack> fGeneratedPacks = null;
+	protected Map<String, ICpPack> fPdscPacks = new HashMap<String, ICpPack>(); // loaded pdsc files to their packs (including error packs)
+	protected Map<String, Long> fPdscTimestamps = new HashMap<String, Long>(); // pdsc files found in pack root to their modification times
 
 	protected ICpPack.PackState packState = PackState.UNKNOWN;
 
 	protected PackIdxWatcher packIdxWatcher = null;
 	protected GpdscWatcher gpdscWatcher = new GpdscWatcher();
+	protected ExecutorService fLoaderExecutor = null; // shared pool to load packs and their sections
+
+	/**
+	 * Thread pool that runs tasks submitted by its own threads on the submitting thread,
+	 * so that a task can wait for other tasks without occupying all threads of the bounded pool
+	 */
+	protected static class LoaderExecutor extends ThreadPoolExecutor {
+
+		protected static class LoaderThread extends Thread {
+			public LoaderThread(Runnable r, String name) {
+				super(r, name);
+				setDaemon(true);
+			}
+		}
+
+		public LoaderExecutor(int nThreads) {
+			super(nThreads, nThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					r -> new LoaderThread(r, "CMSIS Pack loader")); //$NON-NLS-1$
+			allowCoreThreadTimeOut(true); // no threads are kept when idle
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			if(Thread.currentThread() instanceof LoaderThread) {
+				command.run();
+			} else {
+				super.execute(command);
+			}
+		}
+	}
+
+	/**
+	 * Result of parsing a single pdsc file: the pack (if any) and the parser errors
+	 */
+	protected static class PdscParseResult {
+		protected final String file;
+		protected final ICpPack pack;
+		protected final List<String> errorStrings;
+		protected final int errorCount;
+
+		public PdscParseResult(String file, ICpPack pack, List<String> errorStrings, int errorCount) {
+			this.file = file;
+			this.pack = pack;
+			this.errorStrings = errorStrings;
+			this.errorCount = errorCount;
+		}
+	}
 
 	class PackIdxWatcher extends FileChangeWatcher {
 
@@ -124,7 +193,7 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 		protected void action(String file, int kind) {
 			if (fPackInstaller == null || !fPackInstaller.isBusy()) {
 				if(!isReloadPending()) {
-					reload();
+					reloadChanged();
 				}
 			}
 		}
@@ -211,6 +280,12 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 		}
 	}
 
+	protected void emitRteEvent(String topic, Object data) {
+		if(fRteEventProxy != null) {
+			fRteEventProxy.notifyListeners(new RteEvent(topic, data));
+		}
+	}
+
 	@Override
 	public void setPackInstaller(ICpPackInstaller packInstaller) {
 		fPackInstaller = packInstaller;
@@ -226,13 +301,49 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 	@Override
 	public boolean initParser(String xsdFile){
 		if(pdscParser == null) {
-			pdscParser = new PdscParser(xsdFile);
+			pdscParser = createParser(xsdFile);
 		} else {
 			pdscParser.setXsdFile(xsdFile);
 		}
 		return pdscParser.init();
 	}
 
+	/**
+	 * Creates a new parser instance, used for the main parser and by every parallel loading worker.
+	 * Subclasses using own parser implementation should override this method.
+	 * @param xsdFile schema file or null if no schema check should be used
+	 * @return created ICpXmlParser
+	 */
+	protected ICpXmlParser createParser(String xsdFile) {
+		ICpXmlParser parser = new PdscParser(xsdFile);
+		parser.setStreaming(true); // no DOM is needed to read packs
+		return parser;
+	}
+
+	/**
+	 * Returns pool shared by pack loading and other parallel work on pack data, creates it on first call
+	 * @return ExecutorService bounded by {@link #getLoadThreadCount()}, must not be shut down by callers
+	 */
+	@Override
+	public synchronized ExecutorService getLoaderExecutor() {
+		if(fLoaderExecutor == null) {
+			fLoaderExecutor = new LoaderExecutor(Math.max(1, getLoadThreadCount()));
+		}
+		return fLoaderExecutor;
+	}
+
+	/**
+	 * Returns number of worker threads to load pdsc files
+	 * @return number of threads, 1 means sequential loading
+	 */
+	protected int getLoadThreadCount() {
+		int nThreads = CpPreferenceInitializer.getPackLoadThreads();
+		if(nThreads <= 0) {
+			nThreads = Runtime.getRuntime().availableProcessors();
+		}
+		return nThreads;
+	}
+
 	@Override
 	synchronized public void clear() {
 		allPacks = null;
@@ -243,9 +354,12 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 		allDevices = null;
 		allInstalledDevices = null;
 		allBoards = null;
+		fBoardIndex = null;
 		allRteBoards = null;
 		allExamples = null;
 		fGeneratedPacks = null;
+		fPdscPacks.clear();
+		fPdscTimestamps.clear();
 		bPacksLoaded = false;
 		if(pdscParser != null) {
 			pdscParser.clear();
@@ -270,6 +384,275 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 		setReloading(false);
 	}
 
+	/**
+	 * Patches pack collections and derived trees in place.
+	 * Performs full reload if packs are not loaded yet or most of the files have changed.
+	 */
+	@Override
+	public void reloadChanged() {
+		if(isReloading()) {
+			return;
+		}
+		if(!arePacksLoaded() || allPacks == null) {
+			reload();
+			return;
+		}
+		setReloading(true);
+		boolean fullReload = false;
+		try {
+			Map<String, PackState> files = collectPdscFiles(cmsisPackRootDirectory);
+			Map<String, PackState> added = new LinkedHashMap<String, PackState>();
+			Map<String, PackState> modified = new LinkedHashMap<String, PackState>();
+			Collection<String> removed = new LinkedList<String>();
+			synchronized (this) {
+				for(Entry<String, PackState> e : files.entrySet()) {
+					String f = e.getKey();
+					Long timestamp = fPdscTimestamps.get(f);
+					if(timestamp == null) {
+						added.put(f, e.getValue());
+					} else if(timestamp != new File(f).lastModified()) {
+						modified.put(f, e.getValue());
+					}
+				}
+				for(String f : fPdscTimestamps.keySet()) {
+					if(!files.containsKey(f)) {
+						removed.add(f);
+					}
+				}
+			}
+			int nChanged = added.size() + modified.size() + removed.size();
+			if(nChanged == 0) {
+				return; // nothing to do
+			}
+			if(nChanged > files.size() / 2) {
+				fullReload = true;
+			} else {
+				updatePacks(added, removed, modified);
+			}
+		} finally {
+			setReloading(false);
+		}
+		if(fullReload) {
+			reload();
+		}
+	}
+
+	/**
+	 * Applies changes of pdsc files: unloads removed and modified files, loads added and modified ones,
+	 * updates affected pack families, device, board and example trees in place.
+	 * Emits PACK_REMOVED, PACK_ADDED and PACK_MODIFIED events for changed packs followed by PACKS_UPDATED.
+	 * @param added ordered map of added pdsc files to their pack states
+	 * @param removed collection of removed pdsc files
+	 * @param modified ordered map of modified pdsc files to their pack states
+	 */
+	public void updatePacks(Map<String, PackState> added, Collection<String> removed, Map<String, PackState> modified) {
+		Map<String, ICpPack> removedPacks = new LinkedHashMap<String, ICpPack>();
+		Map<String, ICpPack> addedPacks = new LinkedHashMap<String, ICpPack>();
+		synchronized (this) {
+			Map<String, ICpPack> before = new HashMap<String, ICpPack>();
+			if(removed != null) {
+				for(String f : removed) {
+					unloadPack(f, removedPacks, before);
+				}
+			}
+			Map<String, PackState> toLoad = new LinkedHashMap<String, PackState>();
+			if(modified != null) {
+				for(String f : modified.keySet()) {
+					unloadPack(f, removedPacks, before);
+				}
+				toLoad.putAll(modified);
+			}
+			if(added != null) {
+				toLoad.putAll(added);
+			}
+
+			for(String f : toLoad.keySet()) {
+				fPdscTimestamps.put(f, new File(f).lastModified());
+			}
+			CpItemCache cache = getItemCache();
+			if(pdscParser == null) {
+				initParser(null);
+			}
+			pdscParser.setItemCache(cache);
+			try {
+				for(Entry<String, PackState> e : toLoad.entrySet()) {
+					PdscParseResult result = readPack(e.getKey(), e.getValue());
+					if(result.pack != null) {
+						// the family is affected : remember its state before adding the pack
+						collectEffectivePacks(result.pack.getPackFamilyId(), before);
+					}
+					ICpPack pack = addPack(result, e.getValue());
+					if(pack != null) {
+						addedPacks.put(e.getKey(), pack);
+					}
+				}
+			} finally {
+				pdscParser.setItemCache(null);
+				if(cache != null) {
+					cache.save();
+				}
+			}
+			// restore packs of affected families that were hidden by unloaded ones
+			for(ICpPack pack : fPdscPacks.values()) {
+				if(pack.getPackState() != PackState.ERROR && before.containsKey(pack.getPackFamilyId())) {
+					addToCollections(pack);
+				}
+			}
+			updateDerivedItems(before.keySet(), before);
+		}
+
+		// notify outside of synchronized block
+		for(Entry<String, ICpPack> e : removedPacks.entrySet()) {
+			if(!addedPacks.containsKey(e.getKey())) {
+				emitRteEvent(RteEvent.PACK_REMOVED, e.getValue());
+			}
+		}
+		for(Entry<String, ICpPack> e : addedPacks.entrySet()) {
+			String topic = removedPacks.containsKey(e.getKey()) ? RteEvent.PACK_MODIFIED : RteEvent.PACK_ADDED;
+			emitRteEvent(topic, e.getValue());
+		}
+		if(!removedPacks.isEmpty() || !addedPacks.isEmpty()) {
+			emitRteEvent(RteEvent.PACKS_UPDATED);
+		}
+	}
+
+	/**
+	 * Removes pack loaded from given file from all collections
+	 * @param file pdsc file name
+	 * @param removedPacks map to add removed pack to
+	 * @param before map of affected family IDs to their effective packs before the update to fill
+	 */
+	protected void unloadPack(String file, Map<String, ICpPack> removedPacks, Map<String, ICpPack> before) {
+		fPdscTimestamps.remove(file);
+		ICpPack pack = fPdscPacks.remove(file);
+		if(pack == null) {
+			return;
+		}
+		removedPacks.put(file, pack);
+		if(pack.getPackState() == PackState.ERROR) {
+			if(allErrorPacks != null) {
+				allErrorPacks.removeChild(pack);
+			}
+			pack.setParent(null);
+			return;
+		}
+		String familyId = pack.getPackFamilyId();
+		collectEffectivePacks(familyId, before);
+		ICpPackCollection[] collections = {allPacks, allInstalledPacks, allGenericPacks, allDevicePacks};
+		for(ICpPackCollection collection : collections) {
+			if(collection != null) {
+				collection.removeChild(pack);
+			}
+		}
+		// the pack could be the effective one for the trees
+		removeFromTrees(pack);
+	}
+
+	/**
+	 * Remembers effective packs of a family as they are before the update (only once per family)
+	 * @param familyId pack family ID
+	 * @param before map of family IDs to their effective packs to fill
+	 */
+	protected void collectEffectivePacks(String familyId, Map<String, ICpPack> before) {
+		if(before.containsKey(familyId)) {
+			return;
+		}
+		ICpPack pack = allPacks != null ? getEffectivePack(allPacks.getFamily(familyId), false) : null;
+		before.put(familyId, pack); // null value is allowed : family did not exist
+		if(pack != null) {
+			removeFromTrees(pack);
+		}
+		// installed and latest packs contribute to boards and examples
+		if(allPacks != null) {
+			Collection<ICpPack> packs = allPacks.getPacksByPackFamilyId(familyId);
+			if(packs != null) {
+				for(ICpPack p : new ArrayList<ICpPack>(packs)) {
+					if(p != pack && (p.getPackState() == PackState.INSTALLED || p.isLatest())) {
+						removeFromTrees(p);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes pack items from device, board and example trees
+	 * @param pack ICpPack to remove
+	 */
+	protected void removeFromTrees(ICpPack pack) {
+		if (allDevices != null) {
+			allDevices.removeDevices(pack);
+		}
+		if (allInstalledDevices != null) {
+			allInstalledDevices.removeDevices(pack);
+		}
+		if (allRteBoards != null) {
+			allRteBoards.removeBoards(pack);
+		}
+		if (allExamples != null) {
+			allExamples.removeExamples(pack);
+		}
+		if (allBoards != null) {
+			for(Iterator<ICpBoard> iterator = allBoards.values().iterator(); iterator.hasNext();) {
+				ICpBoard board = iterator.next();
+				if(board.getPack() == pack) {
+					iterator.remove();
+					fBoardIndex.remove(board);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds effective packs of the affected families to device, board and example trees
+	 * @param familyIds IDs of affected families
+	 * @param before map of family IDs to their effective packs before the update
+	 */
+	protected void updateDerivedItems(Collection<String> familyIds, Map<String, ICpPack> before) {
+		for(String familyId : familyIds) {
+			ICpPackFamily family = allPacks != null ? allPacks.getFamily(familyId) : null;
+			ICpPack effectivePack = getEffectivePack(family, false);
+			if (allDevices != null) {
+				allDevices.addDevices(effectivePack);
+			}
+			if (allRteBoards != null) {
+				allRteBoards.addBoards(effectivePack);
+			}
+			if (allInstalledDevices != null && allInstalledPacks != null) {
+				allInstalledDevices.addDevices(getEffectivePack(allInstalledPacks.getFamily(familyId), true));
+			}
+			if(family == null || family.getPacks() == null) {
+				continue;
+			}
+			for(ICpPack pack : family.getPacks()) {
+				if(pack.getPackState() == PackState.INSTALLED || pack.isLatest()) {
+					if (allExamples != null) {
+						allExamples.addExamples(pack);
+					}
+					addBoards(pack);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the pack of a family used for device and board trees: the latest installed pack if any, otherwise the latest one
+	 * @param family ICpPackFamily
+	 * @param installedOnly return only installed pack
+	 * @return effective ICpPack or null if family is null or empty
+	 */
+	protected static ICpPack getEffectivePack(ICpPackFamily family, boolean installedOnly) {
+		if(family == null || family.getPacks() == null) {
+			return null;
+		}
+		for(ICpPack pack : family.getPacks()) {
+			if(pack.getPackState() == PackState.INSTALLED) {
+				return pack;
+			}
+		}
+		return installedOnly ? null : family.getPack();
+	}
+
 	protected synchronized boolean isReloading() {
 		return bReloading;
 	}
@@ -338,32 +721,170 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 	}
 
 	@Override
-	synchronized public IRteDeviceItem getDevices() {
-		getPacks(); // ensure allPacks are loaded
-		if(allDevices == null && bPacksLoaded && allPacks != null)  {
-			allDevices = RteDeviceRoot.createTree(allPacks.getLatestEffectivePacks());
-		}
-		return allDevices;
+	public IRteDeviceItem getDevices() {
+		return createFromPacks(() -> allDevices, () -> allPacks.getLatestEffectivePacks(),
+				packs -> allDevices = RteDeviceRoot.createTree(packs));
 	}
 
 	@Override
-	synchronized public IRteDeviceItem getInstalledDevices() {
-		getPacks(); // ensure allPacks are loaded
-		if(allInstalledDevices == null && bPacksLoaded && allInstalledPacks != null)  {
-			allInstalledDevices = RteDeviceRoot.createTree(allInstalledPacks.getLatestInstalledPacks());
+	public IRteDeviceItem getInstalledDevices() {
+		return createFromPacks(() -> allInstalledDevices, () -> allInstalledPacks.getLatestInstalledPacks(),
+				packs -> allInstalledDevices = RteDeviceRoot.createTree(packs));
+	}
+
+	@Override
+	public Map<String, ICpBoard> getBoards() {
+		return createFromPacks(() -> allBoards, () -> allPacks.getPacks(),
+				packs -> loadPackSections(packs, CmsisConstants.BOARDS_TAG),
+				packs -> { collectBoards(packs); return allBoards; });
+	}
+
+	/**
+	 * Creates data from pack sections if not yet created: the packs are materialized in parallel outside the manager lock,
+	 * the data is created under the lock. Retries if the packs are reloaded in the meantime.
+	 * @param current supplies already created data or null
+	 * @param packs supplies packs to create the data from, called under the lock when packs are loaded
+	 * @param factory creates and stores the data, called under the lock
+	 * @return created data or null if packs cannot be loaded
+	 */
+	protected <T> T createFromPacks(Supplier<T> current, Supplier<Collection<ICpPack>> packs, Function<Collection<ICpPack>, T> factory) {
+		return createFromPacks(current, packs, this::materializePacks, factory);
+	}
+
+	/**
+	 * Creates data from pack sections if not yet created: the sections are loaded outside the manager lock,
+	 * the data is created under the lock. Retries if the packs are reloaded in the meantime.
+	 * @param current supplies already created data or null
+	 * @param packs supplies packs to create the data from, called under the lock when packs are loaded
+	 * @param loader loads the sections the data is created from, called without the lock
+	 * @param factory creates and stores the data, called under the lock
+	 * @return created data or null if packs cannot be loaded
+	 */
+	protected <T> T createFromPacks(Supplier<T> current, Supplier<Collection<ICpPack>> packs,
+			Consumer<Collection<ICpPack>> loader, Function<Collection<ICpPack>, T> factory) {
+		while(true) {
+			ICpPackCollection loaded;
+			Collection<ICpPack> packsToLoad;
+			synchronized (this) {
+				getPacks(); // ensure allPacks are loaded
+				T data = current.get();
+				if(data != null || !bPacksLoaded || allPacks == null) {
+					return data;
+				}
+				loaded = allPacks;
+				packsToLoad = packs.get();
+			}
+			loader.accept(packsToLoad);
+			synchronized (this) {
+				if(loaded == allPacks) {
+					T data = current.get();
+					return data != null ? data : factory.apply(packsToLoad);
+				}
+			}
 		}
-		return allInstalledDevices;
 	}
 
+	/**
+	 * Loads sections of header-only packs in parallel, reports parse errors
+	 * @param packs packs to load
+	 */
 	@Override
-	synchronized public Map<String, ICpBoard> getBoards() {
-		getPacks(); // ensure allPacks are loaded
-		if(allBoards == null && bPacksLoaded && allPacks != null)  {
-			collectBoards();
+	public void materializePacks(Collection<ICpPack> packs) {
+		if(packs == null) {
+			return;
+		}
+		List<CpPack> packsToLoad = new ArrayList<CpPack>();
+		for(ICpPack pack : packs) {
+			if(pack instanceof CpPack && ((CpPack)pack).isHeaderOnly() && !((CpPack)pack).isMaterialized()) {
+				packsToLoad.add((CpPack)pack);
+			}
+		}
+		if(packsToLoad.isEmpty()) {
+			return;
+		}
+		final String xsdFile;
+		final CpItemCache cache;
+		synchronized (this) {
+			xsdFile = pdscParser != null ? pdscParser.getXsdFile() : null;
+			cache = fItemCache; // the parser only uses the cache while loading packs
+		}
+		final ThreadLocal<ICpXmlParser> parsers = ThreadLocal.withInitial(() -> {
+			ICpXmlParser parser = createParser(xsdFile);
+			parser.init();
+			parser.setItemCache(cache);
+			return parser;
+		});
+
+		ExecutorService executor = getLoaderExecutor();
+		List<Future<PdscParseResult>> futures = new ArrayList<Future<PdscParseResult>>(packsToLoad.size());
+		for(CpPack pack : packsToLoad) {
+			final String f = pack.getFileName();
+			futures.add(executor.submit(() -> parsePdsc(parsers.get(), f, false)));
+		}
+		Iterator<CpPack> it = packsToLoad.iterator();
+		try {
+			for(Future<PdscParseResult> future : futures) {
+				CpPack pack = it.next();
+				PdscParseResult result;
+				try {
+					result = future.get();
+				} catch (ExecutionException ex) {
+					List<String> errors = new LinkedList<String>();
+					errors.add(pack.getFileName() + ": " + ex.getCause()); //$NON-NLS-1$
+					result = new PdscParseResult(pack.getFileName(), null, errors, 1);
+				}
+				pack.materialize(result.pack);
+				emitParseErrors(result);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); // the rest is loaded on demand
+		}
+		if(cache != null) {
+			cache.save();
 		}
-		return allBoards;
 	}
 	
+	/**
+	 * Loads a single section of header-only packs in parallel, other sections are not read.
+	 * Packs without the section or already materialized ones are skipped.
+	 * @param packs packs to load the section for
+	 * @param tag section tag, one of {@link PdscParser#HEAVY_SECTIONS}
+	 */
+	protected void loadPackSections(Collection<ICpPack> packs, final String tag) {
+		if(packs == null) {
+			return;
+		}
+		List<Future<ICpItem>> futures = new ArrayList<Future<ICpItem>>();
+		ExecutorService executor = getLoaderExecutor();
+		for(ICpPack pack : packs) {
+			if(pack instanceof CpPack && ((CpPack)pack).isHeaderOnly() && !((CpPack)pack).isMaterialized()) {
+				final CpPack p = (CpPack)pack;
+				futures.add(executor.submit(() -> p.getSection(tag)));
+			}
+		}
+		if(futures.isEmpty()) {
+			return;
+		}
+		try {
+			for(Future<ICpItem> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException ex) {
+					// the section is loaded again on next access
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); // the rest is loaded on demand
+		}
+		CpItemCache cache;
+		synchronized (this) {
+			cache = fItemCache;
+		}
+		if(cache != null) {
+			cache.save();
+		}
+	}
+
 	@Override
 	public ICpBoard getBoard(String boardId) {
 		if(boardId == null || boardId.isEmpty())
@@ -379,45 +900,75 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 
 	
 
-	protected void collectBoards() {
+	protected void collectBoards(Collection<ICpPack> packs) {
 		allBoards = new HashMap<String, ICpBoard>();
-		Collection<ICpPack> packs = allPacks.getPacks();
+		fBoardIndex = new AttributeIndex<ICpBoard>(CmsisConstants.DNAME, CmsisConstants.DFAMILY, CmsisConstants.DSUBFAMILY);
 		for(ICpPack pack: packs) {
 			addBoards(pack);
 		}
 	}
 
 	@Override
-	synchronized public IRteBoardItem getRteBoards() {
-		getPacks(); // ensure allPacks are loaded
-		if(allRteBoards == null && bPacksLoaded && allPacks != null)  {
-			allRteBoards = RteBoardItem.createTree(allPacks.getLatestEffectivePacks());
-		}
-		return allRteBoards;
+	public IRteBoardItem getRteBoards() {
+		return createFromPacks(() -> allRteBoards, () -> allPacks.getLatestEffectivePacks(),
+				packs -> allRteBoards = RteBoardItem.createTree(packs));
 	}
 
 	@Override
 	public Collection<ICpBoard> getCompatibleBoards(IAttributes deviceAttributes) {
 		List<ICpBoard> boards =  new LinkedList<ICpBoard>();
 		getBoards();
-		if(allBoards == null || allBoards.isEmpty()) {
+		if(allBoards == null || allBoards.isEmpty() || deviceAttributes == null || !deviceAttributes.hasAttributes()) {
 			return boards;
 		}
-		for(ICpBoard b : allBoards.values()){
-			if(b.hasCompatibleDevice(deviceAttributes)) {
+		Set<ICpBoard> candidates = getBoardCandidates(deviceAttributes);
+		if(candidates.isEmpty()) {
+			return boards;
+		}
+		for(ICpBoard b : allBoards.values()){ // keep the order of allBoards
+			if(candidates.contains(b) && b.hasCompatibleDevice(deviceAttributes)) {
 				boards.add(b);
 			}
 		}
 		return boards;
 	}
 
-	@Override
-	synchronized public IRteExampleItem getExamples() {
-		getPacks(); // ensure allPacks are loaded
-		if(allExamples == null && bPacksLoaded && allPacks != null)  {
-			allExamples = RteExampleItem.createTree(allPacks.getPacks());
+	/**
+	 * Returns boards that can have a device compatible to the supplied one: superset of boards satisfying {@link ICpBoard#hasCompatibleDevice(IAttributes)}
+	 * @param deviceAttributes device attributes
+	 * @return set of candidate boards
+	 */
+	protected synchronized Set<ICpBoard> getBoardCandidates(IAttributes deviceAttributes) {
+		// a board device matches if its Dname equals one of the device values or if its D-attributes match device ones
+		Set<ICpBoard> candidates = new HashSet<ICpBoard>();
+		deviceAttributes.forEachAttribute((key, value) -> candidates.addAll(fBoardIndex.getItems(CmsisConstants.DNAME, value)));
+		candidates.addAll(fBoardIndex.getItems(CmsisConstants.DFAMILY, deviceAttributes.getAttribute(CmsisConstants.DFAMILY)));
+		candidates.addAll(fBoardIndex.getItems(CmsisConstants.DSUBFAMILY, deviceAttributes.getAttribute(CmsisConstants.DSUBFAMILY)));
+		return candidates;
+	}
+
+	/**
+	 * Adds board to the board index, once for each mounted and compatible device
+	 * @param board ICpBoard to add
+	 */
+	protected void indexBoard(ICpBoard board) {
+		Collection<? extends ICpItem> children = board.getChildren();
+		if(children == null) {
+			return;
+		}
+		for(ICpItem item : children) {
+			String tag = item.getTag();
+			if(CmsisConstants.MOUNTED_DEVICE_TAG.equals(tag) || CmsisConstants.COMPATIBLE_DEVICE_TAG.equals(tag)) {
+				fBoardIndex.add(board, item.attributes());
+			}
 		}
-		return allExamples;
+	}
+
+	@Override
+	public IRteExampleItem getExamples() {
+		return createFromPacks(() -> allExamples, () -> allPacks.getPacks(),
+				packs -> loadPackSections(packs, CmsisConstants.EXAMPLES_TAG),
+				packs -> allExamples = RteExampleItem.createTree(packs));
 	}
 
 	@Override
@@ -431,70 +982,279 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 			return false;
 		}
 
-		packState = PackState.AVAILABLE;
+		Map<String, PackState> files = collectPdscFiles(rootDirectory);
+		for(String f : files.keySet()) {
+			fPdscTimestamps.put(f, new File(f).lastModified());
+		}
+
+		// restore unchanged files from the snapshot, parse only changed ones
+		CpItemCache cache = getItemCache();
+		if(pdscParser == null) {
+			initParser(null);
+		}
+		pdscParser.setItemCache(cache);
+		try {
+			loadPacks(files);
+		} finally {
+			pdscParser.setItemCache(null);
+			if(cache != null) {
+				cache.save();
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Collects pdsc files of .Web, .Local, .Download folders and installed packs
+	 * @param rootDirectory pack root directory
+	 * @return map of file names to pack states in loading order
+	 */
+	protected Map<String, PackState> collectPdscFiles(String rootDirectory) {
+		// collect files in loading order, the state is carried per file
+		Map<String, PackState> files = new LinkedHashMap<String, PackState>();
+		if(rootDirectory == null || rootDirectory.isEmpty()) {
+			return files;
+		}
 		File webFile = new File(getCmsisPackWebDir());
-		Collection<String> availableFileNames = Utils.findPdscFiles(webFile, null, 0);
-		loadPacks(availableFileNames);
-		
+		addPdscFiles(files, Utils.findPdscFiles(webFile, null, 0), PackState.AVAILABLE);
+
 		File localFile = new File(getCmsisPackLocalDir());
-		Collection<String> localFileNames = Utils.findPdscFiles(localFile, null, 0);
-		loadPacks(localFileNames);
+		addPdscFiles(files, Utils.findPdscFiles(localFile, null, 0), PackState.AVAILABLE);
 
-		packState = PackState.DOWNLOADED;
 		File downloadFile = new File(getCmsisPackDownloadDir());
-		Collection<String> downloadedFileNames = Utils.findPdscFiles(downloadFile, null, 0);
-		loadPacks(downloadedFileNames);
+		addPdscFiles(files, Utils.findPdscFiles(downloadFile, null, 0), PackState.DOWNLOADED);
 
-		packState = PackState.INSTALLED;
-		Collection<String> installedFileNames = Utils.findPdscFiles(root, null, 3);
-		loadPacks(installedFileNames);
-
-		packState = PackState.UNKNOWN;
+		addPdscFiles(files, Utils.findPdscFiles(new File(rootDirectory), null, 3), PackState.INSTALLED);
+		return files;
+	}
 
-		return true;
+	/**
+	 * Returns cache of parsed pdsc files located in the .Web folder, loads it on first use and when the cache file has changed
+	 * @return CpItemCache or null if pack root is not set
+	 */
+	protected CpItemCache getItemCache() {
+		String webDir = getCmsisPackWebDir();
+		if(webDir == null || webDir.isEmpty()) {
+			return null;
+		}
+		String cacheFile = Utils.addTrailingSlash(webDir) + CmsisConstants.PDSC_CACHE;
+		if(fItemCache == null || !cacheFile.equals(fItemCache.getCacheFile())) {
+			fItemCache = new CpItemCache(cacheFile);
+		}
+		fItemCache.update();
+		return fItemCache;
 	}
 
+	/**
+	 * Adds files to the ordered file map, a file found several times keeps its first position and gets the last state
+	 * @param files map of file names to pack states to fill
+	 * @param fileNames collection of pdsc file names
+	 * @param state PackState to assign
+	 */
+	protected void addPdscFiles(Map<String, PackState> files, Collection<String> fileNames, PackState state) {
+		if(fileNames == null) {
+			return;
+		}
+		for(String f : fileNames) {
+			files.put(f, state);
+		}
+	}
 
 	@Override
 	public boolean loadPacks(final Collection<String> fileNames){
 		if(fileNames == null || fileNames.isEmpty()) {
 			return true; // nothing to load => success
 		}
+		Map<String, PackState> files = new LinkedHashMap<String, PackState>();
+		addPdscFiles(files, fileNames, packState);
+		return loadPacks(files);
+	}
+
+	/**
+	 * Loads pdsc files sequentially or in parallel depending on {@link #getLoadThreadCount()}
+	 * @param files ordered map of file names to pack states
+	 * @return true if all files are loaded successfully
+	 */
+	protected synchronized boolean loadPacks(Map<String, PackState> files) {
+		if(files == null || files.isEmpty()) {
+			return true; // nothing to load => success
+		}
+		int nThreads = Math.min(getLoadThreadCount(), files.size());
+		if(nThreads > 1) {
+			return loadPacksParallel(files);
+		}
 
 		boolean success = true;
-		for(String f : fileNames) {
-			if(loadPack(f) == null) {
+		for(Entry<String, PackState> e : files.entrySet()) {
+			if(loadPack(e.getKey(), e.getValue()) == null) {
 				success = false;
 			}
 		}
 		return success;
 	}
 
-	@Override
-	public ICpPack readPack(String file){
-		if (pdscParser == null) {
-			initParser(null);
+	/**
+	 * Parses pdsc files on a pool of worker threads, each worker uses own parser.
+	 * The results are added to the collections in the order of the supplied map.
+	 * @param files ordered map of file names to pack states
+	 * @return true if all files are loaded successfully
+	 */
+	protected boolean loadPacksParallel(Map<String, PackState> files) {
+		final String xsdFile = pdscParser != null ? pdscParser.getXsdFile() : null;
+		final CpItemCache cache = pdscParser != null ? pdscParser.getItemCache() : null;
+		final ThreadLocal<ICpXmlParser> parsers = ThreadLocal.withInitial(() -> {
+			ICpXmlParser parser = createParser(xsdFile);
+			parser.init();
+			parser.setItemCache(cache);
+			return parser;
+		});
+
+		ExecutorService executor = getLoaderExecutor();
+		List<Future<PdscParseResult>> futures = new ArrayList<Future<PdscParseResult>>(files.size());
+		boolean success = true;
+		try {
+			for(Entry<String, PackState> e : files.entrySet()) {
+				final String f = e.getKey();
+				final boolean headerOnly = isHeaderOnlyState(e.getValue());
+				futures.add(executor.submit(() -> parsePdsc(parsers.get(), f, headerOnly)));
+			}
+			Iterator<Entry<String, PackState>> it = files.entrySet().iterator();
+			for(Future<PdscParseResult> future : futures) {
+				Entry<String, PackState> e = it.next();
+				PdscParseResult result;
+				try {
+					result = future.get();
+				} catch (ExecutionException ex) {
+					List<String> errors = new LinkedList<String>();
+					errors.add(e.getKey() + ": " + ex.getCause()); //$NON-NLS-1$
+					result = new PdscParseResult(e.getKey(), null, errors, 1);
+				}
+				if(addPack(result, e.getValue()) == null) {
+					success = false;
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			success = false;
+		}
+		return success;
+	}
+
+	/**
+	 * Parses a pdsc file with the supplied parser without changing the manager state
+	 * @param parser ICpXmlParser to use
+	 * @param file pdsc file to parse
+	 * @return PdscParseResult
+	 */
+	protected PdscParseResult parsePdsc(ICpXmlParser parser, String file) {
+		return parsePdsc(parser, file, false);
+	}
+
+	/**
+	 * Parses a pdsc file with the supplied parser without changing the manager state
+	 * @param parser ICpXmlParser to use
+	 * @param file pdsc file to parse
+	 * @param headerOnly true to read only pack header if parser supports it, the rest is read on first access
+	 * @return PdscParseResult
+	 */
+	protected PdscParseResult parsePdsc(ICpXmlParser parser, String file, boolean headerOnly) {
+		PdscParser headerParser = null;
+		if(headerOnly && parser instanceof PdscParser) {
+			headerParser = (PdscParser)parser;
+			headerParser.setHeaderOnly(true);
+		}
+		ICpItem item = null;
+		try {
+			item = parser.parseFile(file);
+		} finally {
+			if(headerParser != null) {
+				headerParser.setHeaderOnly(false);
+			}
 		}
-		ICpItem item = pdscParser.parseFile(file);
+		ICpPack pack = null;
 		if(item != null && item instanceof ICpPack) {
-			return (ICpPack)item;
+			pack = (ICpPack)item;
 		}
+		List<String> errors = new ArrayList<String>(parser.getErrorStrings());
+		return new PdscParseResult(file, pack, errors, parser.getErrorCount());
+	}
 
-		if(pdscParser.getErrorCount() > 0) {
-			List<String> errors = pdscParser.getErrorStrings();
-			if(errors != null && !errors.isEmpty()) {
-				for(String msg : errors) {
-					if(msg != null && !msg.isEmpty()){
-						getRteEventProxy().emitRteEvent(RteEvent.PRINT_ERROR, msg);
-					}
-				}
+	/**
+	 * Emits parser errors as PRINT_ERROR events
+	 * @param result PdscParseResult containing the errors
+	 */
+	protected void emitParseErrors(PdscParseResult result) {
+		if(result.errorCount <= 0 || result.errorStrings == null || fRteEventProxy == null) {
+			return;
+		}
+		for(String msg : result.errorStrings) {
+			if(msg != null && !msg.isEmpty()){
+				fRteEventProxy.emitRteEvent(RteEvent.PRINT_ERROR, msg);
 			}
 		}
+	}
 
-		return null;
+	@Override
+	synchronized public ICpPack readPack(String file){
+		if (pdscParser == null) {
+			initParser(null);
+		}
+		PdscParseResult result = parsePdsc(pdscParser, file, bReadHeaderOnly);
+		if(result.pack == null) {
+			emitParseErrors(result);
+		}
+		return result.pack;
+	}
+
+	/**
+	 * Reads a single pdsc file through {@link #readPack(String)}, so that overriding implementations are used
+	 * @param file pdsc file to read
+	 * @param state PackState the pack gets, determines if only the header is read
+	 * @return PdscParseResult, its errors are already reported
+	 */
+	protected synchronized PdscParseResult readPack(String file, PackState state) {
+		if (pdscParser == null) {
+			initParser(null);
+		}
+		bReadHeaderOnly = isHeaderOnlyState(state);
+		ICpPack pack;
+		try {
+			pack = readPack(file);
+		} finally {
+			bReadHeaderOnly = false;
+		}
+		List<String> errors = new ArrayList<String>();
+		if(pack == null && pdscParser.getErrorStrings() != null) {
+			errors.addAll(pdscParser.getErrorStrings()); // to describe the error pack
+		}
+		return new PdscParseResult(file, pack, errors, 0);
 	}
 
 	protected ICpPack loadPack(String file){
+		return loadPack(file, packState);
+	}
+
+	protected ICpPack loadPack(String file, PackState state){
+		return addPack(readPack(file, state), state);
+	}
+
+	/**
+	 * Checks if only pack header should be read for packs with given state
+	 * @param state PackState
+	 * @return true for packs that are not installed: their content is read on first access
+	 */
+	protected boolean isHeaderOnlyState(PackState state) {
+		return state == PackState.AVAILABLE || state == PackState.DOWNLOADED;
+	}
+
+	/**
+	 * Adds parsed pack to the pack collections or creates an error pack if parsing failed
+	 * @param result PdscParseResult to add
+	 * @param state PackState to assign to the pack
+	 * @return added pack or created error pack
+	 */
+	protected ICpPack addPack(PdscParseResult result, PackState state){
 		if(allPacks == null) {
 			allPacks = new CpPackCollection();
 		}
@@ -508,18 +1268,15 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 			allInstalledPacks = new CpPackCollection();
 		}
 
-		ICpPack pack  = readPack(file);
+		String file = result.file;
+		ICpPack pack = result.pack;
+		if(pack == null) {
+			emitParseErrors(result);
+		}
 		if (pack != null && CmsisConstants.PACKAGE_TAG.equals(pack.getTag())) {
-			pack.setPackState(packState);
-			allPacks.addChild(pack);
-			if (packState == PackState.INSTALLED) {
-				allInstalledPacks.addChild(pack);
-			}
-			if (pack.isDevicelessPack()) {
-				allGenericPacks.addChild(pack);
-			} else {
-				allDevicePacks.addChild(pack);
-			}
+			pack.setPackState(state);
+			pack.freeze(); // pack items are read-only from now on
+			addToCollections(pack);
 		} else {
 			if (allErrorPacks == null) {
 				allErrorPacks = new CpPackFamily(null, CmsisConstants.ERRORS);
@@ -531,8 +1288,8 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 			pack.setPackState(PackState.ERROR);
 			allErrorPacks.addChild(pack);
 			String errorString;
-			if (!pdscParser.getErrorStrings().isEmpty()) {
-				errorString = pdscParser.getErrorStrings().get(0);
+			if (!result.errorStrings.isEmpty()) {
+				errorString = result.errorStrings.get(0);
 			} else if (!CmsisConstants.PACKAGE_TAG.equals(pack.getTag())) {
 				errorString = pack.getFileName() + ": " //$NON-NLS-1$
 						+ CpStrings.CpPackManager_UnrecognizedFileFormatError;
@@ -545,9 +1302,26 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 						ConsoleType.ERROR);
 			}
 		}
+		fPdscPacks.put(file, pack);
 		return pack;
 	}
 
+	/**
+	 * Adds pack to global, installed, generic and device-specific collections according to its state
+	 * @param pack ICpPack to add
+	 */
+	protected void addToCollections(ICpPack pack) {
+		allPacks.addChild(pack);
+		if (pack.getPackState() == PackState.INSTALLED) {
+			allInstalledPacks.addChild(pack);
+		}
+		if (pack.isDevicelessPack()) {
+			allGenericPacks.addChild(pack);
+		} else {
+			allDevicePacks.addChild(pack);
+		}
+	}
+
 	@Override
 	public String getCmsisPackRootDirectory() {
 		return cmsisPackRootDirectory;
@@ -673,10 +1447,31 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 		}
 	}
 
+	/**
+	 * Updates the snapshot of loaded pdsc files after a pack job
+	 * @param pack ICpPack that is added or removed
+	 * @param add true if pack is added, false if removed
+	 */
+	protected synchronized void updatePdscSnapshot(ICpPack pack, boolean add) {
+		if(pack == null || pack.getFileName() == null) {
+			return;
+		}
+		String file = new File(pack.getFileName()).getAbsolutePath();
+		if(add) {
+			fPdscPacks.put(file, pack);
+			fPdscTimestamps.put(file, new File(file).lastModified());
+		} else if(fPdscPacks.get(file) == pack){
+			fPdscPacks.remove(file);
+			fPdscTimestamps.remove(file);
+		}
+	}
+
 	protected void processPackAdded(ICpPack pack) {
 		if(pack == null) {
 			return;
 		}
+		updatePdscSnapshot(pack, true);
+		pack.freeze();
 		// Update pack collection
 		allPacks.addChild(pack);
 		if (pack.isDevicelessPack()) {
@@ -710,6 +1505,7 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 			return;
 		}
 		ICpPack pack = jobResult.getPack();
+		updatePdscSnapshot(pack, false);
 		// if the deleted pack is an error pack, only need to remove it from allErrorPacks
 		if (pack.getPackState() == PackState.ERROR) {
 			allErrorPacks.removeChild(pack);
@@ -784,6 +1580,10 @@ public class CpPackManager implements ICpPackManager, IRteEventListener {
 				ICpBoard previousBoard = allBoards.get(id);
 				if (previousBoard == null || isToReplaceExistingItem(previousBoard, currentBoard)) {
 					allBoards.put(id, currentBoard);
+					if(previousBoard != null) {
+						fBoardIndex.remove(previousBoard);
+					}
+					indexBoard(currentBoard);
 				}
 			}
 		}
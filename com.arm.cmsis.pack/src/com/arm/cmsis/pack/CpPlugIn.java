@@ -15,10 +15,10 @@ package com.arm.cmsis.pack;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
+import com.arm.cmsis.pack.events.CoalescingRteEventProxy;
 import com.arm.cmsis.pack.events.IRteEventListener;
 import com.arm.cmsis.pack.events.IRteEventProxy;
 import com.arm.cmsis.pack.events.RteEvent;
-import com.arm.cmsis.pack.events.RteEventProxy;
 import com.arm.cmsis.pack.preferences.CpPreferenceInitializer;
 import com.arm.cmsis.pack.utils.DeviceVendor;
 
@@ -32,6 +32,7 @@ public class CpPlugIn extends Plugin implements IRteEventProxy {
 	// Preference ID
 	public static final String CMSIS_PACK_ROOT_PREFERENCE = "com.arm.cmsis.pack.root"; //$NON-NLS-1$
 	public static final String CMSIS_PACK_REPOSITORY_PREFERENCE = "com.arm.cmsis.pack.repository"; //$NON-NLS-1$
+	public static final String PACK_LOAD_THREADS_PREFERENCE = "com.arm.cmsis.pack.load.threads"; //$NON-NLS-1$
 	private static final String PROXY_PREFIX = "com.arm.cmsis.proxy."; //$NON-NLS-1$
 	public static final String PROXY_MODE 	= PROXY_PREFIX + "mode"; //$NON-NLS-1$
 	public static final String PROXY_ADDRESS= PROXY_PREFIX + "address"; //$NON-NLS-1$
@@ -42,7 +43,10 @@ public class CpPlugIn extends Plugin implements IRteEventProxy {
 	private static BundleContext context;
 	private static CpPlugIn plugin;
 
-	private IRteEventProxy rteEventProxy = new RteEventProxy();
+	// pack change events are coalesced: batch installs and index changes cause one update per listener
+	private static final long PACK_EVENT_DEBOUNCE_WINDOW = 200; // milliseconds
+
+	private CoalescingRteEventProxy rteEventProxy = new CoalescingRteEventProxy();
 	private ICpPackManager thePackManager = null;
 	private ICpEnvironmentProvider theEnvironmentProvider = null;
 	private ICpPackInstaller thePackInstaller = null;
@@ -56,6 +60,13 @@ public class CpPlugIn extends Plugin implements IRteEventProxy {
 		plugin = this;
 		CpPlugIn.context = bundleContext;
 
+		rteEventProxy.setDebounceWindow(RteEvent.PACK_ADDED, PACK_EVENT_DEBOUNCE_WINDOW);
+		rteEventProxy.setDebounceWindow(RteEvent.PACK_REMOVED, PACK_EVENT_DEBOUNCE_WINDOW);
+		rteEventProxy.setDebounceWindow(RteEvent.PACK_MODIFIED, PACK_EVENT_DEBOUNCE_WINDOW);
+		rteEventProxy.setDebounceWindow(RteEvent.PACKS_UPDATED, PACK_EVENT_DEBOUNCE_WINDOW);
+		rteEventProxy.setDebounceWindow(RteEvent.PACKS_RELOADED, PACK_EVENT_DEBOUNCE_WINDOW);
+		rteEventProxy.setDebounceWindow(RteEvent.GPDSC_CHANGED, PACK_EVENT_DEBOUNCE_WINDOW);
+
 		DeviceVendor.fillMaps(); // the maps can later be updated by ICpEnvironmentProvider
 
 		// initialize environment provider first to let it change pack manager or/and installer
@@ -91,6 +102,7 @@ public class CpPlugIn extends Plugin implements IRteEventProxy {
 		theEnvironmentProvider = null;
 		thePackInstaller = null;
 		rteEventProxy.removeAllListeners();
+		rteEventProxy.dispose();
 		rteEventProxy = null;
 		super.stop(bundleContext);
 	}
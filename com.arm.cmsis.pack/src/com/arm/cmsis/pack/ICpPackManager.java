@@ -15,6 +15,7 @@ import java.io.File;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -128,6 +129,13 @@ public interface ICpPackManager {
 	 */
 	ICpPackFamily getErrorPacks();
 
+	/**
+	 * Loads sections of header-only packs in parallel, should be called before pack trees are handed to views
+	 * since otherwise the sections are parsed by the thread accessing them
+	 * @param packs packs to load
+	 */
+	void materializePacks(Collection<ICpPack> packs);
+
 	/**
 	 * Returns hierarchical collection of all devices found in all packs
 	 * @return device collection as IRteDeviceItem
@@ -189,7 +197,9 @@ public interface ICpPackManager {
 	boolean loadPacks(Collection<String> fileNames);
 
 	/**
-	 * Parses  a single pdsc file
+	 * Parses  a single pdsc file.
+	 * The manager loads single pdsc files (added, changed or updated packs) through this method,
+	 * packs loaded in bulk on several threads are parsed without calling it.
 	 * @param absolute file pdsc file to load
 	 * @return {@link ICpPack} is successful, null otherwise
 	 */
@@ -289,10 +299,22 @@ public interface ICpPackManager {
 	 *  Triggers reload of the pack if the have already been loaded
 	 */
 	void reload();
+
+	/**
+	 *  Reloads only pdsc files that have been added, removed or modified since the packs were loaded,
+	 *  the default implementation reloads all packs
+	 */
+	default void reloadChanged() { reload(); }
 	
 	/**
 	 * Check if all packs required by supplied pack are installed
 	 * @return true if all required packs are installed
 	 */
 	boolean isRequiredPacksInstalled(ICpPack pack);
-}
\ No newline at end of file
+
+	/**
+	 * Returns bounded thread pool shared by pack loading and other parallel work on pack data
+	 * @return ExecutorService that must not be shut down by callers, null if work should run sequentially
+	 */
+	default ExecutorService getLoaderExecutor() { return null; }
+}
\ No newline at end of file
@@ -13,7 +13,9 @@ package com.arm.cmsis.pack;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -44,6 +46,28 @@ public interface ICpRepoServiceProvider {
 	 */
 	File getPdscFile(String pdscUrl, String pdscName, String destFileName, IProgressMonitor monitor) throws IOException;
 
+	/**
+	 * Download several pdsc files, the default implementation calls {@link #getPdscFile(String, String, String, IProgressMonitor)} for each file one after another
+	 * @param pdscFiles a list of pdsc files, each item is { pdscUrl, pdscName, destFileName }
+	 * @param monitor progress monitor, receives one unit of work per successfully downloaded file, failed ones are accounted by the caller
+	 * @return map of destination file's name to the exception of failed downloads, empty if all succeeded
+	 */
+	default Map<String, IOException> getPdscFiles(List<String[]> pdscFiles, IProgressMonitor monitor) {
+		Map<String, IOException> errors = new LinkedHashMap<>();
+		for (String[] pdsc : pdscFiles) {
+			if (monitor.isCanceled()) {
+				break;
+			}
+			try {
+				getPdscFile(pdsc[0], pdsc[1], pdsc[2], monitor);
+				monitor.worked(1);
+			} catch (IOException e) {
+				errors.put(pdsc[2], e);
+			}
+		}
+		return errors;
+	}
+
 	/**
 	 * Download the pack file
 	 * @param packUrl URL of the pack file
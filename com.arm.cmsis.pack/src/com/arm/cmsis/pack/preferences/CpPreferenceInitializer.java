@@ -117,6 +117,23 @@ public class CpPreferenceInitializer extends AbstractPreferenceInitializer {
 		}
 	}
 
+	/**
+	 * Returns number of worker threads used to load pdsc files
+	 * @return number of threads, 0 means number of available processors, 1 means sequential loading
+	 */
+	public static int getPackLoadThreads() {
+		IPreferencesService prefs = Platform.getPreferencesService();
+		if(prefs == null) {
+			return 0;
+		}
+		return prefs.getInt(CpPlugIn.PLUGIN_ID, CpPlugIn.PACK_LOAD_THREADS_PREFERENCE, 0, null);
+	}
+
+	public static void setPackLoadThreads(int nThreads) {
+		IEclipsePreferences instancePreferences = InstanceScope.INSTANCE.getNode(CpPlugIn.PLUGIN_ID);
+		instancePreferences.putInt(CpPlugIn.PACK_LOAD_THREADS_PREFERENCE, nThreads < 0 ? 0 : nThreads);
+	}
+
 	public static List<String> getCpRepositories() {
 		List<String> repos = new LinkedList<String>();
 		IEclipsePreferences prefs = InstanceScope.INSTANCE.getNode(CpPlugIn.PLUGIN_ID);
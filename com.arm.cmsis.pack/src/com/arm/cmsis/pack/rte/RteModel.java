@@ -11,11 +11,17 @@
 
 package com.arm.cmsis.pack.rte;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.arm.cmsis.pack.CpPlugIn;
 import com.arm.cmsis.pack.ICpEnvironmentProvider;
@@ -607,17 +613,19 @@ public class RteModel implements IRteModel {
 		fComponentRoot.addChild(devClass);
 
 		Collection<? extends ICpItem> children;
+		// component lists in the order they are added: generated packs, device pack, other packs
+		List<Collection<? extends ICpItem>> componentLists = new ArrayList<Collection<? extends ICpItem>>();
 		// process components from generated packs 		
 		if(fGeneratedPacks != null && !fGeneratedPacks.isEmpty()) {
 			for(ICpPack pack : fGeneratedPacks.values()){
 				if(pack == null)
 					continue; 
-				children = pack.getGrandChildren(CmsisConstants.COMPONENTS_TAG);
-				collectComponents(children);
+				componentLists.add(pack.getGrandChildren(CmsisConstants.COMPONENTS_TAG));
 			}
 		}
 		// process regular packs		
 		if(fFilteredPacks == null || fFilteredPacks.isEmpty()) {
+			collectComponentLists(componentLists);
 			return;
 		}
 		//  device pack has precedence, always collect its components, APIs and taxonomy first
@@ -629,16 +637,15 @@ public class RteModel implements IRteModel {
 
 		// first add components
 		if(devicePack != null) {
-			children = devicePack.getGrandChildren(CmsisConstants.COMPONENTS_TAG);
-			collectComponents(children);
+			componentLists.add(devicePack.getGrandChildren(CmsisConstants.COMPONENTS_TAG));
 		}
 		for(ICpPack pack : fFilteredPacks ){
 			if(pack == devicePack) {
 				continue;
 			}
-			children = pack.getGrandChildren(CmsisConstants.COMPONENTS_TAG);
-			collectComponents(children);
+			componentLists.add(pack.getGrandChildren(CmsisConstants.COMPONENTS_TAG));
 		}
+		collectComponentLists(componentLists);
 		// then add APIs and taxonomy items
 		if(fGeneratedPacks != null && !fGeneratedPacks.isEmpty()) {
 			for(ICpPack pack : fGeneratedPacks.values()){
@@ -695,20 +702,96 @@ public class RteModel implements IRteModel {
 	 * @param pack
 	 */
 	protected void collectComponents(Collection<? extends ICpItem> children) {
+		for(ICpComponent c : filterComponents(children, fComponentFilter)) {
+			fComponentRoot.addComponent(c);
+		}
+	}
+
+	/**
+	 * Evaluates components of the given lists and adds the filtered ones to the component tree.
+	 * The lists are evaluated on the pack manager's loader pool, the components are added in the order of the lists.
+	 * @param componentLists list of component collections, typically one per pack
+	 */
+	protected void collectComponentLists(List<Collection<? extends ICpItem>> componentLists) {
+		ExecutorService executor = componentLists.size() > 1 ? getEvaluationExecutor() : null;
+		if(executor == null) {
+			for(Collection<? extends ICpItem> children : componentLists) {
+				collectComponents(children);
+			}
+			return;
+		}
+		List<Future<List<ICpComponent>>> futures = new ArrayList<Future<List<ICpComponent>>>(componentLists.size());
+		for(final Collection<? extends ICpItem> children : componentLists) {
+			final ICpConditionContext filter = createFilterSnapshot();
+			futures.add(executor.submit(() -> filterComponents(children, filter)));
+		}
+		Iterator<Collection<? extends ICpItem>> it = componentLists.iterator();
+		for(Future<List<ICpComponent>> future : futures) {
+			Collection<? extends ICpItem> children = it.next();
+			List<ICpComponent> filtered;
+			try {
+				filtered = future.get();
+			} catch (ExecutionException | InterruptedException e) {
+				if(e instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
+				future.cancel(true);
+				filtered = filterComponents(children, fComponentFilter); // evaluate on this thread
+			}
+			for(ICpComponent c : filtered) {
+				fComponentRoot.addComponent(c);
+			}
+		}
+	}
+
+	/**
+	 * Returns shared thread pool to evaluate components
+	 * @return ExecutorService that must not be shut down, null means sequential evaluation
+	 */
+	protected ExecutorService getEvaluationExecutor() {
+		ICpPackManager pm = CpPlugIn.getPackManager();
+		return pm != null ? pm.getLoaderExecutor() : null;
+	}
+
+	/**
+	 * Creates a frozen copy of the component filter to be used by a worker thread,
+	 * since condition contexts keep evaluation state and are not thread-safe
+	 * @return ICpConditionContext with the same attributes as the component filter
+	 */
+	protected ICpConditionContext createFilterSnapshot() {
+		CpConditionContext filter = new CpConditionContext();
+		filter.setAttributes(fComponentFilter);
+		filter.freeze();
+		return filter;
+	}
+
+	/**
+	 * Evaluates components against the filter without modifying the model
+	 * @param children collection of components and bundles, typically of one pack
+	 * @param filter ICpConditionContext to evaluate with
+	 * @return list of components passing the filter in the order of the collection
+	 */
+	protected List<ICpComponent> filterComponents(Collection<? extends ICpItem> children, ICpConditionContext filter) {
+		List<ICpComponent> filtered = new ArrayList<ICpComponent>();
+		filterComponents(children, filter, filtered);
+		return filtered;
+	}
+
+	private void filterComponents(Collection<? extends ICpItem> children, ICpConditionContext filter, List<ICpComponent> filtered) {
 		if(children == null || children.isEmpty()) {
 			return;
 		}
 		for(ICpItem item : children){
 			if(item.getTag().equals(CmsisConstants.BUNDLE_TAG)){
 				// insert bundle implicitly since its components can be filtered out
-				collectComponents(item.getChildren());
+				filterComponents(item.getChildren(), filter, filtered);
 			} else if(item instanceof ICpComponent) { // skip doc and description items
 				ICpComponent c = (ICpComponent) item;
-				EEvaluationResult res = c.evaluate(fComponentFilter);
+				EEvaluationResult res = c.evaluate(filter);
 				if(res.ordinal() < EEvaluationResult.FULFILLED.ordinal()) {
 					continue; // filtered out
 				}
-				fComponentRoot.addComponent(c);
+				filtered.add(c);
 			}
 		}
 	}
@@ -14,10 +14,14 @@ package com.arm.cmsis.pack.rte.dependencies;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import com.arm.cmsis.pack.CpPlugIn;
@@ -38,6 +42,7 @@ import com.arm.cmsis.pack.rte.components.IRteComponent;
 import com.arm.cmsis.pack.rte.components.IRteComponentGroup;
 import com.arm.cmsis.pack.rte.components.IRteComponentItem;
 import com.arm.cmsis.pack.utils.AlnumComparator;
+import com.arm.cmsis.pack.utils.WildCards;
 
 /**
  * Class responsible for evaluating component dependencies and resolving them
@@ -58,6 +63,11 @@ public class RteDependencySolver extends CpConditionContext implements IRteDepen
 
 	protected Map<IRteComponentItem, EEvaluationResult> fEvaluationResults = null;
 
+	// items whose cached results depend on an item: conditions, expressions and components
+	protected Map<ICpItem, Set<ICpItem>> fDependents = new HashMap<ICpItem, Set<ICpItem>>();
+	// items being evaluated, the top one is the dependent of the next evaluated item
+	protected LinkedList<ICpItem> tEvaluationStack = new LinkedList<ICpItem>();
+
 	/**
 	 *  Helper class to compare component by evaluation result (descending) and component name (acceding)
 	 */
@@ -89,11 +99,101 @@ public class RteDependencySolver extends CpConditionContext implements IRteDepen
 		super.resetResult();
 		fDependencies = null;
 		fDenyDependencies = null;
+		fDependents.clear();
+		resetEvaluationState();
+	}
+
+	/**
+	 * Resets overall results, but keeps cached results of conditions, expressions and dependencies
+	 */
+	protected void resetEvaluationState() {
+		fResult = EEvaluationResult.IGNORED;
+		tResultAccept = EEvaluationResult.UNDEFINED;
+		tbDeny = false;
+		tConditionsBeingEvaluated.clear();
+		tEvaluationStack.clear();
 		fEvaluationResults = null;
 		fDependencyItems = null;
 		tSelectedComponents = null;
 	}
 
+	@Override
+	public EEvaluationResult evaluate(ICpItem item) {
+		if(item == null) {
+			return EEvaluationResult.IGNORED;
+		}
+		ICpItem dependent = tEvaluationStack.peek();
+		if(dependent != null) {
+			Set<ICpItem> dependents = fDependents.get(item);
+			if(dependents == null) {
+				dependents = new HashSet<ICpItem>();
+				fDependents.put(item, dependents);
+			}
+			dependents.add(dependent);
+		}
+		tEvaluationStack.push(item);
+		try {
+			return super.evaluate(item);
+		} finally {
+			tEvaluationStack.pop();
+		}
+	}
+
+	/**
+	 * Removes cached results affected by changed selection of supplied components:
+	 * dependencies on components of the same classes, dependencies without class and all items depending on them
+	 * @param changedComponents components whose selection has changed
+	 */
+	protected void invalidateResults(Collection<IRteComponent> changedComponents) {
+		Set<String> classNames = new HashSet<String>();
+		for(IRteComponent component : changedComponents) {
+			IRteComponentItem classItem = component.getParentClass();
+			if(classItem != null) {
+				classNames.add(classItem.getName());
+			}
+		}
+		Set<ICpItem> invalidated = new HashSet<ICpItem>();
+		invalidateDependencies(fDependencies, classNames, invalidated);
+		invalidateDependencies(fDenyDependencies, classNames, invalidated);
+	}
+
+	protected void invalidateDependencies(Map<ICpExpression, IRteDependency> dependencies, Set<String> classNames, Set<ICpItem> invalidated) {
+		if(dependencies == null) {
+			return;
+		}
+		for(Iterator<ICpExpression> iterator = dependencies.keySet().iterator(); iterator.hasNext();) {
+			ICpExpression expression = iterator.next();
+			String classPattern = expression.getAttribute(CmsisConstants.CCLASS);
+			if(classPattern == null || classPattern.isEmpty()) {
+				iterator.remove(); // can match components of any class
+				invalidateResult(expression, invalidated);
+				continue;
+			}
+			for(String className : classNames) {
+				if(WildCards.match(classPattern, className)) {
+					iterator.remove();
+					invalidateResult(expression, invalidated);
+					break;
+				}
+			}
+		}
+	}
+
+	protected void invalidateResult(ICpItem item, Set<ICpItem> invalidated) {
+		if(!invalidated.add(item)) {
+			return;
+		}
+		if(fResults != null) {
+			fResults.remove(item);
+		}
+		Set<ICpItem> dependents = fDependents.get(item);
+		if(dependents != null) {
+			for(ICpItem dependent : dependents) {
+				invalidateResult(dependent, invalidated);
+			}
+		}
+	}
+
 	protected Collection<IRteComponent> getSelectedComponents(){
 		if(tSelectedComponents == null) {
 			if(rteModel != null) {
@@ -119,6 +219,16 @@ public class RteDependencySolver extends CpConditionContext implements IRteDepen
 
 
 
+	@Override
+	protected boolean isShareResults() {
+		return false; // results depend on selected components
+	}
+
+	@Override
+	protected boolean isEvaluateCompiled() {
+		return false; // component expressions are evaluated
+	}
+
 	@Override
 	protected boolean isEvaluate(EEvaluationResult res) {
 		if(super.isEvaluate(res)) {
@@ -282,6 +392,26 @@ public class RteDependencySolver extends CpConditionContext implements IRteDepen
 	@Override
 	public EEvaluationResult evaluateDependencies() {
 		resetResult();
+		return collectDependencyResults();
+	}
+
+	/**
+	 * Re-evaluates dependencies after selection of supplied components has changed.
+	 * Only results depending on components of the same classes are evaluated again.
+	 * @param changedComponents components whose selection has changed
+	 * @return overall evaluation result
+	 */
+	protected EEvaluationResult reevaluateDependencies(Collection<IRteComponent> changedComponents) {
+		invalidateResults(changedComponents);
+		resetEvaluationState();
+		return collectDependencyResults();
+	}
+
+	/**
+	 * Evaluates selected components using cached results and collects dependency items
+	 * @return overall evaluation result
+	 */
+	protected EEvaluationResult collectDependencyResults() {
 		if(rteModel == null)
 		{
 			return EEvaluationResult.IGNORED; // nothing to do
@@ -487,59 +617,65 @@ public class RteDependencySolver extends CpConditionContext implements IRteDepen
 		// try to run resolve iteration until all dependencies are resolved or no resolution is available
 		while(fDependencyItems != null && getEvaluationResult().ordinal() < EEvaluationResult.FULFILLED.ordinal())
 		{
-			if(resolveIteration() == false) {
+			Collection<IRteComponent> selected = resolveIteration();
+			if(selected.isEmpty()) {
 				break;
 			}
+			reevaluateDependencies(selected); // re-evaluate affected dependencies to remove resolved ones
 		}
 		return getEvaluationResult();
 	}
 
 	/**
-	 * Tries to resolve SELECTABLE dependencies
-	 * @return true if one of dependencies gets resolved => the state changes
+	 * Tries to resolve all SELECTABLE dependency items, at most one dependency per item is resolved
+	 * and at most one component per group is selected in one iteration
+	 * @return collection of selected components, empty if nothing could be resolved
 	 */
-	protected boolean resolveIteration(){
+	protected Collection<IRteComponent> resolveIteration(){
+		Collection<IRteComponent> selected = new LinkedHashSet<IRteComponent>();
 		for(IRteDependencyItem depItem : fDependencyItems.values()) {
-			if(resolveDependency(depItem)) {
-				return true;
-			}
+			resolveDependency(depItem, selected);
 		}
-		return false;
+		return selected;
 	}
 
 
-	protected boolean resolveDependency(IRteDependencyItem depItem){
+	protected void resolveDependency(IRteDependencyItem depItem, Collection<IRteComponent> selected){
 		if(depItem.getEvaluationResult() != EEvaluationResult.SELECTABLE) {
-			return false;
+			return;
 		}
 		if(depItem instanceof IRteDependencyResult) {
 			IRteDependencyResult depRes = (IRteDependencyResult)depItem;
 			Collection<IRteDependency> deps = depRes.getDependencies();
 			if(deps == null) {
-				return false;
+				return;
 			}
 			for(IRteDependency d : deps) {
-				if(resolveDependency(d)) {
-					return true;
+				if(resolveDependency(d, selected)) {
+					return; // the rest of the item is re-evaluated before next iteration
 				}
 			}
 		}
-		return false;
 	}
 
 
-	protected boolean resolveDependency(IRteDependency dependency){
+	protected boolean resolveDependency(IRteDependency dependency, Collection<IRteComponent> selected){
 		if(dependency.getEvaluationResult() != EEvaluationResult.SELECTABLE) {
 			return false;
 		}
 
 		IRteComponent c = dependency.getBestMatch();
-		if(c != null) {
-			rteModel.selectComponent(c, 1);
-			rteModel.evaluateComponentDependencies(); // re-evaluate dependencies to remove resolved ones
-			return true;
+		if(c == null || selected.contains(c)) {
+			return false;
+		}
+		for(IRteComponent s : selected) {
+			if(s.getParentGroup() == c.getParentGroup()) {
+				return false; // the group has changed in this iteration, the best match might be different now
+			}
 		}
-		return false;
+		rteModel.selectComponent(c, 1);
+		selected.add(c);
+		return true;
 	}
 
 
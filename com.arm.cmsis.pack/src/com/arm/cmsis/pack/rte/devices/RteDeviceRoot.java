@@ -84,6 +84,7 @@ public class RteDeviceRoot extends RteDeviceItem implements IRteDeviceRoot {
 		if(pack == null) {
 			return;
 		}
+		packs.remove(pack.getPackFamilyId(), pack);
 		Collection<? extends ICpItem> devices = pack.getGrandChildren(CmsisConstants.DEVICES_TAG);
 		if (devices != null) {
 			for (ICpItem item : devices) {